@@ -0,0 +1,32 @@
+package it.dieti.dietiestatesbackend.api;
+
+/**
+ * Evaluation of {@code If-None-Match} (RFC 9110, section 13.1.2): the header matches when it is
+ * {@code *} or lists the current tag, compared weakly, i.e. ignoring a {@code W/} prefix.
+ */
+final class EntityTags {
+
+    private EntityTags() {
+    }
+
+    static boolean matches(String ifNoneMatch, String currentTag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank() || currentTag == null) {
+            return false;
+        }
+        if (ifNoneMatch.trim().equals("*")) {
+            return true;
+        }
+        var current = opaque(currentTag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            if (opaque(candidate).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String opaque(String tag) {
+        var trimmed = tag.trim();
+        return trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed;
+    }
+}
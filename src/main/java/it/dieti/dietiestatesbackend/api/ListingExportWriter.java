@@ -0,0 +1,171 @@
+package it.dieti.dietiestatesbackend.api;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchService.ExportRow;
+import org.springframework.http.MediaType;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * Writes export rows one at a time as NDJSON or CSV (RFC 4180, with header). Nothing is kept
+ * besides the output buffer, so memory does not depend on the number of rows.
+ */
+final class ListingExportWriter {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    private static final List<Column> COLUMNS = List.of(
+            new Column("id", row -> row.listing().id()),
+            new Column("listingType", ExportRow::listingTypeCode),
+            new Column("status", ExportRow::statusCode),
+            new Column("title", row -> row.listing().title()),
+            new Column("priceCents", row -> row.listing().priceCents()),
+            new Column("currency", row -> row.listing().currency()),
+            new Column("sizeSqm", row -> row.listing().sizeSqm()),
+            new Column("rooms", row -> row.listing().rooms()),
+            new Column("floor", row -> row.listing().floor()),
+            new Column("energyClass", row -> row.listing().energyClass()),
+            new Column("furnished", row -> row.listing().furnished()),
+            new Column("petsAllowed", row -> row.listing().petsAllowed()),
+            new Column("addressLine", row -> row.listing().addressLine()),
+            new Column("city", row -> row.listing().city()),
+            new Column("postalCode", row -> row.listing().postalCode()),
+            new Column("lat", row -> row.listing().latitude()),
+            new Column("lng", row -> row.listing().longitude()),
+            new Column("photoCount", row -> row.listing().photoCount()),
+            new Column("coverPhotoUrl", row -> row.listing().coverPhotoUrl()),
+            new Column("agencyId", row -> row.listing().agencyId()),
+            new Column("ownerAgentId", row -> row.listing().ownerAgentId()),
+            new Column("publishedAt", row -> row.listing().publishedAt()),
+            new Column("createdAt", row -> row.listing().createdAt()),
+            new Column("updatedAt", row -> row.listing().updatedAt()),
+            new Column("distanceMeters", row -> row.listing().distanceMeters())
+    );
+
+    enum Format {
+        NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+        CSV(new MediaType("text", "csv", StandardCharsets.UTF_8), "csv");
+
+        private final MediaType mediaType;
+        private final String extension;
+
+        Format(MediaType mediaType, String extension) {
+            this.mediaType = mediaType;
+            this.extension = extension;
+        }
+
+        MediaType mediaType() {
+            return mediaType;
+        }
+
+        String extension() {
+            return extension;
+        }
+
+        static Format parse(String raw) {
+            if (raw == null || raw.isBlank()) {
+                return NDJSON;
+            }
+            return switch (raw.trim().toLowerCase(Locale.ROOT)) {
+                case "ndjson" -> NDJSON;
+                case "csv" -> CSV;
+                default -> throw BadRequestException.forField("format", "Il parametro 'format' deve essere 'ndjson' o 'csv'.");
+            };
+        }
+    }
+
+    private final Format format;
+    private final Writer writer;
+    private final JsonGenerator json;
+
+    ListingExportWriter(Format format, OutputStream out) throws IOException {
+        this.format = format;
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        if (format == Format.NDJSON) {
+            this.json = JSON_FACTORY.createGenerator(writer);
+            this.json.setRootValueSeparator(null);
+        } else {
+            this.json = null;
+            writeCsvHeader();
+        }
+    }
+
+    void write(ExportRow row) throws IOException {
+        if (format == Format.NDJSON) {
+            writeJson(row);
+        } else {
+            writeCsv(row);
+        }
+    }
+
+    private void writeJson(ExportRow row) throws IOException {
+        json.writeStartObject();
+        for (Column column : COLUMNS) {
+            json.writeFieldName(column.name());
+            switch (column.value().apply(row)) {
+                case null -> json.writeNull();
+                case Boolean value -> json.writeBoolean(value);
+                case Integer value -> json.writeNumber(value);
+                case Long value -> json.writeNumber(value);
+                case Double value -> json.writeNumber(value);
+                case BigDecimal value -> json.writeNumber(value);
+                case Object value -> json.writeString(value.toString());
+            }
+        }
+        json.writeEndObject();
+        json.writeRaw('\n');
+    }
+
+    private void writeCsvHeader() throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            writer.write(COLUMNS.get(i).name());
+        }
+        writer.write("\r\n");
+    }
+
+    private void writeCsv(ExportRow row) throws IOException {
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            var value = COLUMNS.get(i).value().apply(row);
+            if (value != null) {
+                writer.write(csvField(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString()));
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Writes out buffered rows; the underlying stream is left open for the servlet container.
+     */
+    void flush() throws IOException {
+        if (json != null) {
+            json.flush();
+        }
+        writer.flush();
+    }
+
+    private record Column(String name, Function<ExportRow, Object> value) {}
+}
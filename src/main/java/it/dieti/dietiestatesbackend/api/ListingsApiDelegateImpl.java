@@ -3,31 +3,52 @@ package it.dieti.dietiestatesbackend.api;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import it.dieti.dietiestatesbackend.api.model.DeleteRequest;
+import it.dieti.dietiestatesbackend.api.model.FacetCount;
 import it.dieti.dietiestatesbackend.api.model.Listing;
 import it.dieti.dietiestatesbackend.api.model.ListingCreate;
+import it.dieti.dietiestatesbackend.api.model.ListingFacets;
 import it.dieti.dietiestatesbackend.api.model.ListingGeo;
+import it.dieti.dietiestatesbackend.api.model.ListingMap;
+import it.dieti.dietiestatesbackend.api.model.ListingMapCluster;
 import it.dieti.dietiestatesbackend.api.model.ListingPhoto;
+import it.dieti.dietiestatesbackend.api.model.ListingSuggestions;
+import it.dieti.dietiestatesbackend.api.model.LocationSuggestion;
 import it.dieti.dietiestatesbackend.api.model.Page;
+import it.dieti.dietiestatesbackend.api.model.PriceBucket;
 import it.dieti.dietiestatesbackend.api.model.ListingUpdate;
 import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
 import it.dieti.dietiestatesbackend.application.exception.InternalServerErrorException;
 import it.dieti.dietiestatesbackend.application.exception.UnauthorizedException;
 import it.dieti.dietiestatesbackend.application.exception.listing.ListingStatusUnavailableException;
 import it.dieti.dietiestatesbackend.application.exception.listing.ListingTypeNotSupportedException;
-import it.dieti.dietiestatesbackend.application.feature.FeatureService;
+import it.dieti.dietiestatesbackend.application.listing.ListingCounterService;
 import it.dieti.dietiestatesbackend.application.listing.ListingCreationService;
+import it.dieti.dietiestatesbackend.application.listing.ListingDetailService;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchProperties;
 import it.dieti.dietiestatesbackend.application.listing.ListingSearchService;
+import it.dieti.dietiestatesbackend.application.listing.ListingSuggestionService;
+import it.dieti.dietiestatesbackend.application.listing.SimilarListingService;
 import it.dieti.dietiestatesbackend.application.media.listing.ListingMediaService;
+import it.dieti.dietiestatesbackend.config.AsyncRequestTimeoutConfig;
 import it.dieti.dietiestatesbackend.domain.feature.Feature;
-import org.locationtech.jts.geom.Point;
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounters;
+import it.dieti.dietiestatesbackend.domain.listing.detail.ListingDetail;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.TotalAccuracy;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusesEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.net.URI;
 import java.util.Arrays;
@@ -42,19 +63,31 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
     private static final String LISTING = "listing";
     private final ListingCreationService listingCreationService;
     private final ListingMediaService listingMediaService;
-    private final FeatureService featureService;
+    private final ListingDetailService listingDetailService;
     private final ListingSearchService listingSearchService;
+    private final ListingSuggestionService listingSuggestionService;
+    private final ListingCounterService listingCounterService;
+    private final ListingSearchProperties listingSearchProperties;
+    private final SimilarListingService similarListingService;
     private static final String NO_LISTING_BY_ID = "nessun listing trovato per id";
     private static final Logger log = LoggerFactory.getLogger(ListingsApiDelegateImpl.class);
 
     public ListingsApiDelegateImpl(ListingCreationService listingCreationService,
                                    ListingMediaService listingMediaService,
-                                   FeatureService featureService,
-                                   ListingSearchService listingSearchService) {
+                                   ListingDetailService listingDetailService,
+                                   ListingSearchService listingSearchService,
+                                   ListingSuggestionService listingSuggestionService,
+                                   ListingCounterService listingCounterService,
+                                   ListingSearchProperties listingSearchProperties,
+                                   SimilarListingService similarListingService) {
         this.listingCreationService = listingCreationService;
         this.listingMediaService = listingMediaService;
-        this.featureService = featureService;
+        this.listingDetailService = listingDetailService;
         this.listingSearchService = listingSearchService;
+        this.listingSuggestionService = listingSuggestionService;
+        this.listingCounterService = listingCounterService;
+        this.listingSearchProperties = listingSearchProperties;
+        this.similarListingService = similarListingService;
     }
 
 
@@ -62,6 +95,7 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
     public ResponseEntity<Page> listingsGet(
             String type,
             String city,
+            String q,
             Integer minPrice,
             Integer maxPrice,
             Integer minRooms,
@@ -80,9 +114,13 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
             Boolean hasPhotos,
             UUID agencyId,
             UUID ownerAgentId,
+            String polygon,
             Integer page,
             Integer size,
-            String sort
+            String sort,
+            String cursor,
+            String count,
+            String ifNoneMatch
     ) {
         boolean enforcePublishedOnly = !(SecurityContextHolder.getContext().getAuthentication() instanceof JwtAuthenticationToken);
         String normalizedStatus = status != null ? status.trim().toUpperCase(Locale.ROOT) : null;
@@ -92,6 +130,7 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
         var query = new ListingSearchService.SearchQuery(
                 type,
                 city,
+                q,
                 minPrice,
                 maxPrice,
                 minRooms,
@@ -105,6 +144,7 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
                 latitude,
                 longitude,
                 radiusMeters,
+                polygon,
                 hasPhotos,
                 furnished,
                 petsAllowed,
@@ -113,27 +153,57 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
                 page,
                 size,
                 sort,
+                cursor,
+                count,
                 enforcePublishedOnly
         );
 
         try {
-            var result = listingSearchService.search(query);
+            var outcome = listingSearchService.search(query, entityTag -> EntityTags.matches(ifNoneMatch, entityTag));
+            if (outcome.notModified()) {
+                // The client shows its copy of the page again, so a 304 counts as an impression, as
+                // a 304 on the detail counts as a view. Tagged pages hold published listings only.
+                listingCounterService.recordImpressions(outcome.listingIds());
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                        .eTag(outcome.entityTag())
+                        .cacheControl(anonymousPageCacheControl())
+                        .varyBy(HttpHeaders.AUTHORIZATION)
+                        .build();
+            }
+            var result = outcome.result();
+            listingCounterService.recordImpressions(result.items().stream()
+                    .filter(item -> item.listingStatus() != null
+                            && ListingStatusesEnum.PUBLISHED.getDescription().equals(item.listingStatus().code()))
+                    .map(item -> item.listing().id())
+                    .toList());
+            var cacheControl = result.entityTag() != null ? anonymousPageCacheControl() : null;
             var items = result.items().stream()
                     .map(item -> toApi(
                             item.listing(),
                             item.listingStatus() != null ? item.listingStatus().code() : null,
                             item.listingType() != null ? item.listingType().code() : null,
-                            item.photos().stream().map(this::toApi).toList(),
-                            item.features().stream().map(Feature::code).toList()
+                            item.features().stream().map(Feature::code).toList(),
+                            item.counters()
                     ))
                     .toList();
 
             Page body = new Page();
             body.setPage(result.page());
             body.setSize(result.size());
-            body.setTotal(Math.toIntExact(result.total()));
+            if (result.totalAccuracy() != TotalAccuracy.UNKNOWN) {
+                body.setTotal(Math.toIntExact(result.total()));
+            }
+            body.setTotalAccuracy(Page.TotalAccuracyEnum.fromValue(result.totalAccuracy().name()));
+            body.setNextCursor(result.nextCursor());
             body.setItems(items);
-            return ResponseEntity.ok(body);
+            if (cacheControl == null) {
+                return ResponseEntity.ok(body);
+            }
+            return ResponseEntity.ok()
+                    .eTag(result.entityTag())
+                    .cacheControl(cacheControl)
+                    .varyBy(HttpHeaders.AUTHORIZATION)
+                    .body(body);
         } catch (BadRequestException ex) {
             throw ex;
         } catch (Exception ex) {
@@ -142,6 +212,287 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
         }
     }
 
+    private CacheControl anonymousPageCacheControl() {
+        return CacheControl.maxAge(listingSearchProperties.getHttpMaxAge()).cachePublic().mustRevalidate();
+    }
+
+    @Override
+    public ResponseEntity<ListingMap> listingsMapGet(
+            Double minLat,
+            Double minLng,
+            Double maxLat,
+            Double maxLng,
+            Integer zoom,
+            String type,
+            String city,
+            String q,
+            Integer minPrice,
+            Integer maxPrice,
+            Integer minRooms,
+            Integer maxRooms,
+            Float minSqm,
+            Float maxSqm,
+            Boolean furnished,
+            Boolean petsAllowed,
+            List<String> energyClasses,
+            List<String> postalCodes,
+            List<String> features,
+            String status,
+            Boolean hasPhotos,
+            UUID agencyId,
+            UUID ownerAgentId,
+            String polygon
+    ) {
+        var query = filterQuery(type, city, q, minPrice, maxPrice, minRooms, maxRooms, minSqm, maxSqm, furnished, petsAllowed,
+                energyClasses, postalCodes, features, status, null, null, null, hasPhotos, agencyId, ownerAgentId, polygon, null);
+        var viewport = new ListingSearchService.MapViewport(minLat, minLng, maxLat, maxLng, zoom);
+
+        try {
+            var result = listingSearchService.searchMap(query, viewport);
+            ListingMap body = new ListingMap();
+            body.setMode(result.clustered() ? ListingMap.ModeEnum.CLUSTERS : ListingMap.ModeEnum.LISTINGS);
+            body.setTotal(result.total());
+            body.setClusters(result.clusters().stream()
+                    .map(cluster -> new ListingMapCluster()
+                            .lat(cluster.latitude())
+                            .lng(cluster.longitude())
+                            .count(cluster.count())
+                            .minPriceCents(cluster.minPriceCents())
+                            .maxPriceCents(cluster.maxPriceCents()))
+                    .toList());
+            body.setListings(result.listings().stream()
+                    .map(item -> toApi(
+                            item.listing(),
+                            item.listingStatus() != null ? item.listingStatus().code() : null,
+                            item.listingType() != null ? item.listingType().code() : null,
+                            item.features().stream().map(Feature::code).toList(),
+                            item.counters()
+                    ))
+                    .toList());
+            return ResponseEntity.ok(body);
+        } catch (BadRequestException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Errore inatteso durante la ricerca annunci su mappa", ex);
+            throw new InternalServerErrorException("Si è verificato un errore interno. Riprova più tardi.");
+        }
+    }
+
+    @Override
+    public ResponseEntity<ListingFacets> listingsFacetsGet(
+            String type,
+            String city,
+            String q,
+            Integer minPrice,
+            Integer maxPrice,
+            Integer minRooms,
+            Integer maxRooms,
+            Float minSqm,
+            Float maxSqm,
+            Boolean furnished,
+            Boolean petsAllowed,
+            List<String> energyClasses,
+            List<String> postalCodes,
+            List<String> features,
+            String status,
+            Float lat,
+            Float lng,
+            Integer radiusMeters,
+            Boolean hasPhotos,
+            UUID agencyId,
+            UUID ownerAgentId,
+            String polygon
+    ) {
+        var query = filterQuery(type, city, q, minPrice, maxPrice, minRooms, maxRooms, minSqm, maxSqm, furnished, petsAllowed,
+                energyClasses, postalCodes, features, status,
+                lat != null ? lat.doubleValue() : null, lng != null ? lng.doubleValue() : null, radiusMeters,
+                hasPhotos, agencyId, ownerAgentId, polygon, null);
+
+        try {
+            var result = listingSearchService.facets(query);
+            ListingFacets body = new ListingFacets();
+            body.setTotal(result.total());
+            body.setListingTypes(toFacetCounts(result.listingTypes()));
+            body.setEnergyClasses(toFacetCounts(result.energyClasses()));
+            body.setRooms(toFacetCounts(result.rooms()));
+            body.setFeatures(toFacetCounts(result.features()));
+            body.setPriceHistogram(result.priceHistogram().stream()
+                    .map(bucket -> new PriceBucket()
+                            .minPriceCents(bucket.minPriceCents())
+                            .maxPriceCents(bucket.maxPriceCents())
+                            .count(bucket.count()))
+                    .toList());
+            return ResponseEntity.ok(body);
+        } catch (BadRequestException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            log.error("Errore inatteso durante il calcolo delle facet annunci", ex);
+            throw new InternalServerErrorException("Si è verificato un errore interno. Riprova più tardi.");
+        }
+    }
+
+    @Override
+    public ResponseEntity<StreamingResponseBody> listingsExportGet(
+            String type,
+            String city,
+            String q,
+            Integer minPrice,
+            Integer maxPrice,
+            Integer minRooms,
+            Integer maxRooms,
+            Float minSqm,
+            Float maxSqm,
+            Boolean furnished,
+            Boolean petsAllowed,
+            List<String> energyClasses,
+            List<String> postalCodes,
+            List<String> features,
+            String status,
+            Float lat,
+            Float lng,
+            Integer radiusMeters,
+            Boolean hasPhotos,
+            UUID agencyId,
+            UUID ownerAgentId,
+            String polygon,
+            String sort,
+            String format
+    ) {
+        if (!(SecurityContextHolder.getContext().getAuthentication() instanceof JwtAuthenticationToken)) {
+            throw UnauthorizedException.bearerTokenMissing();
+        }
+        var exportFormat = ListingExportWriter.Format.parse(format);
+        var query = filterQuery(type, city, q, minPrice, maxPrice, minRooms, maxRooms, minSqm, maxSqm, furnished, petsAllowed,
+                energyClasses, postalCodes, features, status,
+                lat != null ? lat.doubleValue() : null, lng != null ? lng.doubleValue() : null, radiusMeters,
+                hasPhotos, agencyId, ownerAgentId, polygon, sort);
+        var filters = listingSearchService.resolveExportFilters(query);
+        AsyncRequestTimeoutConfig.setForCurrentRequest(listingSearchProperties.getExportTimeout());
+
+        StreamingResponseBody body = out -> {
+            var writer = new ListingExportWriter(exportFormat, out);
+            try {
+                listingSearchService.export(filters, row -> {
+                    try {
+                        writer.write(row);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+            } catch (UncheckedIOException ex) {
+                log.info("Esportazione annunci interrotta: {}", ex.getCause().getMessage());
+                throw ex.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(exportFormat.mediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"listings." + exportFormat.extension() + "\"")
+                .body(body);
+    }
+
+    @Override
+    public ResponseEntity<ListingSuggestions> listingsSuggestionsGet(String prefix, Integer limit) {
+        var result = listingSuggestionService.suggest(prefix, limit);
+        ListingSuggestions body = new ListingSuggestions();
+        body.setCities(toLocationSuggestions(result.cities()));
+        body.setPostalCodes(toLocationSuggestions(result.postalCodes()));
+        return ResponseEntity.ok(body);
+    }
+
+    @Override
+    public ResponseEntity<List<Listing>> listingsIdSimilarGet(UUID id, Integer limit) {
+        var similar = similarListingService.findSimilar(id, limit);
+        listingCounterService.recordImpressions(similar.stream().map(item -> item.listing().id()).toList());
+        var body = similar.stream()
+                .map(item -> toApi(
+                        item.listing(),
+                        item.listingStatus() != null ? item.listingStatus().code() : null,
+                        item.listingType() != null ? item.listingType().code() : null,
+                        item.features().stream().map(Feature::code).toList(),
+                        item.counters()
+                ))
+                .toList();
+        return ResponseEntity.ok(body);
+    }
+
+    private static List<LocationSuggestion> toLocationSuggestions(List<ListingSuggestionService.Suggestion> suggestions) {
+        return suggestions.stream()
+                .map(suggestion -> new LocationSuggestion()
+                        .value(suggestion.value())
+                        .label(suggestion.label())
+                        .count(suggestion.count()))
+                .toList();
+    }
+
+    private static List<FacetCount> toFacetCounts(java.util.Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .map(entry -> new FacetCount().value(entry.getKey()).count(entry.getValue()))
+                .toList();
+    }
+
+    /**
+     * Filter-only search query (no paging or cursor) for the map, facets and export endpoints.
+     */
+    private static ListingSearchService.SearchQuery filterQuery(
+            String type,
+            String city,
+            String q,
+            Integer minPrice,
+            Integer maxPrice,
+            Integer minRooms,
+            Integer maxRooms,
+            Float minSqm,
+            Float maxSqm,
+            Boolean furnished,
+            Boolean petsAllowed,
+            List<String> energyClasses,
+            List<String> postalCodes,
+            List<String> features,
+            String status,
+            Double latitude,
+            Double longitude,
+            Integer radiusMeters,
+            Boolean hasPhotos,
+            UUID agencyId,
+            UUID ownerAgentId,
+            String polygon,
+            String sort
+    ) {
+        boolean enforcePublishedOnly = !(SecurityContextHolder.getContext().getAuthentication() instanceof JwtAuthenticationToken);
+        String normalizedStatus = status != null ? status.trim().toUpperCase(Locale.ROOT) : null;
+        return new ListingSearchService.SearchQuery(
+                type,
+                city,
+                q,
+                minPrice,
+                maxPrice,
+                minRooms,
+                maxRooms,
+                minSqm != null ? java.math.BigDecimal.valueOf(minSqm) : null,
+                maxSqm != null ? java.math.BigDecimal.valueOf(maxSqm) : null,
+                energyClasses,
+                features,
+                postalCodes,
+                normalizedStatus,
+                latitude,
+                longitude,
+                radiusMeters,
+                polygon,
+                hasPhotos,
+                furnished,
+                petsAllowed,
+                agencyId,
+                ownerAgentId,
+                null,
+                null,
+                sort,
+                null,
+                null,
+                enforcePublishedOnly
+        );
+    }
+
     @Override
     public ResponseEntity<java.util.List<ListingPhoto>> listingsIdPhotosPost(
             UUID id,
@@ -289,7 +640,8 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
 
     @Override
     public ResponseEntity<Listing> listingsIdGet(
-            @Parameter(name = "id", required = true, in = ParameterIn.PATH) UUID id
+            @Parameter(name = "id", required = true, in = ParameterIn.PATH) UUID id,
+            @Parameter(name = "If-None-Match", in = ParameterIn.HEADER) String ifNoneMatch
     ){
         UUID userId = null;
         var auth = SecurityContextHolder.getContext().getAuthentication();
@@ -297,8 +649,15 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
             userId = UUID.fromString(jwtAuth.getToken().getSubject());
         }
 
-        var body = getFullListing(id,userId);
-        return ResponseEntity.status(HttpStatus.OK).body(body);
+        var detail = listingDetailService.getDetail(id, userId);
+        if (ListingStatusesEnum.PUBLISHED.getDescription().equals(detail.statusCode())) {
+            listingCounterService.recordView(id);
+        }
+        var etag = ListingDetailService.entityTag(detail);
+        if (EntityTags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.status(HttpStatus.OK).eTag(etag).body(toApi(detail, listingCounterService.totals(id)));
     }
 
     @Override
@@ -421,16 +780,7 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
     }
 
     private Listing getFullListing(UUID id, UUID userId) {
-        var listingDetails = listingCreationService.getListingDetails(id,userId);
-        var photos = listingMediaService.getListingPhotos(id);
-        var features = featureService.getListingFeatures(id).stream().map(Feature::code).toList();
-        return toApi(
-                listingDetails.listing(),
-                listingDetails.listingStatus().code(),
-                listingDetails.listingType().code(),
-                photos.stream().map(this::toApi).toList(),
-                features
-        );
+        return toApi(listingDetailService.getDetail(id, userId), listingCounterService.totals(id));
     }
 
     private void requireField(Object value, String field) {
@@ -441,51 +791,86 @@ public class ListingsApiDelegateImpl implements ListingsApiDelegate {
         }
     }
 
-    private ListingPhoto toApi(ListingMediaService.ListingPhotoView photoView){
-        return new ListingPhoto()
-                .id(photoView.id())
-                .url(URI.create(photoView.publicUrl()))
-                .position(photoView.position());
+    private Listing toApi(ListingDetail detail, ListingCounters counters) {
+        Listing body = new Listing();
+        body.setId(detail.id());
+        body.setAgencyId(detail.agencyId());
+        body.setOwnerAgentId(detail.ownerAgentId());
+        body.setListingType(Listing.ListingTypeEnum.valueOf(detail.listingTypeCode()));
+        body.setStatus(Listing.StatusEnum.valueOf(detail.statusCode()));
+        body.setTitle(detail.title());
+        body.setDescription(detail.description());
+        body.setPriceCents(Math.toIntExact(detail.priceCents()));
+        body.setCity(detail.city());
+        body.setAddress(detail.addressLine());
+        body.setPostalCode(detail.postalCode());
+        body.setRooms(detail.rooms());
+        body.setSizeSqm(detail.sizeSqm() != null ? detail.sizeSqm().floatValue() : null);
+        body.setFloor(detail.floor());
+        body.setEnergyClass(detail.energyClass() != null ? Listing.EnergyClassEnum.valueOf(detail.energyClass()) : null);
+        body.setContractDescription(detail.contractDescription());
+        body.setSecurityDepositCents(detail.securityDepositCents());
+        body.setFurnished(detail.furnished());
+        body.setCondoFeeCents(detail.condoFeeCents());
+        body.setPetsAllowed(detail.petsAllowed());
+        body.setFeatures(detail.featureCodes());
+        if (detail.latitude() != null && detail.longitude() != null) {
+            var geo = new ListingGeo();
+            geo.setLat(detail.latitude().floatValue());
+            geo.setLng(detail.longitude().floatValue());
+            body.setGeo(geo);
+        }
+        body.setPhotos(detail.photos().stream()
+                .map(photo -> new ListingPhoto()
+                        .id(photo.id())
+                        .url(URI.create(photo.url()))
+                        .position(photo.position()))
+                .toList());
+        body.setViewCount(counters.views());
+        body.setImpressionCount(counters.impressions());
+        body.setCreatedAt(detail.createdAt());
+        body.setUpdatedAt(detail.updatedAt());
+        return body;
     }
 
-    private Listing toApi(it.dieti.dietiestatesbackend.domain.listing.Listing listing,String listingStatus, String typeCode,List<ListingPhoto> photos, List<String> features) {
+    private Listing toApi(ListingCard card, String listingStatus, String typeCode, List<String> features,
+                          ListingCounters counters) {
         Listing body = new Listing();
-        body.setId(listing.id());
-        body.setAgencyId(listing.agencyId());
-        body.setOwnerAgentId(listing.ownerAgentId());
+        body.setId(card.id());
+        body.setAgencyId(card.agencyId());
+        body.setOwnerAgentId(card.ownerAgentId());
         body.setListingType(Listing.ListingTypeEnum.valueOf(typeCode));
         body.setStatus(Listing.StatusEnum.valueOf(listingStatus));
-        body.setTitle(listing.title());
-        body.setDescription(listing.description());
-        body.setPriceCents(Math.toIntExact(listing.priceCents()));
-        body.setCity(listing.city());
-        body.setAddress(listing.addressLine());
-        body.setPostalCode(listing.postalCode());
-        body.setRooms(listing.rooms());
-        body.setSizeSqm(listing.sizeSqm() != null ? listing.sizeSqm().floatValue() : null);
-        body.setFloor(listing.floor());
-        body.setEnergyClass(Listing.EnergyClassEnum.valueOf(listing.energyClass()));
-        body.setContractDescription(listing.contractDescription());
-        body.setSecurityDepositCents(listing.securityDepositCents());
-        body.setFurnished(listing.furnished());
-        body.setCondoFeeCents(listing.condoFeeCents());
-        body.setPetsAllowed(listing.petsAllowed());
+        body.setTitle(card.title());
+        body.setDescription(card.descriptionExcerpt());
+        body.setPriceCents(Math.toIntExact(card.priceCents()));
+        body.setCity(card.city());
+        body.setAddress(card.addressLine());
+        body.setPostalCode(card.postalCode());
+        body.setRooms(card.rooms());
+        body.setSizeSqm(card.sizeSqm() != null ? card.sizeSqm().floatValue() : null);
+        body.setFloor(card.floor());
+        body.setEnergyClass(card.energyClass() != null ? Listing.EnergyClassEnum.valueOf(card.energyClass()) : null);
+        body.setSecurityDepositCents(card.securityDepositCents());
+        body.setFurnished(card.furnished());
+        body.setCondoFeeCents(card.condoFeeCents());
+        body.setPetsAllowed(card.petsAllowed());
         body.setFeatures(features);
-        body.setGeo(toGeo(listing.geo()));
-        body.setPhotos(photos);
-        body.setCreatedAt(listing.createdAt());
-        body.setUpdatedAt(listing.updatedAt());
-        return body;
-    }
-
-    private ListingGeo toGeo(Point point) {
-        if (point == null) {
-            return null;
-        }
         var geo = new ListingGeo();
-        geo.setLat((float) point.getY());
-        geo.setLng((float) point.getX());
-        return geo;
+        geo.setLat((float) card.latitude());
+        geo.setLng((float) card.longitude());
+        body.setGeo(geo);
+        body.setPhotos(null);
+        body.setPhotoCount(card.photoCount());
+        body.setCoverPhotoUrl(card.coverPhotoUrl() != null ? URI.create(card.coverPhotoUrl()) : null);
+        body.setDistanceMeters(card.distanceMeters());
+        if (counters != null) {
+            body.setViewCount(counters.views());
+            body.setImpressionCount(counters.impressions());
+        }
+        body.setCreatedAt(card.createdAt());
+        body.setUpdatedAt(card.updatedAt());
+        return body;
     }
 
 }
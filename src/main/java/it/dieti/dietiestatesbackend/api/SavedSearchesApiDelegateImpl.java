@@ -0,0 +1,131 @@
+package it.dieti.dietiestatesbackend.api;
+
+import it.dieti.dietiestatesbackend.api.model.SavedSearch;
+import it.dieti.dietiestatesbackend.api.model.SavedSearchCreate;
+import it.dieti.dietiestatesbackend.api.model.SavedSearchCriteria;
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.application.exception.UnauthorizedException;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchService.SearchQuery;
+import it.dieti.dietiestatesbackend.application.listing.SavedSearchService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.UUID;
+
+@Service
+public class SavedSearchesApiDelegateImpl implements SavedSearchesApiDelegate {
+
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchesApiDelegateImpl.class);
+
+    private final SavedSearchService savedSearchService;
+
+    public SavedSearchesApiDelegateImpl(SavedSearchService savedSearchService) {
+        this.savedSearchService = savedSearchService;
+    }
+
+    @Override
+    public ResponseEntity<List<SavedSearch>> savedSearchesGet() {
+        var userId = currentUserId("GET /saved-searches");
+        var response = savedSearchService.list(userId).stream()
+                .map(SavedSearchesApiDelegateImpl::toApi)
+                .toList();
+        return ResponseEntity.ok(response);
+    }
+
+    @Override
+    public ResponseEntity<SavedSearch> savedSearchesPost(SavedSearchCreate savedSearchCreate) {
+        var userId = currentUserId("POST /saved-searches");
+        if (savedSearchCreate == null || savedSearchCreate.getCriteria() == null) {
+            throw BadRequestException.forField("criteria", "Il campo 'criteria' è obbligatorio.");
+        }
+        var saved = savedSearchService.create(userId, savedSearchCreate.getName(), toQuery(savedSearchCreate.getCriteria()));
+        return ResponseEntity.status(HttpStatus.CREATED).body(toApi(saved));
+    }
+
+    @Override
+    public ResponseEntity<Void> savedSearchesIdDelete(UUID id) {
+        var userId = currentUserId("DELETE /saved-searches/{id}");
+        savedSearchService.delete(userId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    private static UUID currentUserId(String operation) {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (!(authentication instanceof JwtAuthenticationToken jwtAuth)) {
+            log.warn("Tentativo di accesso non autorizzato a {} senza JWT", operation);
+            throw UnauthorizedException.bearerTokenMissing();
+        }
+        return UUID.fromString(jwtAuth.getToken().getSubject());
+    }
+
+    private static SearchQuery toQuery(SavedSearchCriteria criteria) {
+        return new SearchQuery(
+                criteria.getType(),
+                criteria.getCity(),
+                criteria.getQ(),
+                criteria.getMinPrice(),
+                criteria.getMaxPrice(),
+                criteria.getMinRooms(),
+                criteria.getMaxRooms(),
+                criteria.getMinSqm(),
+                criteria.getMaxSqm(),
+                criteria.getEnergyClasses(),
+                criteria.getFeatures(),
+                criteria.getPostalCodes(),
+                null,
+                criteria.getLat(),
+                criteria.getLng(),
+                criteria.getRadiusMeters(),
+                criteria.getPolygon(),
+                criteria.getHasPhotos(),
+                criteria.getFurnished(),
+                criteria.getPetsAllowed(),
+                criteria.getAgencyId(),
+                criteria.getOwnerAgentId(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                true
+        );
+    }
+
+    private static SavedSearch toApi(SavedSearchService.SavedSearchView view) {
+        var query = view.criteria();
+        var criteria = new SavedSearchCriteria()
+                .type(query.type())
+                .city(query.city())
+                .q(query.q())
+                .minPrice(query.minPrice())
+                .maxPrice(query.maxPrice())
+                .minRooms(query.minRooms())
+                .maxRooms(query.maxRooms())
+                .minSqm(query.minSqm())
+                .maxSqm(query.maxSqm())
+                .furnished(query.furnished())
+                .petsAllowed(query.petsAllowed())
+                .energyClasses(query.energyClasses())
+                .postalCodes(query.postalCodes())
+                .features(query.features())
+                .lat(query.latitude())
+                .lng(query.longitude())
+                .radiusMeters(query.radiusMeters())
+                .hasPhotos(query.hasPhotos())
+                .agencyId(query.agencyId())
+                .ownerAgentId(query.ownerAgentId())
+                .polygon(query.polygon());
+        var body = new SavedSearch();
+        body.setId(view.id());
+        body.setName(view.name());
+        body.setCriteria(criteria);
+        body.setCreatedAt(view.createdAt());
+        return body;
+    }
+}
@@ -2,13 +2,16 @@ package it.dieti.dietiestatesbackend.application.feature;
 
 import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
 import it.dieti.dietiestatesbackend.application.exception.NotFoundException;
+import it.dieti.dietiestatesbackend.application.listing.ListingChangedEvent;
 import it.dieti.dietiestatesbackend.domain.feature.Feature;
 import it.dieti.dietiestatesbackend.domain.feature.FeatureRepository;
 import it.dieti.dietiestatesbackend.domain.feature.listing.ListingFeature;
 import it.dieti.dietiestatesbackend.domain.feature.listing.ListingFeatureRepository;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,10 +24,14 @@ import java.util.stream.Collectors;
 public class FeatureService {
     private final FeatureRepository featureRepository;
     private final ListingFeatureRepository listingFeatureRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public FeatureService(FeatureRepository featureRepository, ListingFeatureRepository listingFeatureRepository) {
+    public FeatureService(FeatureRepository featureRepository,
+                          ListingFeatureRepository listingFeatureRepository,
+                          ApplicationEventPublisher eventPublisher) {
         this.featureRepository = featureRepository;
         this.listingFeatureRepository = listingFeatureRepository;
+        this.eventPublisher = eventPublisher;
     }
 
     public List<Feature> findAll() {
@@ -49,6 +56,7 @@ public class FeatureService {
         var existingByFeatureId = existingAssociations.stream()
                 .collect(Collectors.toMap(ListingFeature::featureId, listingFeature -> listingFeature));
 
+        boolean changed = false;
         for (var entry : desiredFeatures.entrySet()) {
             if (!existingByFeatureId.containsKey(entry.getKey())) {
                 var entity = new ListingFeature(
@@ -60,14 +68,20 @@ public class FeatureService {
                         null
                 );
                 listingFeatureRepository.save(entity);
+                changed = true;
             }
         }
 
         for (var existing : existingAssociations) {
             if (!desiredFeatures.containsKey(existing.featureId())) {
                 listingFeatureRepository.deleteById(existing.id());
+                changed = true;
             }
         }
+        if (changed) {
+            listingFeatureRepository.refreshListingFeatureSet(listingId);
+            eventPublisher.publishEvent(ListingChangedEvent.features(listingId));
+        }
     }
 
     public Feature findByCode(String code) {
@@ -77,9 +91,14 @@ public class FeatureService {
     }
 
     public List<Feature> getListingFeatures(UUID listingId) {
-        return listingFeatureRepository.findByListingId(listingId).stream().map(f -> featureRepository.findById(f.featureId()).orElseThrow(
-                () -> NotFoundException.resourceNotFound("feature", f.featureId())
-        )).toList();
+        return getListingFeaturesByListingIds(List.of(listingId)).getOrDefault(listingId, List.of());
+    }
+
+    public Map<UUID, List<Feature>> getListingFeaturesByListingIds(Collection<UUID> listingIds) {
+        if (listingIds == null || listingIds.isEmpty()) {
+            return Map.of();
+        }
+        return listingFeatureRepository.findFeaturesByListingIds(listingIds);
     }
 
     private Map<String, Integer> normalizeAndValidateCodes(List<String> codes) {
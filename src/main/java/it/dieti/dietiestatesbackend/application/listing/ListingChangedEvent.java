@@ -0,0 +1,27 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.Listing;
+
+import java.util.UUID;
+
+/**
+ * Published whenever a listing, its photos or its features change.
+ * {@code previous} and {@code current} are the listing rows before and after the change when known
+ * (previous is null on creation; both may be null for photo or feature changes).
+ */
+public record ListingChangedEvent(UUID listingId, Listing previous, Listing current, Change change) {
+
+    public enum Change { LISTING, PHOTOS, FEATURES }
+
+    public static ListingChangedEvent listing(Listing previous, Listing current) {
+        return new ListingChangedEvent(current.id(), previous, current, Change.LISTING);
+    }
+
+    public static ListingChangedEvent photos(Listing listing) {
+        return new ListingChangedEvent(listing.id(), listing, listing, Change.PHOTOS);
+    }
+
+    public static ListingChangedEvent features(UUID listingId) {
+        return new ListingChangedEvent(listingId, null, null, Change.FEATURES);
+    }
+}
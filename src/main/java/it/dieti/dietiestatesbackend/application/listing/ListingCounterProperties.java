@@ -0,0 +1,37 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.listings.counters")
+public class ListingCounterProperties {
+    /**
+     * Interval between two flushes of the in-memory counters: the most traffic an instance can
+     * lose if it stops without a graceful shutdown.
+     */
+    private Duration flushInterval = Duration.ofSeconds(30);
+
+    /**
+     * Listings written by a single upsert statement; a flush issues as many as needed.
+     */
+    private int flushBatchSize = 1000;
+
+    public Duration getFlushInterval() {
+        return flushInterval;
+    }
+
+    public void setFlushInterval(Duration flushInterval) {
+        this.flushInterval = flushInterval;
+    }
+
+    public int getFlushBatchSize() {
+        return flushBatchSize;
+    }
+
+    public void setFlushBatchSize(int flushBatchSize) {
+        this.flushBatchSize = flushBatchSize;
+    }
+}
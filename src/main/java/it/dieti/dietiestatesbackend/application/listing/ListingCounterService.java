@@ -0,0 +1,144 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounterRepository;
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounterRepository.CounterIncrement;
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounters;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * View and impression counters of listings. Requests only increment in-memory {@link LongAdder}s,
+ * one pair per listing in a {@link ConcurrentHashMap}, so counting never takes a lock or touches
+ * the database. The pending counts are flushed every {@code app.listings.counters.flush-interval}
+ * and on shutdown, in batches of {@code flush-batch-size} listings per upsert; a failed batch is
+ * put back and retried by the next flush.
+ * <p>
+ * Each flush subtracts exactly the amount it writes, so increments racing with a flush are kept
+ * for the next one. Listings with nothing pending are evicted; an increment racing with the
+ * eviction of its entry is lost. Counts are attributed to the day of the flush.
+ */
+@Component
+public class ListingCounterService {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingCounterService.class);
+
+    private final ListingCounterRepository listingCounterRepository;
+    private final ListingCounterProperties properties;
+    private final ConcurrentHashMap<UUID, Pending> pending = new ConcurrentHashMap<>();
+
+    public ListingCounterService(ListingCounterRepository listingCounterRepository, ListingCounterProperties properties) {
+        this.listingCounterRepository = listingCounterRepository;
+        this.properties = properties;
+    }
+
+    public void recordView(UUID listingId) {
+        pending.computeIfAbsent(listingId, id -> new Pending()).views.increment();
+    }
+
+    public void recordImpressions(Collection<UUID> listingIds) {
+        for (UUID listingId : listingIds) {
+            pending.computeIfAbsent(listingId, id -> new Pending()).impressions.increment();
+        }
+    }
+
+    /**
+     * Persisted totals plus the counts not flushed yet by this instance.
+     */
+    public ListingCounters totals(UUID listingId) {
+        return totals(List.of(listingId)).getOrDefault(listingId, ListingCounters.ZERO);
+    }
+
+    public Map<UUID, ListingCounters> totals(Collection<UUID> listingIds) {
+        if (listingIds.isEmpty()) {
+            return Map.of();
+        }
+        var totals = new HashMap<>(listingCounterRepository.findTotals(listingIds));
+        for (UUID listingId : listingIds) {
+            var counts = pending.get(listingId);
+            if (counts != null) {
+                totals.put(listingId, totals.getOrDefault(listingId, ListingCounters.ZERO)
+                        .plus(counts.views.sum(), counts.impressions.sum()));
+            }
+        }
+        return totals;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.listings.counters.flush-interval:PT30S}",
+            initialDelayString = "${app.listings.counters.flush-interval:PT30S}"
+    )
+    public void scheduledFlush() {
+        flush();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Writes the pending counts; returns the number of listings written.
+     */
+    public synchronized int flush() {
+        var increments = drain();
+        if (increments.isEmpty()) {
+            return 0;
+        }
+        var day = LocalDate.now();
+        int batchSize = Math.max(1, properties.getFlushBatchSize());
+        for (int from = 0; from < increments.size(); from += batchSize) {
+            var batch = increments.subList(from, Math.min(from + batchSize, increments.size()));
+            try {
+                listingCounterRepository.add(day, batch);
+            } catch (RuntimeException ex) {
+                var unwritten = increments.subList(from, increments.size());
+                unwritten.forEach(this::restore);
+                log.warn("Unable to flush listing counters, {} listings kept for the next flush", unwritten.size(), ex);
+                return from;
+            }
+        }
+        log.debug("Flushed counters of {} listings", increments.size());
+        return increments.size();
+    }
+
+    private List<CounterIncrement> drain() {
+        var increments = new ArrayList<CounterIncrement>();
+        for (var entry : pending.entrySet()) {
+            var counts = entry.getValue();
+            long views = counts.views.sum();
+            long impressions = counts.impressions.sum();
+            if (views == 0 && impressions == 0) {
+                pending.remove(entry.getKey(), counts);
+                continue;
+            }
+            counts.views.add(-views);
+            counts.impressions.add(-impressions);
+            increments.add(new CounterIncrement(entry.getKey(), views, impressions));
+        }
+        return increments;
+    }
+
+    private void restore(CounterIncrement increment) {
+        var counts = pending.computeIfAbsent(increment.listingId(), id -> new Pending());
+        counts.views.add(increment.views());
+        counts.impressions.add(increment.impressions());
+    }
+
+    private static final class Pending {
+        private final LongAdder views = new LongAdder();
+        private final LongAdder impressions = new LongAdder();
+    }
+}
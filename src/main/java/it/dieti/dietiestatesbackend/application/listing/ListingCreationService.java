@@ -18,9 +18,7 @@ import it.dieti.dietiestatesbackend.domain.user.agent.Agent;
 import it.dieti.dietiestatesbackend.domain.user.agent.AgentRepository;
 import it.dieti.dietiestatesbackend.domain.listing.Listing;
 import it.dieti.dietiestatesbackend.domain.listing.ListingRepository;
-import it.dieti.dietiestatesbackend.domain.listing.ListingType;
 import it.dieti.dietiestatesbackend.domain.listing.ListingTypeRepository;
-import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatus;
 import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
 import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusesEnum;
 import it.dieti.dietiestatesbackend.domain.moderation.ModerationAction;
@@ -33,6 +31,7 @@ import org.locationtech.jts.geom.Point;
 import org.locationtech.jts.geom.PrecisionModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
@@ -72,6 +71,7 @@ public class ListingCreationService {
     private final NotificationService notificationService;
     private final ModerationService moderationService;
     private final CoordinatesValidator coordinatesValidator;
+    private final ApplicationEventPublisher eventPublisher;
 
     private static final Logger log = LoggerFactory.getLogger(ListingCreationService.class);
     private static final String INTERNAL_ERROR_MESSAGE = "Si è verificato un errore interno. Riprova più tardi.";
@@ -87,7 +87,8 @@ public class ListingCreationService {
                                   FeatureService featureService,
                                   NotificationService notificationService,
                                   ModerationService moderationService,
-                                  CoordinatesValidator coordinatesValidator) {
+                                  CoordinatesValidator coordinatesValidator,
+                                  ApplicationEventPublisher eventPublisher) {
         this.listingRepository = listingRepository;
         this.listingTypeRepository = listingTypeRepository;
         this.listingStatusRepository = listingStatusRepository;
@@ -98,6 +99,7 @@ public class ListingCreationService {
         this.notificationService = notificationService;
         this.moderationService = moderationService;
         this.coordinatesValidator = coordinatesValidator;
+        this.eventPublisher = eventPublisher;
     }
 
     public record CreateListingCommand(
@@ -144,12 +146,6 @@ public class ListingCreationService {
             List<String> featureCodes
     ) {}
 
-    public record ListingDetails(
-            it.dieti.dietiestatesbackend.domain.listing.Listing listing,
-            ListingType listingType,
-            ListingStatus listingStatus
-    ) {}
-
     @Transactional
     public Listing createListingForUser(UUID userId, CreateListingCommand command) {
         Objects.requireNonNull(userId, USER_ID_REQUIRED_MESSAGE);
@@ -223,6 +219,7 @@ public class ListingCreationService {
         log.info("Listing created {}", listing);
         var savedListing = listingRepository.save(listing);
         featureService.syncListingFeatures(savedListing.id(), command.featureCodes());
+        eventPublisher.publishEvent(ListingChangedEvent.listing(null, savedListing));
         return savedListing;
     }
 
@@ -251,6 +248,7 @@ public class ListingCreationService {
         var updatedListing = applyListingUpdates(listing, command);
         var saved = listingRepository.save(updatedListing);
         featureService.syncListingFeatures(saved.id(), command.featureCodes());
+        eventPublisher.publishEvent(ListingChangedEvent.listing(listing, saved));
 
         // Record a moderation EDIT action when a privileged user (ADMIN/SUPERADMIN) performs the update
         if (isPrivileged) {
@@ -352,6 +350,7 @@ public class ListingCreationService {
         );
         var savedListing = listingRepository.save(updatedListing);
         moderationService.recordListingDeletion(savedListing.id(), userId, userRole, sanitizedReason);
+        eventPublisher.publishEvent(ListingChangedEvent.listing(listing, savedListing));
 
         if (isPrivileged) {
             notificationService.sendDeleteListing(agentUser.email(), listing.title(), listingId, sanitizedReason);
@@ -449,6 +448,7 @@ public class ListingCreationService {
 
         var savedListing = listingRepository.save(restoredListing);
         moderationService.recordListingRestoration(savedListing.id(), userId, userRole);
+        eventPublisher.publishEvent(ListingChangedEvent.listing(listing, savedListing));
         return savedListing;
     }
 
@@ -521,7 +521,9 @@ public class ListingCreationService {
                 listing.createdAt(),
                 now
         );
-        return listingRepository.save(updated);
+        var saved = listingRepository.save(updated);
+        eventPublisher.publishEvent(ListingChangedEvent.listing(listing, saved));
+        return saved;
     }
 
     @Transactional
@@ -602,6 +604,7 @@ public class ListingCreationService {
         );
         var saved = listingRepository.save(updated);
         moderationService.recordListingEdit(saved.id(), userId, userRole, sanitizedReason);
+        eventPublisher.publishEvent(ListingChangedEvent.listing(listing, saved));
 
         if (isPrivileged) {
             var agent = agentRepository.findById(listing.ownerAgentId()).orElseThrow(() -> {
@@ -822,51 +825,21 @@ public class ListingCreationService {
         );
     }
 
-    public ListingDetails getListingDetails(UUID listingId, UUID userId) {
-        Objects.requireNonNull(listingId, LISTING_ID_REQUIRED_MESSAGE);
-
-        var listing = listingRepository.findById(listingId)
-                .orElseThrow(() -> {
-                    log.warn("Annuncio {} non trovato durante recupero dettagli", listingId);
-                    return NotFoundException.resourceNotFound(ANNUNCIO, listingId);
-                });
-
-        ListingType listingType = null;
-        if (listing.listingTypeId() != null) {
-            listingType = listingTypeRepository.findById(listing.listingTypeId())
-                    .orElseThrow(() -> {
-                        log.error("Annuncio '{}' con listingType '{}' inesistente", listingId, listing.listingTypeId());
-                    return new InternalServerErrorException(INTERNAL_ERROR_MESSAGE);
-                    });
-        }
-
-        ListingStatus listingStatus = null;
-        if (listing.statusId() != null) {
-            listingStatus = listingStatusRepository.findById(listing.statusId())
-                    .orElseThrow(() -> {
-                        log.error("Annuncio {} con status {} inesistente", listingId, listing.statusId());
-                        return new InternalServerErrorException(INTERNAL_ERROR_MESSAGE);
-                    });
-        }
-
-        var isListingPublic = listingStatus!= null && listingStatus.code().equals(ListingStatusesEnum.PUBLISHED.getDescription());
-        if (userId != null){
-            var userRole = resolveUserRole(userId);
-            boolean isPrivileged = userRole == RolesEnum.ADMIN || userRole == RolesEnum.SUPERADMIN;
-            if (!isPrivileged && !isListingPublic) {
-                try {
-                    var agent = requireAgent(userId);
-                    ensureOwnership(agent,listing);
-                } catch (Exception e) {
-                    throw NotFoundException.resourceNotFound(ANNUNCIO, listingId);
-                }
-            }
-        } else {
-            if (!isListingPublic) {
-                throw NotFoundException.resourceNotFound(ANNUNCIO, listingId);
-            }
+    /**
+     * Whether the user may see a listing that is not published: admins always, agents only for
+     * the listings they own. Anonymous users never.
+     */
+    public boolean canViewUnpublished(UUID userId, UUID ownerAgentId) {
+        if (userId == null) {
+            return false;
         }
-        return new ListingDetails(listing, listingType, listingStatus);
+        var userRole = resolveUserRole(userId);
+        if (userRole == RolesEnum.ADMIN || userRole == RolesEnum.SUPERADMIN) {
+            return true;
+        }
+        return agentRepository.findByUserId(userId)
+                .map(agent -> agent.id().equals(ownerAgentId))
+                .orElse(false);
     }
 
     private void validateCoordinates(double latitude, double longitude) {
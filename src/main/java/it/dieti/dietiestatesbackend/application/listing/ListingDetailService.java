@@ -0,0 +1,59 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.exception.NotFoundException;
+import it.dieti.dietiestatesbackend.domain.listing.detail.ListingDetail;
+import it.dieti.dietiestatesbackend.domain.listing.detail.ListingDetailRepository;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusesEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Detail page of a listing, read with a single statement from {@link ListingDetailRepository}.
+ * Published listings are public; the others are visible only to the users allowed by
+ * {@link ListingCreationService#canViewUnpublished} (admins and the owning agent) and look
+ * missing to everybody else.
+ */
+@Service
+public class ListingDetailService {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingDetailService.class);
+
+    private final ListingDetailRepository listingDetailRepository;
+    private final ListingCreationService listingCreationService;
+
+    public ListingDetailService(ListingDetailRepository listingDetailRepository,
+                                ListingCreationService listingCreationService) {
+        this.listingDetailRepository = listingDetailRepository;
+        this.listingCreationService = listingCreationService;
+    }
+
+    public ListingDetail getDetail(UUID listingId, UUID userId) {
+        Objects.requireNonNull(listingId, "listingId is required");
+        var detail = listingDetailRepository.findById(listingId)
+                .orElseThrow(() -> {
+                    log.warn("Annuncio {} non trovato durante recupero dettagli", listingId);
+                    return NotFoundException.resourceNotFound(ListingCreationService.ANNUNCIO, listingId);
+                });
+        boolean isPublic = ListingStatusesEnum.PUBLISHED.getDescription().equals(detail.statusCode());
+        if (!isPublic && !listingCreationService.canViewUnpublished(userId, detail.ownerAgentId())) {
+            throw NotFoundException.resourceNotFound(ListingCreationService.ANNUNCIO, listingId);
+        }
+        return detail;
+    }
+
+    /**
+     * Weak entity tag of the detail: the microseconds of {@code updated_at}, which every change
+     * to the listing, its photos or its features moves forward. The view and impression counters
+     * in the body change without moving the tag, so the tag cannot be strong.
+     */
+    public static String entityTag(ListingDetail detail) {
+        var updatedAt = detail.updatedAt().toInstant();
+        return "W/\"" + ChronoUnit.MICROS.between(Instant.EPOCH, updatedAt) + "\"";
+    }
+}
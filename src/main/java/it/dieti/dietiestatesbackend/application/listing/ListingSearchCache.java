@@ -0,0 +1,230 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchService.SearchResult;
+import it.dieti.dietiestatesbackend.domain.listing.Listing;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchFilters;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Bounded LRU cache of enriched search pages for anonymous, published-only searches.
+ * Entries are keyed by the normalized {@link SearchFilters} and evicted selectively after commit
+ * when a change may affect them: the page contains the changed listing, or the listing (before
+ * or after the change) may satisfy the page filters.
+ */
+@Component
+public class ListingSearchCache implements MeterBinder {
+
+    private final ListingSearchProperties properties;
+    private final Map<SearchFilters, CachedPage> pages = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder sizeEvictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ListingSearchCache(ListingSearchProperties properties) {
+        this.properties = properties;
+    }
+
+    public boolean isEnabled() {
+        return properties.getResultCacheMaxEntries() > 0;
+    }
+
+    public Optional<SearchResult> get(SearchFilters filters) {
+        CachedPage cached;
+        synchronized (pages) {
+            cached = pages.get(filters);
+        }
+        if (cached == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached.result());
+    }
+
+    /**
+     * Current invalidation generation; read it before running the query and pass it to
+     * {@link #put(SearchFilters, SearchResult, long)} so a page computed while a change was
+     * being committed is not cached.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    public void put(SearchFilters filters, SearchResult result, long expectedGeneration) {
+        var listingIds = result.items().stream()
+                .map(item -> item.listing().id())
+                .collect(Collectors.toUnmodifiableSet());
+        synchronized (pages) {
+            if (generation.get() != expectedGeneration) {
+                return;
+            }
+            pages.put(filters, new CachedPage(result, listingIds));
+            var iterator = pages.entrySet().iterator();
+            while (pages.size() > properties.getResultCacheMaxEntries() && iterator.hasNext()) {
+                iterator.next();
+                iterator.remove();
+                sizeEvictions.increment();
+            }
+        }
+    }
+
+    /**
+     * Runs after the listeners that update search indexes, so that a page read after the
+     * generation bump already reflects the change.
+     */
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        synchronized (pages) {
+            generation.incrementAndGet();
+            pages.entrySet().removeIf(entry -> {
+                boolean affected = isAffected(entry.getKey(), entry.getValue(), event);
+                if (affected) {
+                    invalidations.increment();
+                }
+                return affected;
+            });
+        }
+    }
+
+    private static boolean isAffected(SearchFilters filters, CachedPage page, ListingChangedEvent event) {
+        if (page.listingIds().contains(event.listingId())) {
+            return true;
+        }
+        if (event.previous() == null && event.current() == null) {
+            return switch (event.change()) {
+                case PHOTOS -> filters.hasPhotos() != null;
+                case FEATURES -> filters.featureIds() != null && !filters.featureIds().isEmpty();
+                case LISTING -> true;
+            };
+        }
+        return mayMatch(filters, event.previous()) || mayMatch(filters, event.current());
+    }
+
+    /**
+     * Conservative check of the scalar filters: false only when the listing certainly cannot
+     * appear in the results. Geo, photo, feature and keyword filters are not evaluated.
+     */
+    private static boolean mayMatch(SearchFilters filters, Listing listing) {
+        if (listing == null || listing.deletedAt() != null) {
+            return false;
+        }
+        if (filters.statusId() != null && !filters.statusId().equals(listing.statusId())) {
+            return false;
+        }
+        if (filters.listingTypeId() != null && !filters.listingTypeId().equals(listing.listingTypeId())) {
+            return false;
+        }
+        if (filters.normalizedCity() != null && !filters.normalizedCity().equals(upper(listing.city()))) {
+            return false;
+        }
+        if (filters.minPriceCents() != null && listing.priceCents() < filters.minPriceCents()) {
+            return false;
+        }
+        if (filters.maxPriceCents() != null && listing.priceCents() > filters.maxPriceCents()) {
+            return false;
+        }
+        if (!inRange(listing.rooms(), filters.minRooms(), filters.maxRooms())) {
+            return false;
+        }
+        if (!inRange(listing.sizeSqm(), filters.minSqm(), filters.maxSqm())) {
+            return false;
+        }
+        if (!contains(filters.normalizedEnergyClasses(), upper(listing.energyClass()))) {
+            return false;
+        }
+        if (!contains(filters.normalizedPostalCodes(), upper(listing.postalCode()))) {
+            return false;
+        }
+        if (filters.furnished() != null && filters.furnished() != listing.furnished()) {
+            return false;
+        }
+        if (filters.petsAllowed() != null && filters.petsAllowed() != listing.petsAllowed()) {
+            return false;
+        }
+        if (filters.agencyId() != null && !filters.agencyId().equals(listing.agencyId())) {
+            return false;
+        }
+        return filters.ownerAgentId() == null || filters.ownerAgentId().equals(listing.ownerAgentId());
+    }
+
+    private static boolean inRange(Integer value, Integer min, Integer max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null && (min == null || value >= min) && (max == null || value <= max);
+    }
+
+    private static boolean inRange(BigDecimal value, BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null
+                && (min == null || value.compareTo(min) >= 0)
+                && (max == null || value.compareTo(max) <= 0);
+    }
+
+    private static boolean contains(List<String> allowed, String value) {
+        return allowed == null || allowed.isEmpty() || allowed.contains(value);
+    }
+
+    private static String upper(String value) {
+        return value != null ? value.trim().toUpperCase(Locale.ROOT) : null;
+    }
+
+    private int size() {
+        synchronized (pages) {
+            return pages.size();
+        }
+    }
+
+    private double hitRatio() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("listing_search.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("listing_search.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("listing_search.cache.evictions", sizeEvictions, LongAdder::sum)
+                .tag("cause", "size")
+                .register(registry);
+        FunctionCounter.builder("listing_search.cache.evictions", invalidations, LongAdder::sum)
+                .tag("cause", "invalidation")
+                .register(registry);
+        Gauge.builder("listing_search.cache.size", this, ListingSearchCache::size)
+                .register(registry);
+        Gauge.builder("listing_search.cache.hit_ratio", this, ListingSearchCache::hitRatio)
+                .register(registry);
+    }
+
+    private record CachedPage(SearchResult result, Set<UUID> listingIds) {}
+}
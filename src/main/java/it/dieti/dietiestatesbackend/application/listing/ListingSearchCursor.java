@@ -0,0 +1,70 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.Keyset;
+
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Opaque cursor for keyset pagination of the listing search.
+ * The token carries the sort it was produced for, so it cannot be replayed with a different ordering.
+ * Distances are written with {@link Double#toString(double)}, which parses back to the same value,
+ * so the keyset comparison resumes exactly after the last row.
+ */
+final class ListingSearchCursor {
+
+    private static final String VERSION = "v1";
+    private static final String SEPARATOR = "|";
+    private static final String INVALID_CURSOR = "Il parametro 'cursor' non è valido.";
+
+    private ListingSearchCursor() {
+    }
+
+    static String encode(String sortColumn, boolean ascending, ListingCard last) {
+        var sortValue = switch (sortColumn) {
+            case "price_cents" -> Long.toString(last.priceCents());
+            case "created_at" -> last.createdAt().toString();
+            case "distance" -> last.distanceMeters() != null ? Double.toString(last.distanceMeters()) : "";
+            default -> last.publishedAt() != null ? last.publishedAt().toString() : "";
+        };
+        var raw = String.join(SEPARATOR,
+                VERSION,
+                sortColumn,
+                ascending ? "asc" : "desc",
+                sortValue,
+                last.createdAt().toString(),
+                last.id().toString());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Keyset decode(String token, String sortColumn, boolean ascending) {
+        String[] parts;
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            parts = raw.split("\\" + SEPARATOR, -1);
+        } catch (IllegalArgumentException ex) {
+            throw BadRequestException.forField("cursor", INVALID_CURSOR);
+        }
+        if (parts.length != 6 || !VERSION.equals(parts[0])) {
+            throw BadRequestException.forField("cursor", INVALID_CURSOR);
+        }
+        if (!sortColumn.equals(parts[1]) || !(ascending ? "asc" : "desc").equals(parts[2])) {
+            throw BadRequestException.forField("cursor", "Il cursore non corrisponde all'ordinamento richiesto.");
+        }
+        try {
+            Object sortValue = switch (sortColumn) {
+                case "price_cents" -> Long.valueOf(parts[3]);
+                case "created_at" -> OffsetDateTime.parse(parts[3]);
+                case "distance" -> parts[3].isEmpty() ? null : Double.valueOf(parts[3]);
+                default -> parts[3].isEmpty() ? null : OffsetDateTime.parse(parts[3]);
+            };
+            return new Keyset(sortValue, OffsetDateTime.parse(parts[4]), UUID.fromString(parts[5]));
+        } catch (RuntimeException ex) {
+            throw BadRequestException.forField("cursor", INVALID_CURSOR);
+        }
+    }
+}
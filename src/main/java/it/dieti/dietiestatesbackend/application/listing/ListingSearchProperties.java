@@ -0,0 +1,222 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.CountMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.listings.search")
+public class ListingSearchProperties {
+    /**
+     * Count mode used when the client does not pass the 'count' parameter.
+     */
+    private CountMode defaultCountMode = CountMode.EXACT;
+
+    /**
+     * Threshold for the capped count mode: totals above it are reported as "N+".
+     */
+    private int countCap = 1000;
+
+    /**
+     * How long an exact total is reused for identical filters. Zero disables the cache.
+     */
+    private Duration countCacheTtl = Duration.ofSeconds(30);
+
+    /**
+     * Upper bound on the number of cached totals.
+     */
+    private int countCacheMaxEntries = 1000;
+
+    /**
+     * Maximum number of anonymous search pages kept in the result cache. Zero disables it.
+     */
+    private int resultCacheMaxEntries = 500;
+
+    /**
+     * Map viewport searches return single listings up to this many matches and clusters above it.
+     */
+    private int mapDensityThreshold = 200;
+
+    /**
+     * Grid cells per map tile side used for clustering: the cell is 360 / (2^zoom * value) degrees.
+     */
+    private int mapCellsPerTile = 4;
+
+    /**
+     * Width of the price histogram buckets returned by the facets endpoint, in cents.
+     */
+    private long facetPriceBucketCents = 5_000_000L;
+
+    /**
+     * How long facet counts are reused for identical filters. Zero disables the cache.
+     */
+    private Duration facetCacheTtl = Duration.ofSeconds(15);
+
+    /**
+     * Upper bound on the number of cached facet results.
+     */
+    private int facetCacheMaxEntries = 500;
+
+    /**
+     * Enrichment stages (types, statuses, features) running concurrently across all searches,
+     * each holding at most one database connection. Stages beyond it run on the calling thread.
+     */
+    private int enrichmentMaxConcurrency = 4;
+
+    /**
+     * Upper bound on the wait for the enrichment stages of one search.
+     */
+    private Duration enrichmentTimeout = Duration.ofSeconds(5);
+
+    /**
+     * Vertices accepted in a drawn search polygon, counting every ring.
+     */
+    private int polygonMaxInputVertices = 2000;
+
+    /**
+     * Vertices kept after simplifying a drawn search polygon.
+     */
+    private int polygonMaxVertices = 100;
+
+    /**
+     * How long clients and shared caches may reuse an anonymous search page before revalidating
+     * it with its ETag. Zero makes every reuse a conditional request.
+     */
+    private Duration httpMaxAge = Duration.ZERO;
+
+    /**
+     * Timeout of a streamed listing export; applies to that request only, every other asynchronous
+     * request keeps the default.
+     */
+    private Duration exportTimeout = Duration.ofMinutes(30);
+
+    public CountMode getDefaultCountMode() {
+        return defaultCountMode;
+    }
+
+    public void setDefaultCountMode(CountMode defaultCountMode) {
+        this.defaultCountMode = defaultCountMode;
+    }
+
+    public int getCountCap() {
+        return countCap;
+    }
+
+    public void setCountCap(int countCap) {
+        this.countCap = countCap;
+    }
+
+    public Duration getCountCacheTtl() {
+        return countCacheTtl;
+    }
+
+    public void setCountCacheTtl(Duration countCacheTtl) {
+        this.countCacheTtl = countCacheTtl;
+    }
+
+    public int getCountCacheMaxEntries() {
+        return countCacheMaxEntries;
+    }
+
+    public void setCountCacheMaxEntries(int countCacheMaxEntries) {
+        this.countCacheMaxEntries = countCacheMaxEntries;
+    }
+
+    public int getResultCacheMaxEntries() {
+        return resultCacheMaxEntries;
+    }
+
+    public void setResultCacheMaxEntries(int resultCacheMaxEntries) {
+        this.resultCacheMaxEntries = resultCacheMaxEntries;
+    }
+
+    public int getMapDensityThreshold() {
+        return mapDensityThreshold;
+    }
+
+    public void setMapDensityThreshold(int mapDensityThreshold) {
+        this.mapDensityThreshold = mapDensityThreshold;
+    }
+
+    public int getMapCellsPerTile() {
+        return mapCellsPerTile;
+    }
+
+    public void setMapCellsPerTile(int mapCellsPerTile) {
+        this.mapCellsPerTile = mapCellsPerTile;
+    }
+
+    public long getFacetPriceBucketCents() {
+        return facetPriceBucketCents;
+    }
+
+    public void setFacetPriceBucketCents(long facetPriceBucketCents) {
+        this.facetPriceBucketCents = facetPriceBucketCents;
+    }
+
+    public Duration getFacetCacheTtl() {
+        return facetCacheTtl;
+    }
+
+    public void setFacetCacheTtl(Duration facetCacheTtl) {
+        this.facetCacheTtl = facetCacheTtl;
+    }
+
+    public int getFacetCacheMaxEntries() {
+        return facetCacheMaxEntries;
+    }
+
+    public void setFacetCacheMaxEntries(int facetCacheMaxEntries) {
+        this.facetCacheMaxEntries = facetCacheMaxEntries;
+    }
+
+    public int getEnrichmentMaxConcurrency() {
+        return enrichmentMaxConcurrency;
+    }
+
+    public void setEnrichmentMaxConcurrency(int enrichmentMaxConcurrency) {
+        this.enrichmentMaxConcurrency = enrichmentMaxConcurrency;
+    }
+
+    public Duration getEnrichmentTimeout() {
+        return enrichmentTimeout;
+    }
+
+    public void setEnrichmentTimeout(Duration enrichmentTimeout) {
+        this.enrichmentTimeout = enrichmentTimeout;
+    }
+
+    public int getPolygonMaxInputVertices() {
+        return polygonMaxInputVertices;
+    }
+
+    public void setPolygonMaxInputVertices(int polygonMaxInputVertices) {
+        this.polygonMaxInputVertices = polygonMaxInputVertices;
+    }
+
+    public int getPolygonMaxVertices() {
+        return polygonMaxVertices;
+    }
+
+    public void setPolygonMaxVertices(int polygonMaxVertices) {
+        this.polygonMaxVertices = polygonMaxVertices;
+    }
+
+    public Duration getHttpMaxAge() {
+        return httpMaxAge;
+    }
+
+    public void setHttpMaxAge(Duration httpMaxAge) {
+        this.httpMaxAge = httpMaxAge;
+    }
+
+    public Duration getExportTimeout() {
+        return exportTimeout;
+    }
+
+    public void setExportTimeout(Duration exportTimeout) {
+        this.exportTimeout = exportTimeout;
+    }
+}
@@ -3,34 +3,51 @@ package it.dieti.dietiestatesbackend.application.listing;
 import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
 import it.dieti.dietiestatesbackend.application.exception.InternalServerErrorException;
 import it.dieti.dietiestatesbackend.application.feature.FeatureService;
-import it.dieti.dietiestatesbackend.application.media.listing.ListingMediaService;
 import it.dieti.dietiestatesbackend.domain.feature.Feature;
 import it.dieti.dietiestatesbackend.domain.feature.FeatureRepository;
-import it.dieti.dietiestatesbackend.domain.listing.Listing;
 import it.dieti.dietiestatesbackend.domain.listing.ListingType;
 import it.dieti.dietiestatesbackend.domain.listing.ListingTypeRepository;
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounters;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
 import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.BoundingBox;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.MapCluster;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.PriceBucket;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.CountMode;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.TotalAccuracy;
 import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatus;
 import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
 import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusesEnum;
-import it.dieti.dietiestatesbackend.application.media.listing.ListingMediaService.ListingPhotoView;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
-
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Searches published and private listings. No transaction spans a search: each repository read
+ * runs in its own short read-only transaction and the enrichment stages borrow their own
+ * connections, so a request never holds a pooled connection while it waits for its stages.
+ */
 @Service
-@Transactional(readOnly = true)
 public class ListingSearchService {
 
     private static final Logger log = LoggerFactory.getLogger(ListingSearchService.class);
@@ -39,34 +56,53 @@ public class ListingSearchService {
     private static final int MAX_PAGE_SIZE = 200;
     private static final int MIN_RADIUS_METERS = 50;
     private static final int MAX_RADIUS_METERS = 100_000;
+    private static final int MAX_TEXT_QUERY_LENGTH = 200;
+    private static final String RELEVANCE_SORT = "relevance";
+    private static final String DISTANCE_SORT = "distance";
+    private static final String VIEWS_SORT = "views";
+    private static final int MIN_ZOOM = 0;
+    private static final int MAX_ZOOM = 22;
 
     private final ListingSearchRepository listingSearchRepository;
     private final ListingTypeRepository listingTypeRepository;
     private final ListingStatusRepository listingStatusRepository;
     private final FeatureRepository featureRepository;
     private final FeatureService featureService;
-    private final ListingMediaService listingMediaService;
     private final CoordinatesValidator coordinatesValidator;
+    private final SearchPolygonParser polygonParser;
+    private final ListingSearchProperties properties;
+    private final ListingSearchCache searchCache;
+    private final SearchEnrichmentExecutor enrichmentExecutor;
+    private final ListingCounterService listingCounterService;
 
     public ListingSearchService(ListingSearchRepository listingSearchRepository,
                                 ListingTypeRepository listingTypeRepository,
                                 ListingStatusRepository listingStatusRepository,
                                 FeatureRepository featureRepository,
                                 FeatureService featureService,
-                                ListingMediaService listingMediaService,
-                                CoordinatesValidator coordinatesValidator) {
+                                CoordinatesValidator coordinatesValidator,
+                                SearchPolygonParser polygonParser,
+                                ListingSearchProperties properties,
+                                ListingSearchCache searchCache,
+                                SearchEnrichmentExecutor enrichmentExecutor,
+                                ListingCounterService listingCounterService) {
         this.listingSearchRepository = listingSearchRepository;
         this.listingTypeRepository = listingTypeRepository;
         this.listingStatusRepository = listingStatusRepository;
         this.featureRepository = featureRepository;
         this.featureService = featureService;
-        this.listingMediaService = listingMediaService;
         this.coordinatesValidator = coordinatesValidator;
+        this.polygonParser = polygonParser;
+        this.properties = properties;
+        this.searchCache = searchCache;
+        this.enrichmentExecutor = enrichmentExecutor;
+        this.listingCounterService = listingCounterService;
     }
 
     public record SearchQuery(
             String type,
             String city,
+            String q,
             Integer minPrice,
             Integer maxPrice,
             Integer minRooms,
@@ -80,6 +116,7 @@ public class ListingSearchService {
             Double latitude,
             Double longitude,
             Integer radiusMeters,
+            String polygon,
             Boolean hasPhotos,
             Boolean furnished,
             Boolean petsAllowed,
@@ -88,42 +125,268 @@ public class ListingSearchService {
             Integer page,
             Integer size,
             String sort,
+            String cursor,
+            String count,
             boolean enforcePublishedOnly
     ) {}
 
-    public record SearchResult(List<SearchItem> items, int page, int size, long total) {}
+    public record SearchResult(
+            List<SearchItem> items,
+            int page,
+            int size,
+            long total,
+            TotalAccuracy totalAccuracy,
+            String nextCursor,
+            String entityTag
+    ) {}
+
+    /**
+     * Outcome of {@link #search(SearchQuery, Predicate)}: the page, or, when the client already holds
+     * its version, only the tag and the ids of the listings on the page ({@code result} is then
+     * {@code null}).
+     */
+    public record ConditionalSearchResult(SearchResult result, String entityTag, List<UUID> listingIds) {
+
+        public boolean notModified() {
+            return result == null;
+        }
+    }
+
+    public record MapViewport(
+            Double minLatitude,
+            Double minLongitude,
+            Double maxLatitude,
+            Double maxLongitude,
+            Integer zoom
+    ) {}
+
+    /**
+     * Either the single listings in the viewport or, above the density threshold, their grid clusters.
+     */
+    public record MapResult(
+            boolean clustered,
+            long total,
+            List<MapCluster> clusters,
+            List<SearchItem> listings
+    ) {}
+
+    public record FacetResult(
+            long total,
+            Map<String, Long> listingTypes,
+            Map<String, Long> energyClasses,
+            Map<String, Long> rooms,
+            Map<String, Long> features,
+            List<PriceBucket> priceHistogram
+    ) {}
 
     public record SearchItem(
-            Listing listing,
+            ListingCard listing,
             ListingType listingType,
             ListingStatus listingStatus,
-            List<ListingPhotoView> photos,
-            List<Feature> features
+            List<Feature> features,
+            ListingCounters counters
     ) {}
 
+    public record ExportRow(ListingCard listing, String listingTypeCode, String statusCode) {}
+
     public SearchResult search(SearchQuery query) {
+        return search(query, entityTag -> false).result();
+    }
+
+    /**
+     * Searches like {@link #search(SearchQuery)}, but asks {@code unchanged} whether the client
+     * already holds the version of the page as soon as its tag is known, i.e. right after the page
+     * read and before enrichment. If so, the page is neither enriched nor cached and only its tag
+     * and listing ids are returned. Only published-only pages carry a tag.
+     */
+    public ConditionalSearchResult search(SearchQuery query, Predicate<String> unchanged) {
         Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(unchanged, "unchanged is required");
 
         int page = Optional.ofNullable(query.page()).orElse(DEFAULT_PAGE);
         int size = Optional.ofNullable(query.size()).orElse(DEFAULT_SIZE);
         validatePagination(page, size);
         var sort = resolveSort(query.sort());
+        boolean relevanceSort = RELEVANCE_SORT.equals(sort.sortColumn());
+        boolean viewsSort = VIEWS_SORT.equals(sort.sortColumn());
+        if (relevanceSort && normalizeText(query.q()) == null) {
+            throw BadRequestException.forField("sort", "L'ordinamento per pertinenza richiede il parametro 'q'.");
+        }
+        boolean hasCursor = query.cursor() != null && !query.cursor().isBlank();
+        if (relevanceSort && hasCursor) {
+            throw BadRequestException.forField("cursor", "Il cursore non è disponibile con l'ordinamento per pertinenza: usa 'page'.");
+        }
+        if (viewsSort && hasCursor) {
+            throw BadRequestException.forField("cursor", "Il cursore non è disponibile con l'ordinamento per visualizzazioni: usa 'page'.");
+        }
+        var after = hasCursor
+                ? ListingSearchCursor.decode(query.cursor(), sort.sortColumn(), sort.ascending())
+                : null;
+        var countMode = resolveCountMode(query.count());
+
+        var filters = resolveFilters(query, sort, page, size, after, countMode);
+
+        // A views-sorted page is ordered by counters, which move without invalidating the cache.
+        boolean cacheable = query.enforcePublishedOnly() && searchCache.isEnabled() && !viewsSort;
+        if (cacheable) {
+            var cached = searchCache.get(filters);
+            if (cached.isPresent()) {
+                var cachedPage = cached.get();
+                var cachedIds = cachedPage.items().stream().map(item -> item.listing().id()).toList();
+                if (unchanged.test(cachedPage.entityTag())) {
+                    return new ConditionalSearchResult(null, cachedPage.entityTag(), cachedIds);
+                }
+                return new ConditionalSearchResult(withCurrentCounters(cachedPage), cachedPage.entityTag(), cachedIds);
+            }
+        }
+        long cacheGeneration = searchCache.generation();
+
+        var repositoryResult = listingSearchRepository.search(filters);
+        var listings = repositoryResult.listings();
+        var listingIds = listings.stream().map(ListingCard::id).toList();
+        String entityTag = query.enforcePublishedOnly()
+                ? pageEntityTag(filters, listings, repositoryResult.total(), repositoryResult.totalAccuracy())
+                : null;
+        if (entityTag != null && unchanged.test(entityTag)) {
+            return new ConditionalSearchResult(null, entityTag, listingIds);
+        }
+        var items = toItems(listings);
+
+        String nextCursor = !relevanceSort && !viewsSort && !listings.isEmpty() && listings.size() == size
+                ? ListingSearchCursor.encode(sort.sortColumn(), sort.ascending(), listings.getLast())
+                : null;
+
+        var result = new SearchResult(items, page, size, repositoryResult.total(), repositoryResult.totalAccuracy(),
+                nextCursor, entityTag);
+        if (cacheable) {
+            searchCache.put(filters, result, cacheGeneration);
+        }
+        return new ConditionalSearchResult(result, entityTag, listingIds);
+    }
+
+    public MapResult searchMap(SearchQuery query, MapViewport viewport) {
+        Objects.requireNonNull(query, "query is required");
+        Objects.requireNonNull(viewport, "viewport is required");
+        var bounds = validateViewport(viewport);
+
+        int threshold = properties.getMapDensityThreshold();
+        var filters = resolveFilters(query, resolveSort(query.sort()), DEFAULT_PAGE, threshold, null, CountMode.NONE);
+        double cellSize = 360.0 / (Math.pow(2, viewport.zoom()) * properties.getMapCellsPerTile());
+
+        var repositoryResult = listingSearchRepository.searchMap(filters, bounds, cellSize, threshold);
+        return new MapResult(
+                repositoryResult.clustered(),
+                repositoryResult.total(),
+                repositoryResult.clusters(),
+                toItems(repositoryResult.listings())
+        );
+    }
+
+    /**
+     * Facet counts for the sidebar under the same filters as {@link #search(SearchQuery)};
+     * paging, sort and cursor parameters of the query are ignored.
+     */
+    public FacetResult facets(SearchQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        var filters = resolveFilters(query, resolveSort(null), DEFAULT_PAGE, DEFAULT_SIZE, null, CountMode.NONE);
+        var counts = listingSearchRepository.facets(filters, properties.getFacetPriceBucketCents());
+
+        var listingTypes = new LinkedHashMap<String, Long>();
+        counts.listingTypes().forEach((typeId, count) -> {
+            var type = listingTypeRepository.findById(typeId)
+                    .orElseThrow(() -> {
+                        log.error("Facet su listingType {} inesistente", typeId);
+                        return new InternalServerErrorException("Errore nella configurazione dei tipi annuncio.");
+                    });
+            listingTypes.put(type.code(), count);
+        });
+        var features = new LinkedHashMap<String, Long>();
+        counts.features().forEach((featureId, count) -> {
+            var feature = featureRepository.findById(featureId)
+                    .orElseThrow(() -> {
+                        log.error("Facet su feature {} inesistente", featureId);
+                        return new InternalServerErrorException("Errore nella configurazione delle feature.");
+                    });
+            features.put(feature.code(), count);
+        });
+        return new FacetResult(
+                counts.total(),
+                listingTypes,
+                counts.energyClasses(),
+                counts.rooms(),
+                features,
+                counts.priceHistogram()
+        );
+    }
+
+    /**
+     * Validates an export request; the returned filters are passed to {@link #export}. Paging,
+     * cursor and count parameters of the query are ignored.
+     */
+    public ListingSearchRepository.SearchFilters resolveExportFilters(SearchQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        var sort = resolveSort(query.sort());
+        if (RELEVANCE_SORT.equals(sort.sortColumn()) && normalizeText(query.q()) == null) {
+            throw BadRequestException.forField("sort", "L'ordinamento per pertinenza richiede il parametro 'q'.");
+        }
+        return resolveFilters(query, sort, DEFAULT_PAGE, DEFAULT_SIZE, null, CountMode.NONE);
+    }
+
+    /**
+     * Validates and normalizes the criteria of a saved search exactly like a search request;
+     * paging, sort, cursor and count parameters of the query are ignored.
+     */
+    public ListingSearchRepository.SearchFilters resolveSavedSearchFilters(SearchQuery query) {
+        Objects.requireNonNull(query, "query is required");
+        return resolveFilters(query, resolveSort(null), DEFAULT_PAGE, DEFAULT_SIZE, null, CountMode.NONE);
+    }
+
+    /**
+     * Passes every listing matching {@code filters} to {@code consumer} as it is read; the read-only
+     * transaction, and with it the database cursor, stays open until the last row is consumed.
+     */
+    @Transactional(readOnly = true)
+    public void export(ListingSearchRepository.SearchFilters filters, Consumer<ExportRow> consumer) {
+        Map<UUID, String> typeCodes = new HashMap<>();
+        Map<UUID, String> statusCodes = new HashMap<>();
+        listingSearchRepository.stream(filters, listing -> consumer.accept(new ExportRow(
+                listing,
+                typeCodes.computeIfAbsent(listing.listingTypeId(),
+                        id -> listingTypeRepository.findById(id).map(ListingType::code).orElse(null)),
+                statusCodes.computeIfAbsent(listing.statusId(),
+                        id -> listingStatusRepository.findById(id).map(ListingStatus::code).orElse(null))
+        )));
+    }
 
+    private ListingSearchRepository.SearchFilters resolveFilters(
+            SearchQuery query,
+            SortDescriptor sort,
+            int page,
+            int size,
+            ListingSearchRepository.Keyset after,
+            CountMode countMode
+    ) {
         var listingType = resolveListingType(query.type());
         var status = resolveStatus(query.status(), query.enforcePublishedOnly());
         var featureIds = resolveFeatureFilters(query.features());
         var normalizedCity = normalizeUpper(query.city());
+        var textQuery = normalizeText(query.q());
         var normalizedEnergyClasses = normalizeListUpper(query.energyClasses());
         var normalizedPostalCodes = normalizeListUpper(query.postalCodes());
         validatePriceRange(query.minPrice(), query.maxPrice());
         validateRoomsRange(query.minRooms(), query.maxRooms());
         validateSqmRange(query.minSqm(), query.maxSqm());
         validateRadiusFilters(query.latitude(), query.longitude(), query.radiusMeters());
+        var polygon = polygonParser.parse(query.polygon());
+        if (DISTANCE_SORT.equals(sort.sortColumn()) && query.radiusMeters() == null) {
+            throw BadRequestException.forField("sort", "L'ordinamento per distanza richiede lat, lng e radiusMeters.");
+        }
 
-        var filters = new ListingSearchRepository.SearchFilters(
+        return new ListingSearchRepository.SearchFilters(
                 listingType != null ? listingType.id() : null,
                 status != null ? status.id() : null,
                 normalizedCity,
+                textQuery,
                 query.minPrice(),
                 query.maxPrice(),
                 query.minRooms(),
@@ -136,6 +399,7 @@ public class ListingSearchService {
                 query.latitude(),
                 query.longitude(),
                 query.radiusMeters(),
+                polygon,
                 query.hasPhotos(),
                 query.furnished(),
                 query.petsAllowed(),
@@ -144,28 +408,83 @@ public class ListingSearchService {
                 sort.sortColumn(),
                 sort.ascending(),
                 page,
-                size
+                size,
+                after,
+                countMode,
+                properties.getCountCap()
         );
+    }
 
-        var repositoryResult = listingSearchRepository.search(filters);
-        var listings = repositoryResult.listings();
+    /**
+     * Enriches cards read outside a search, e.g. similar listings, exactly like search results.
+     */
+    public List<SearchItem> enrich(List<ListingCard> listings) {
+        return toItems(listings);
+    }
 
+    /**
+     * Resolves types, statuses, features and view counters of the page. Types and statuses are
+     * served from memory and resolved inline; features and counters read the database and run as
+     * concurrent stages.
+     */
+    private List<SearchItem> toItems(List<ListingCard> listings) {
+        if (listings.isEmpty()) {
+            return List.of();
+        }
+        var featuresStage = enrichmentExecutor.submit("features", () -> loadListingFeatures(listings));
+        var countersStage = enrichmentExecutor.submit("counters",
+                () -> listingCounterService.totals(listings.stream().map(ListingCard::id).toList()));
         var listingTypesById = loadListingTypes(listings);
         var statusesById = loadListingStatuses(listings);
-        var featuresByListingId = loadListingFeatures(listings);
-        var photosByListingId = loadListingPhotos(listings);
+        enrichmentExecutor.joinAll(List.of(featuresStage, countersStage));
+        var featuresByListingId = featuresStage.join();
+        var countersByListingId = countersStage.join();
 
-        var items = listings.stream()
+        return listings.stream()
                 .map(listing -> new SearchItem(
                         listing,
                         resolveListingTypeFor(listing, listingTypesById),
                         resolveListingStatusFor(listing, statusesById),
-                        photosByListingId.getOrDefault(listing.id(), List.of()),
-                        featuresByListingId.getOrDefault(listing.id(), List.of())
+                        featuresByListingId.getOrDefault(listing.id(), List.of()),
+                        countersByListingId.getOrDefault(listing.id(), ListingCounters.ZERO)
                 ))
                 .toList();
+    }
+
+    /**
+     * A cached page with its counters read again: views and impressions change without a
+     * {@link ListingChangedEvent}, so the cached values would stay frozen.
+     */
+    private SearchResult withCurrentCounters(SearchResult cached) {
+        if (cached.items().isEmpty()) {
+            return cached;
+        }
+        var counters = listingCounterService.totals(cached.items().stream().map(item -> item.listing().id()).toList());
+        var items = cached.items().stream()
+                .map(item -> new SearchItem(item.listing(), item.listingType(), item.listingStatus(), item.features(),
+                        counters.getOrDefault(item.listing().id(), ListingCounters.ZERO)))
+                .toList();
+        return new SearchResult(items, cached.page(), cached.size(), cached.total(), cached.totalAccuracy(),
+                cached.nextCursor(), cached.entityTag());
+    }
 
-        return new SearchResult(items, page, size, repositoryResult.total());
+    private BoundingBox validateViewport(MapViewport viewport) {
+        if (viewport.minLatitude() == null || viewport.minLongitude() == null
+                || viewport.maxLatitude() == null || viewport.maxLongitude() == null) {
+            throw BadRequestException.forField("bbox", "Per la ricerca su mappa devi fornire minLat, minLng, maxLat e maxLng.");
+        }
+        coordinatesValidator.validate(viewport.minLatitude(), viewport.minLongitude());
+        coordinatesValidator.validate(viewport.maxLatitude(), viewport.maxLongitude());
+        if (viewport.minLatitude() > viewport.maxLatitude()) {
+            throw BadRequestException.forField("maxLat", "Il parametro 'maxLat' deve essere maggiore o uguale a 'minLat'.");
+        }
+        if (viewport.minLongitude() > viewport.maxLongitude()) {
+            throw BadRequestException.forField("maxLng", "Il parametro 'maxLng' deve essere maggiore o uguale a 'minLng'.");
+        }
+        if (viewport.zoom() == null || viewport.zoom() < MIN_ZOOM || viewport.zoom() > MAX_ZOOM) {
+            throw BadRequestException.forField("zoom", "Il parametro 'zoom' deve essere compreso tra " + MIN_ZOOM + " e " + MAX_ZOOM + ".");
+        }
+        return new BoundingBox(viewport.minLatitude(), viewport.minLongitude(), viewport.maxLatitude(), viewport.maxLongitude());
     }
 
     private void validatePagination(int page, int size) {
@@ -233,6 +552,12 @@ public class ListingSearchService {
 
         var parts = sortRaw.split(",");
         var field = parts[0].trim();
+        if ("relevance".equals(field) && parts.length == 1) {
+            return new SortDescriptor(RELEVANCE_SORT, false);
+        }
+        if ("views".equals(field) && parts.length == 1) {
+            return new SortDescriptor(VIEWS_SORT, false);
+        }
         var direction = parts.length > 1 ? parts[1].trim().toLowerCase(Locale.ROOT) : "asc";
 
         boolean ascending = switch (direction) {
@@ -245,10 +570,31 @@ public class ListingSearchService {
             case "priceCents" -> new SortDescriptor("price_cents", ascending);
             case "createdAt" -> new SortDescriptor("created_at", ascending);
             case "publishedAt" -> new SortDescriptor("published_at", ascending);
+            case "relevance" -> new SortDescriptor(RELEVANCE_SORT, ascending);
+            case "views" -> new SortDescriptor(VIEWS_SORT, ascending);
+            case "distance" -> {
+                if (!ascending) {
+                    throw BadRequestException.forField("sort", "L'ordinamento per distanza è disponibile solo in ordine crescente.");
+                }
+                yield new SortDescriptor(DISTANCE_SORT, true);
+            }
             default -> throw BadRequestException.forField("sort", "Campo di ordinamento non supportato: " + field + ".");
         };
     }
 
+    private CountMode resolveCountMode(String countRaw) {
+        if (countRaw == null || countRaw.isBlank()) {
+            return properties.getDefaultCountMode();
+        }
+        return switch (countRaw.trim().toLowerCase(Locale.ROOT)) {
+            case "exact" -> CountMode.EXACT;
+            case "capped" -> CountMode.CAPPED;
+            case "estimated" -> CountMode.ESTIMATED;
+            case "none" -> CountMode.NONE;
+            default -> throw BadRequestException.forField("count", "Modalità di conteggio non supportata. Usa 'exact', 'capped', 'estimated' o 'none'.");
+        };
+    }
+
     private ListingType resolveListingType(String typeCode) {
         if (typeCode == null || typeCode.isBlank()) {
             return null;
@@ -258,6 +604,33 @@ public class ListingSearchService {
                 .orElseThrow(() -> BadRequestException.forField("type", "listingType non supportato: " + normalized + "."));
     }
 
+    /**
+     * Weak entity tag of a published-only page: a digest of the normalized filters, the total and
+     * the ids of the page in order with their latest {@code updated_at}. Any change to a listing
+     * on the page, its photos or its features moves {@code updated_at}; listings entering or
+     * leaving the page change the ids. The view and impression counters in the body change
+     * without moving the tag, so two bodies with the same tag are equivalent but not identical.
+     */
+    private static String pageEntityTag(ListingSearchRepository.SearchFilters filters, List<ListingCard> listings,
+                                        long total, TotalAccuracy totalAccuracy) {
+        var fingerprint = new StringBuilder(filters.toString())
+                .append('|').append(total).append('|').append(totalAccuracy);
+        Instant maxUpdatedAt = Instant.EPOCH;
+        for (ListingCard listing : listings) {
+            fingerprint.append('|').append(listing.id());
+            if (listing.updatedAt() != null && listing.updatedAt().toInstant().isAfter(maxUpdatedAt)) {
+                maxUpdatedAt = listing.updatedAt().toInstant();
+            }
+        }
+        fingerprint.append('|').append(maxUpdatedAt);
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(fingerprint.toString().getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 not available", ex);
+        }
+    }
+
     private ListingStatus resolveStatus(String statusCode, boolean enforcePublishedOnly) {
         if (enforcePublishedOnly) {
             return listingStatusRepository.findByCode(ListingStatusesEnum.PUBLISHED.getDescription())
@@ -296,9 +669,9 @@ public class ListingSearchService {
         return featureIds;
     }
 
-    private Map<UUID, ListingType> loadListingTypes(List<Listing> listings) {
+    private Map<UUID, ListingType> loadListingTypes(List<ListingCard> listings) {
         Map<UUID, ListingType> result = new HashMap<>();
-        for (Listing listing : listings) {
+        for (ListingCard listing : listings) {
             var typeId = listing.listingTypeId();
             if (typeId == null || result.containsKey(typeId)) {
                 continue;
@@ -313,9 +686,9 @@ public class ListingSearchService {
         return result;
     }
 
-    private Map<UUID, ListingStatus> loadListingStatuses(List<Listing> listings) {
+    private Map<UUID, ListingStatus> loadListingStatuses(List<ListingCard> listings) {
         Map<UUID, ListingStatus> result = new HashMap<>();
-        for (Listing listing : listings) {
+        for (ListingCard listing : listings) {
             var statusId = listing.statusId();
             if (statusId == null || result.containsKey(statusId)) {
                 continue;
@@ -330,33 +703,15 @@ public class ListingSearchService {
         return result;
     }
 
-    private Map<UUID, List<Feature>> loadListingFeatures(List<Listing> listings) {
-        Map<UUID, List<Feature>> result = new HashMap<>();
-        for (Listing listing : listings) {
-            var listingId = listing.id();
-            if (listingId == null) {
-                continue;
-            }
-            var features = featureService.getListingFeatures(listingId);
-            result.put(listingId, features);
-        }
-        return result;
-    }
-
-    private Map<UUID, List<ListingPhotoView>> loadListingPhotos(List<Listing> listings) {
-        Map<UUID, List<ListingPhotoView>> result = new HashMap<>();
-        for (Listing listing : listings) {
-            var listingId = listing.id();
-            if (listingId == null) {
-                continue;
-            }
-            var photos = listingMediaService.getListingPhotos(listingId);
-            result.put(listingId, photos);
-        }
-        return result;
+    private Map<UUID, List<Feature>> loadListingFeatures(List<ListingCard> listings) {
+        var listingIds = listings.stream()
+                .map(ListingCard::id)
+                .filter(Objects::nonNull)
+                .toList();
+        return featureService.getListingFeaturesByListingIds(listingIds);
     }
 
-    private ListingType resolveListingTypeFor(Listing listing, Map<UUID, ListingType> listingTypesById) {
+    private ListingType resolveListingTypeFor(ListingCard listing, Map<UUID, ListingType> listingTypesById) {
         var typeId = listing.listingTypeId();
         if (typeId == null) {
             log.error("Listing {} privo di listingTypeId", listing.id());
@@ -370,7 +725,7 @@ public class ListingSearchService {
         return type;
     }
 
-    private ListingStatus resolveListingStatusFor(Listing listing, Map<UUID, ListingStatus> statusesById) {
+    private ListingStatus resolveListingStatusFor(ListingCard listing, Map<UUID, ListingStatus> statusesById) {
         var statusId = listing.statusId();
         if (statusId == null) {
             log.error("Listing {} privo di statusId", listing.id());
@@ -386,6 +741,17 @@ public class ListingSearchService {
 
     // coordinates validation extracted to CoordinatesValidator
 
+    private String normalizeText(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        var trimmed = value.trim();
+        if (trimmed.length() > MAX_TEXT_QUERY_LENGTH) {
+            throw BadRequestException.forField("q", "Il parametro 'q' non può superare " + MAX_TEXT_QUERY_LENGTH + " caratteri.");
+        }
+        return trimmed;
+    }
+
     private String normalizeUpper(String value) {
         if (value == null || value.isBlank()) {
             return null;
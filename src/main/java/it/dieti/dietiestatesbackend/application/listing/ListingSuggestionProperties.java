@@ -0,0 +1,37 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.listings.suggestions")
+public class ListingSuggestionProperties {
+    /**
+     * Build the city/postal code autocomplete index when the application starts.
+     */
+    private boolean preload = true;
+
+    /**
+     * Interval between two full rebuilds of the index, which also pick up changes not
+     * published as events (e.g. deletions finalized by the scheduler).
+     */
+    private Duration refreshInterval = Duration.ofMinutes(10);
+
+    public boolean isPreload() {
+        return preload;
+    }
+
+    public void setPreload(boolean preload) {
+        this.preload = preload;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+}
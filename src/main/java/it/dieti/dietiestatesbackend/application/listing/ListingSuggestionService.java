@@ -0,0 +1,232 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.domain.listing.Listing;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingLocationRepository;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingLocationRepository.LocationCount;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusesEnum;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Prefix autocomplete over the cities and postal codes of the published listings.
+ * <p>
+ * The distinct values with their listing counts are kept in memory as sorted arrays, so a
+ * lookup is a binary search for the first key with the prefix followed by a scan of the
+ * contiguous matches. The index is rebuilt from the database at startup and periodically, and
+ * adjusted after commit whenever a listing enters or leaves the published state.
+ */
+@Service
+public class ListingSuggestionService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(ListingSuggestionService.class);
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 20;
+    private static final int MAX_PREFIX_LENGTH = 50;
+
+    private final ListingLocationRepository listingLocationRepository;
+    private final ListingStatusRepository listingStatusRepository;
+    private final ListingSuggestionProperties properties;
+
+    private final Object lock = new Object();
+    private TreeMap<String, Entry> cities;
+    private TreeMap<String, Entry> postalCodes;
+    private volatile Snapshot snapshot;
+
+    public ListingSuggestionService(ListingLocationRepository listingLocationRepository,
+                                    ListingStatusRepository listingStatusRepository,
+                                    ListingSuggestionProperties properties) {
+        this.listingLocationRepository = listingLocationRepository;
+        this.listingStatusRepository = listingStatusRepository;
+        this.properties = properties;
+    }
+
+    public record Suggestion(String value, String label, long count) {}
+
+    public record Suggestions(List<Suggestion> cities, List<Suggestion> postalCodes) {}
+
+    public Suggestions suggest(String prefix, Integer limit) {
+        var normalizedPrefix = prefix == null ? "" : prefix.trim().toUpperCase(Locale.ROOT);
+        if (normalizedPrefix.isEmpty()) {
+            throw BadRequestException.forField("prefix", "prefix obbligatorio.");
+        }
+        if (normalizedPrefix.length() > MAX_PREFIX_LENGTH) {
+            throw BadRequestException.forField("prefix", "prefix deve avere al massimo " + MAX_PREFIX_LENGTH + " caratteri.");
+        }
+        int effectiveLimit = limit == null ? DEFAULT_LIMIT : limit;
+        if (effectiveLimit < 1 || effectiveLimit > MAX_LIMIT) {
+            throw BadRequestException.forField("limit", "limit deve essere compreso tra 1 e " + MAX_LIMIT + ".");
+        }
+
+        var current = snapshot;
+        if (current == null) {
+            rebuild();
+            current = snapshot;
+        }
+        return new Suggestions(
+                current.cities().lookup(normalizedPrefix, effectiveLimit),
+                current.postalCodes().lookup(normalizedPrefix, effectiveLimit));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isPreload()) {
+            log.info("Listing suggestion preload disabled; index will be built on first access");
+            return;
+        }
+        refresh();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.listings.suggestions.refresh-interval:PT10M}",
+            initialDelayString = "${app.listings.suggestions.refresh-interval:PT10M}"
+    )
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Rebuilds the index; on failure the previous content keeps being served.
+     */
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Unable to rebuild listing suggestion index; keeping previous content", ex);
+        }
+    }
+
+    /**
+     * Applies the published-state transition of a listing to the index. Changes committed while a
+     * rebuild is reading the database may be missed; the next rebuild corrects them.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        if (event.change() != ListingChangedEvent.Change.LISTING || snapshot == null) {
+            return;
+        }
+        var publishedStatusId = publishedStatusId();
+        var wasPublished = isPublished(event.previous(), publishedStatusId);
+        var isPublished = isPublished(event.current(), publishedStatusId);
+        if (!wasPublished && !isPublished) {
+            return;
+        }
+        synchronized (lock) {
+            if (wasPublished) {
+                adjust(cities, event.previous().city(), -1);
+                adjust(postalCodes, event.previous().postalCode(), -1);
+            }
+            if (isPublished) {
+                adjust(cities, event.current().city(), 1);
+                adjust(postalCodes, event.current().postalCode(), 1);
+            }
+            snapshot = new Snapshot(Column.of(cities), Column.of(postalCodes));
+        }
+    }
+
+    private void rebuild() {
+        var publishedStatusId = publishedStatusId();
+        var loadedCities = toEntries(listingLocationRepository.countCitiesByStatus(publishedStatusId));
+        var loadedPostalCodes = toEntries(listingLocationRepository.countPostalCodesByStatus(publishedStatusId));
+        synchronized (lock) {
+            cities = loadedCities;
+            postalCodes = loadedPostalCodes;
+            snapshot = new Snapshot(Column.of(cities), Column.of(postalCodes));
+        }
+        log.debug("Listing suggestion index built with {} cities and {} postal codes",
+                loadedCities.size(), loadedPostalCodes.size());
+    }
+
+    private UUID publishedStatusId() {
+        return listingStatusRepository.findByCode(ListingStatusesEnum.PUBLISHED.getDescription())
+                .orElseThrow(() -> new IllegalStateException("Listing status PUBLISHED not configured"))
+                .id();
+    }
+
+    private static boolean isPublished(Listing listing, UUID publishedStatusId) {
+        return listing != null && listing.deletedAt() == null && publishedStatusId.equals(listing.statusId());
+    }
+
+    private static TreeMap<String, Entry> toEntries(List<LocationCount> counts) {
+        var entries = new TreeMap<String, Entry>();
+        for (LocationCount count : counts) {
+            entries.put(count.value(), new Entry(count.label(), count.count()));
+        }
+        return entries;
+    }
+
+    private static void adjust(Map<String, Entry> entries, String raw, long delta) {
+        if (raw == null || raw.isBlank()) {
+            return;
+        }
+        var label = raw.trim();
+        var key = label.toUpperCase(Locale.ROOT);
+        var entry = entries.get(key);
+        if (entry == null) {
+            if (delta > 0) {
+                entries.put(key, new Entry(label, delta));
+            }
+            return;
+        }
+        var updated = entry.count() + delta;
+        if (updated <= 0) {
+            entries.remove(key);
+        } else {
+            entries.put(key, new Entry(entry.label(), updated));
+        }
+    }
+
+    private record Entry(String label, long count) {}
+
+    private record Snapshot(Column cities, Column postalCodes) {}
+
+    /**
+     * Immutable sorted view of one dictionary: parallel arrays ordered by key.
+     */
+    private record Column(String[] keys, String[] labels, long[] counts) {
+
+        static Column of(TreeMap<String, Entry> entries) {
+            int size = entries.size();
+            var keys = new String[size];
+            var labels = new String[size];
+            var counts = new long[size];
+            int i = 0;
+            for (var entry : entries.entrySet()) {
+                keys[i] = entry.getKey();
+                labels[i] = entry.getValue().label();
+                counts[i] = entry.getValue().count();
+                i++;
+            }
+            return new Column(keys, labels, counts);
+        }
+
+        List<Suggestion> lookup(String prefix, int limit) {
+            int from = Arrays.binarySearch(keys, prefix);
+            if (from < 0) {
+                from = -from - 1;
+            }
+            var matches = new ArrayList<Suggestion>();
+            for (int i = from; i < keys.length && keys[i].startsWith(prefix); i++) {
+                matches.add(new Suggestion(keys[i], labels[i], counts[i]));
+            }
+            matches.sort(Comparator.comparingLong(Suggestion::count).reversed()
+                    .thenComparing(Suggestion::value));
+            return matches.size() > limit ? List.copyOf(matches.subList(0, limit)) : matches;
+        }
+    }
+}
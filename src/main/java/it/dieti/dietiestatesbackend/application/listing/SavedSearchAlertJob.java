@@ -0,0 +1,172 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.notification.EmailQueueService;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearch;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearchRepository;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearchRepository.AlertRun;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusesEnum;
+import it.dieti.dietiestatesbackend.domain.user.UserRepository;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.PublishedListingReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Reverse matching for saved searches: every run takes the listings first published since the
+ * previous run and evaluates them in one pass against all saved searches, bucketed by a
+ * {@link SavedSearchIndex}. Keyword queries are then confirmed in SQL, one query per distinct
+ * keyword string, and every user with at least one match gets a single digest email.
+ * <p>
+ * Each run records the publication window it covered; the next run starts where it ended. Two
+ * instances running the same window collide on the unique start of the window and the second
+ * one rolls back together with the emails it enqueued.
+ */
+@Component
+@ConditionalOnProperty(value = "app.listings.saved-searches.alerts.enabled", havingValue = "true", matchIfMissing = true)
+class SavedSearchAlertJob {
+
+    private static final Logger log = LoggerFactory.getLogger(SavedSearchAlertJob.class);
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final PublishedListingReader publishedListingReader;
+    private final ListingStatusRepository listingStatusRepository;
+    private final UserRepository userRepository;
+    private final EmailQueueService emailQueueService;
+    private final SavedSearchProperties properties;
+
+    SavedSearchAlertJob(SavedSearchRepository savedSearchRepository,
+                        PublishedListingReader publishedListingReader,
+                        ListingStatusRepository listingStatusRepository,
+                        UserRepository userRepository,
+                        EmailQueueService emailQueueService,
+                        SavedSearchProperties properties) {
+        this.savedSearchRepository = savedSearchRepository;
+        this.publishedListingReader = publishedListingReader;
+        this.listingStatusRepository = listingStatusRepository;
+        this.userRepository = userRepository;
+        this.emailQueueService = emailQueueService;
+        this.properties = properties;
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.listings.saved-searches.alert-interval:PT15M}",
+            initialDelayString = "${app.listings.saved-searches.alert-interval:PT15M}"
+    )
+    @Transactional
+    public void sendAlerts() {
+        runAt(OffsetDateTime.now());
+    }
+
+    void runAt(OffsetDateTime now) {
+        var until = now.minus(properties.getAlertSettleDelay());
+        var after = savedSearchRepository.findLastAlertRunUntil().orElse(until);
+        if (after.isAfter(until)) {
+            log.debug("Saved search alerts already cover publications up to {}", after);
+            return;
+        }
+
+        var index = new SavedSearchIndex(properties.getPriceBandCents(), properties.getMaxPriceBandsPerSearch());
+        savedSearchRepository.forEach(index::add);
+
+        var matches = new LinkedHashMap<UUID, Match>();
+        int[] scanned = {0};
+        if (index.size() > 0 && after.isBefore(until)) {
+            var publishedStatusId = listingStatusRepository.findByCode(ListingStatusesEnum.PUBLISHED.getDescription())
+                    .orElseThrow(() -> new IllegalStateException("Listing status PUBLISHED not configured"))
+                    .id();
+            publishedListingReader.forEachPublishedBetween(publishedStatusId, after, until, listing -> {
+                scanned[0]++;
+                for (var search : index.matching(listing.card(), listing.featureIds())) {
+                    matches.computeIfAbsent(search.id(), id -> new Match(search, new ArrayList<>()))
+                            .listings().add(listing.card());
+                }
+            });
+            confirmTextQueries(matches);
+        }
+
+        int digests = enqueueDigests(matches);
+        savedSearchRepository.insertAlertRun(new AlertRun(after, until, scanned[0], digests, now));
+        log.info("Saved search alerts for publications in ({}, {}]: {} listings against {} searches, {} digests",
+                after, until, scanned[0], index.size(), digests);
+    }
+
+    /**
+     * Drops the listings that do not satisfy the keyword query of their saved search.
+     */
+    private void confirmTextQueries(Map<UUID, Match> matches) {
+        var candidatesByQuery = new LinkedHashMap<String, Set<UUID>>();
+        for (var match : matches.values()) {
+            var textQuery = match.search().filters().textQuery();
+            if (textQuery != null && !textQuery.isBlank()) {
+                var candidates = candidatesByQuery.computeIfAbsent(textQuery, q -> new HashSet<>());
+                match.listings().forEach(listing -> candidates.add(listing.id()));
+            }
+        }
+        var confirmedByQuery = new LinkedHashMap<String, Set<UUID>>();
+        candidatesByQuery.forEach((textQuery, candidates) ->
+                confirmedByQuery.put(textQuery, publishedListingReader.matchingText(candidates, textQuery)));
+
+        matches.values().removeIf(match -> {
+            var confirmed = confirmedByQuery.get(match.search().filters().textQuery());
+            if (confirmed != null) {
+                match.listings().removeIf(listing -> !confirmed.contains(listing.id()));
+            }
+            return match.listings().isEmpty();
+        });
+    }
+
+    private int enqueueDigests(Map<UUID, Match> matches) {
+        var byUser = new LinkedHashMap<UUID, List<Match>>();
+        matches.values().forEach(match -> byUser.computeIfAbsent(match.search().userId(), id -> new ArrayList<>()).add(match));
+
+        int digests = 0;
+        for (var entry : byUser.entrySet()) {
+            var user = userRepository.findById(entry.getKey());
+            if (user.isEmpty()) {
+                log.warn("Saved search alerts skipped for missing user {}", entry.getKey());
+                continue;
+            }
+            emailQueueService.enqueue(user.get().email(), "Nuovi annunci per le tue ricerche salvate", digestBody(entry.getValue()));
+            digests++;
+        }
+        return digests;
+    }
+
+    private String digestBody(List<Match> matches) {
+        var body = new StringBuilder("Ciao,\n\nsono stati pubblicati nuovi annunci che corrispondono alle tue ricerche salvate.\n");
+        for (var match : matches) {
+            body.append("\n").append(match.search().name()).append(":\n");
+            var listings = match.listings();
+            int shown = Math.min(listings.size(), properties.getMaxListingsPerSearch());
+            for (ListingCard listing : listings.subList(0, shown)) {
+                body.append("- ").append(listing.title())
+                        .append(", ").append(listing.city())
+                        .append(", ").append(BigDecimal.valueOf(listing.priceCents(), 2).toPlainString())
+                        .append(' ').append(listing.currency())
+                        .append(" (ID ").append(listing.id()).append(")\n");
+            }
+            if (listings.size() > shown) {
+                body.append("... e altri ").append(listings.size() - shown).append(" annunci.\n");
+            }
+        }
+        body.append("\nPuoi gestire le tue ricerche salvate dal tuo profilo.\n\n-- Team DietiEstates");
+        return body.toString();
+    }
+
+    private record Match(SavedSearch search, List<ListingCard> listings) {}
+}
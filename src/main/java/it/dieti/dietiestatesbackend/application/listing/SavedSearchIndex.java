@@ -0,0 +1,201 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchFilters;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearch;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Saved searches bucketed by city, listing type and price band, so that a new listing is only
+ * tested against the searches of the (at most eight) buckets it can fall into. A search without
+ * a city or type goes to the wildcard bucket of that key; a price range spanning more than
+ * {@code maxBandsPerSearch} bands, or open above, goes to the wildcard band.
+ * <p>
+ * {@link #matches} evaluates every filter except the keyword query, whose Italian full-text
+ * semantics live in PostgreSQL and must be confirmed there. Radius filters use the great-circle
+ * distance and polygons are tested in longitude/latitude, which agrees with the geography
+ * predicates of the SQL search up to a fraction of a percent of the distance.
+ */
+final class SavedSearchIndex {
+
+    private static final long ANY_BAND = -1;
+    private static final double EARTH_RADIUS_METERS = 6_371_008.8;
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+    private final long priceBandCents;
+    private final int maxBandsPerSearch;
+    private final Map<Key, List<Entry>> buckets = new HashMap<>();
+    private int size;
+
+    SavedSearchIndex(long priceBandCents, int maxBandsPerSearch) {
+        this.priceBandCents = Math.max(1, priceBandCents);
+        this.maxBandsPerSearch = Math.max(1, maxBandsPerSearch);
+    }
+
+    void add(SavedSearch search) {
+        var filters = search.filters();
+        var entry = new Entry(search, parsePolygon(filters));
+        String city = filters.normalizedCity() != null && !filters.normalizedCity().isBlank() ? filters.normalizedCity() : null;
+        UUID type = filters.listingTypeId();
+
+        long firstBand = filters.minPriceCents() != null ? band(Math.max(0, filters.minPriceCents())) : 0;
+        Long lastBand = filters.maxPriceCents() != null ? band(Math.max(0, filters.maxPriceCents())) : null;
+        if (lastBand == null || lastBand - firstBand + 1 > maxBandsPerSearch) {
+            bucket(new Key(city, type, ANY_BAND)).add(entry);
+        } else {
+            for (long band = firstBand; band <= lastBand; band++) {
+                bucket(new Key(city, type, band)).add(entry);
+            }
+        }
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Saved searches whose filters the listing satisfies, keyword queries aside.
+     */
+    List<SavedSearch> matching(ListingCard listing, List<UUID> featureIds) {
+        var result = new ArrayList<SavedSearch>();
+        String city = listing.city() != null ? listing.city().toUpperCase(Locale.ROOT) : null;
+        long band = band(listing.priceCents());
+        for (String cityKey : new String[]{city, null}) {
+            for (UUID typeKey : new UUID[]{listing.listingTypeId(), null}) {
+                for (long bandKey : new long[]{band, ANY_BAND}) {
+                    var entries = buckets.get(new Key(cityKey, typeKey, bandKey));
+                    if (entries == null) {
+                        continue;
+                    }
+                    for (var entry : entries) {
+                        if (matches(entry.search().filters(), entry.polygon(), listing, featureIds)) {
+                            result.add(entry.search());
+                        }
+                    }
+                }
+            }
+            if (city == null) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    static boolean matches(SearchFilters filters, Polygon polygon, ListingCard listing, List<UUID> featureIds) {
+        if (filters.listingTypeId() != null && !filters.listingTypeId().equals(listing.listingTypeId())) {
+            return false;
+        }
+        if (filters.normalizedCity() != null && !filters.normalizedCity().isBlank()
+                && (listing.city() == null || !filters.normalizedCity().equals(listing.city().toUpperCase(Locale.ROOT)))) {
+            return false;
+        }
+        if (filters.minPriceCents() != null && listing.priceCents() < filters.minPriceCents()) {
+            return false;
+        }
+        if (filters.maxPriceCents() != null && listing.priceCents() > filters.maxPriceCents()) {
+            return false;
+        }
+        if (!inRange(listing.rooms(), filters.minRooms(), filters.maxRooms())) {
+            return false;
+        }
+        if (!inRange(listing.sizeSqm(), filters.minSqm(), filters.maxSqm())) {
+            return false;
+        }
+        if (!containsUpper(filters.normalizedEnergyClasses(), listing.energyClass())) {
+            return false;
+        }
+        if (!containsUpper(filters.normalizedPostalCodes(), listing.postalCode())) {
+            return false;
+        }
+        if (filters.featureIds() != null && !filters.featureIds().isEmpty()
+                && (featureIds == null || !featureIds.containsAll(filters.featureIds()))) {
+            return false;
+        }
+        if (filters.hasPhotos() != null && filters.hasPhotos() != (listing.photoCount() > 0)) {
+            return false;
+        }
+        if (filters.furnished() != null && filters.furnished() != listing.furnished()) {
+            return false;
+        }
+        if (filters.petsAllowed() != null && filters.petsAllowed() != listing.petsAllowed()) {
+            return false;
+        }
+        if (filters.agencyId() != null && !filters.agencyId().equals(listing.agencyId())) {
+            return false;
+        }
+        if (filters.ownerAgentId() != null && !filters.ownerAgentId().equals(listing.ownerAgentId())) {
+            return false;
+        }
+        if (filters.latitude() != null && filters.longitude() != null && filters.radiusMeters() != null
+                && distanceMeters(filters.latitude(), filters.longitude(), listing.latitude(), listing.longitude()) > filters.radiusMeters()) {
+            return false;
+        }
+        return polygon == null
+                || polygon.covers(GEOMETRY_FACTORY.createPoint(new Coordinate(listing.longitude(), listing.latitude())));
+    }
+
+    private long band(long priceCents) {
+        return priceCents / priceBandCents;
+    }
+
+    private List<Entry> bucket(Key key) {
+        return buckets.computeIfAbsent(key, ignored -> new ArrayList<>());
+    }
+
+    private static Polygon parsePolygon(SearchFilters filters) {
+        if (filters.polygon() == null) {
+            return null;
+        }
+        try {
+            return (Polygon) new WKTReader(GEOMETRY_FACTORY).read(filters.polygon().wkt());
+        } catch (ParseException | ClassCastException ex) {
+            throw new IllegalStateException("Invalid polygon in saved search filters", ex);
+        }
+    }
+
+    private static boolean inRange(Integer value, Integer min, Integer max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null && (min == null || value >= min) && (max == null || value <= max);
+    }
+
+    private static boolean inRange(BigDecimal value, BigDecimal min, BigDecimal max) {
+        if (min == null && max == null) {
+            return true;
+        }
+        return value != null
+                && (min == null || value.compareTo(min) >= 0)
+                && (max == null || value.compareTo(max) <= 0);
+    }
+
+    private static boolean containsUpper(List<String> allowed, String value) {
+        return allowed == null || allowed.isEmpty()
+                || (value != null && allowed.contains(value.toUpperCase(Locale.ROOT)));
+    }
+
+    private static double distanceMeters(double lat1, double lng1, double lat2, double lng2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLng = Math.toRadians(lng2 - lng1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2)) * Math.sin(dLng / 2) * Math.sin(dLng / 2);
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    private record Key(String city, UUID listingTypeId, long band) {}
+
+    private record Entry(SavedSearch search, Polygon polygon) {}
+}
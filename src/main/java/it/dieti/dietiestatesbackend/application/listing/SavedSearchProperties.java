@@ -0,0 +1,89 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.listings.saved-searches")
+public class SavedSearchProperties {
+    /**
+     * Maximum number of saved searches per user.
+     */
+    private int maxPerUser = 20;
+
+    /**
+     * Interval between two runs of the alert matcher.
+     */
+    private Duration alertInterval = Duration.ofMinutes(15);
+
+    /**
+     * Listings published less than this long ago are left to the next run, so that publications
+     * still committing when a run starts are not skipped by the watermark.
+     */
+    private Duration alertSettleDelay = Duration.ofMinutes(1);
+
+    /**
+     * Width of the price bands saved searches are indexed by.
+     */
+    private long priceBandCents = 5_000_000;
+
+    /**
+     * Searches whose price range spans more bands than this are indexed under every price.
+     */
+    private int maxPriceBandsPerSearch = 40;
+
+    /**
+     * Listings reported for a single saved search in one digest.
+     */
+    private int maxListingsPerSearch = 10;
+
+    public int getMaxPerUser() {
+        return maxPerUser;
+    }
+
+    public void setMaxPerUser(int maxPerUser) {
+        this.maxPerUser = maxPerUser;
+    }
+
+    public Duration getAlertInterval() {
+        return alertInterval;
+    }
+
+    public void setAlertInterval(Duration alertInterval) {
+        this.alertInterval = alertInterval;
+    }
+
+    public Duration getAlertSettleDelay() {
+        return alertSettleDelay;
+    }
+
+    public void setAlertSettleDelay(Duration alertSettleDelay) {
+        this.alertSettleDelay = alertSettleDelay;
+    }
+
+    public long getPriceBandCents() {
+        return priceBandCents;
+    }
+
+    public void setPriceBandCents(long priceBandCents) {
+        this.priceBandCents = priceBandCents;
+    }
+
+    public int getMaxPriceBandsPerSearch() {
+        return maxPriceBandsPerSearch;
+    }
+
+    public void setMaxPriceBandsPerSearch(int maxPriceBandsPerSearch) {
+        this.maxPriceBandsPerSearch = maxPriceBandsPerSearch;
+    }
+
+    public int getMaxListingsPerSearch() {
+        return maxListingsPerSearch;
+    }
+
+    public void setMaxListingsPerSearch(int maxListingsPerSearch) {
+        this.maxListingsPerSearch = maxListingsPerSearch;
+    }
+}
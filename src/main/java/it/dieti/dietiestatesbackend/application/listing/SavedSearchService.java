@@ -0,0 +1,143 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.application.exception.ConflictException;
+import it.dieti.dietiestatesbackend.application.exception.NotFoundException;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchService.SearchQuery;
+import it.dieti.dietiestatesbackend.domain.feature.Feature;
+import it.dieti.dietiestatesbackend.domain.feature.FeatureRepository;
+import it.dieti.dietiestatesbackend.domain.listing.ListingType;
+import it.dieti.dietiestatesbackend.domain.listing.ListingTypeRepository;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearch;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearchRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Searches saved by users to be alerted of new listings; see {@link SavedSearchAlertJob}.
+ */
+@Service
+public class SavedSearchService {
+
+    private static final int MAX_NAME_LENGTH = 100;
+    private static final String NAME_FIELD = "name";
+
+    private final SavedSearchRepository savedSearchRepository;
+    private final ListingSearchService listingSearchService;
+    private final ListingTypeRepository listingTypeRepository;
+    private final FeatureRepository featureRepository;
+    private final SearchPolygonParser polygonParser;
+    private final SavedSearchProperties properties;
+
+    public SavedSearchService(SavedSearchRepository savedSearchRepository,
+                              ListingSearchService listingSearchService,
+                              ListingTypeRepository listingTypeRepository,
+                              FeatureRepository featureRepository,
+                              SearchPolygonParser polygonParser,
+                              SavedSearchProperties properties) {
+        this.savedSearchRepository = savedSearchRepository;
+        this.listingSearchService = listingSearchService;
+        this.listingTypeRepository = listingTypeRepository;
+        this.featureRepository = featureRepository;
+        this.polygonParser = polygonParser;
+        this.properties = properties;
+    }
+
+    public record SavedSearchView(UUID id, String name, SearchQuery criteria, OffsetDateTime createdAt) {}
+
+    /**
+     * Saves {@code criteria} under {@code name}. The criteria are validated and normalized as a
+     * published-only search; paging, sort, cursor and count parameters are ignored.
+     */
+    @Transactional
+    public SavedSearchView create(UUID userId, String name, SearchQuery criteria) {
+        Objects.requireNonNull(userId, "userId is required");
+        Objects.requireNonNull(criteria, "criteria is required");
+        var normalizedName = name != null ? name.trim() : "";
+        if (normalizedName.isEmpty()) {
+            throw BadRequestException.forField(NAME_FIELD, "Il campo 'name' è obbligatorio.");
+        }
+        if (normalizedName.length() > MAX_NAME_LENGTH) {
+            throw BadRequestException.forField(NAME_FIELD, "Il campo 'name' può contenere al massimo " + MAX_NAME_LENGTH + " caratteri.");
+        }
+        var filters = listingSearchService.resolveSavedSearchFilters(criteria);
+        if (savedSearchRepository.countByUserId(userId) >= properties.getMaxPerUser()) {
+            throw ConflictException.of("Hai raggiunto il numero massimo di " + properties.getMaxPerUser() + " ricerche salvate.");
+        }
+        var now = OffsetDateTime.now();
+        var saved = savedSearchRepository.insert(new SavedSearch(null, userId, normalizedName, filters, now, now));
+        return toView(saved);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SavedSearchView> list(UUID userId) {
+        Objects.requireNonNull(userId, "userId is required");
+        return savedSearchRepository.findByUserId(userId).stream()
+                .map(this::toView)
+                .toList();
+    }
+
+    @Transactional
+    public void delete(UUID userId, UUID savedSearchId) {
+        Objects.requireNonNull(userId, "userId is required");
+        if (savedSearchId == null || !savedSearchRepository.deleteByIdAndUserId(savedSearchId, userId)) {
+            throw NotFoundException.resourceNotFound("Ricerca salvata", savedSearchId);
+        }
+    }
+
+    /**
+     * Rebuilds the request-level criteria from the normalized filters: ids back to codes, the
+     * polygon back to GeoJSON. City, energy classes and postal codes stay upper-cased.
+     */
+    private SavedSearchView toView(SavedSearch search) {
+        var filters = search.filters();
+        var type = Optional.ofNullable(filters.listingTypeId())
+                .flatMap(listingTypeRepository::findById)
+                .map(ListingType::code)
+                .orElse(null);
+        var features = filters.featureIds() == null || filters.featureIds().isEmpty()
+                ? null
+                : filters.featureIds().stream()
+                        .map(featureRepository::findById)
+                        .flatMap(Optional::stream)
+                        .map(Feature::code)
+                        .toList();
+        var criteria = new SearchQuery(
+                type,
+                filters.normalizedCity(),
+                filters.textQuery(),
+                filters.minPriceCents(),
+                filters.maxPriceCents(),
+                filters.minRooms(),
+                filters.maxRooms(),
+                filters.minSqm(),
+                filters.maxSqm(),
+                filters.normalizedEnergyClasses(),
+                features,
+                filters.normalizedPostalCodes(),
+                null,
+                filters.latitude(),
+                filters.longitude(),
+                filters.radiusMeters(),
+                polygonParser.toGeoJson(filters.polygon()),
+                filters.hasPhotos(),
+                filters.furnished(),
+                filters.petsAllowed(),
+                filters.agencyId(),
+                filters.ownerAgentId(),
+                null,
+                null,
+                null,
+                null,
+                null,
+                true
+        );
+        return new SavedSearchView(search.id(), search.name(), criteria, search.createdAt());
+    }
+}
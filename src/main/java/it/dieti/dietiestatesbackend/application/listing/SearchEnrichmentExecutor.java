@@ -0,0 +1,173 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import it.dieti.dietiestatesbackend.application.exception.InternalServerErrorException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Runs the independent enrichment stages of a search page concurrently, so that enriching a page
+ * costs about as much as its slowest stage.
+ * <p>
+ * Stages run on virtual threads outside the caller's transaction and may each borrow a database
+ * connection, so the number of stages in flight across all searches is bounded by a shared budget.
+ * A stage that finds the budget exhausted runs on the calling thread instead of waiting. The stages
+ * of a page are awaited together with {@link #joinAll(List)}, which cancels all of them when one
+ * fails or the page times out. The latency of every stage is recorded in the
+ * {@code listing_search.enrichment} timer.
+ */
+@Component
+public class SearchEnrichmentExecutor implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(SearchEnrichmentExecutor.class);
+
+    private final ListingSearchProperties properties;
+    private final Executor executor;
+    private final Semaphore connectionBudget;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public SearchEnrichmentExecutor(ListingSearchProperties properties,
+                                    @Qualifier("searchVirtualThreadExecutor") Executor executor) {
+        this.properties = properties;
+        this.executor = executor;
+        this.connectionBudget = new Semaphore(Math.max(0, properties.getEnrichmentMaxConcurrency()));
+    }
+
+    public <T> CompletableFuture<T> submit(String stage, Supplier<T> task) {
+        if (!connectionBudget.tryAcquire()) {
+            try {
+                return CompletableFuture.completedFuture(timed(stage, task));
+            } catch (RuntimeException ex) {
+                return CompletableFuture.failedFuture(ex);
+            }
+        }
+        var future = new CompletableFuture<T>();
+        var runner = new AtomicReference<Thread>();
+        try {
+            executor.execute(() -> {
+                try {
+                    if (future.isDone()) {
+                        return;
+                    }
+                    runner.set(Thread.currentThread());
+                    future.complete(timed(stage, task));
+                } catch (Throwable ex) {
+                    future.completeExceptionally(ex);
+                } finally {
+                    synchronized (runner) {
+                        runner.set(null);
+                        Thread.interrupted();
+                    }
+                    connectionBudget.release();
+                }
+            });
+        } catch (RuntimeException ex) {
+            connectionBudget.release();
+            throw ex;
+        }
+        future.whenComplete((value, ex) -> {
+            if (future.isCancelled()) {
+                synchronized (runner) {
+                    var thread = runner.get();
+                    if (thread != null) {
+                        thread.interrupt();
+                    }
+                }
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Waits for a stage submitted with {@link #submit(String, Supplier)} and rethrows its failure as is.
+     */
+    public <T> T join(CompletableFuture<T> stage) {
+        joinAll(List.of(stage));
+        return stage.join();
+    }
+
+    /**
+     * Waits for all the stages of a page within one {@code enrichment-timeout}. As soon as one
+     * stage fails, or the wait times out or is interrupted, every stage is cancelled: those not
+     * started yet are skipped and running ones are interrupted, so none keeps its permit and
+     * connection for a page that is already lost. The failure of the stage is rethrown as is.
+     */
+    public void joinAll(List<? extends CompletableFuture<?>> stages) {
+        var firstFailure = new CompletableFuture<Void>();
+        stages.forEach(stage -> stage.whenComplete((value, ex) -> {
+            if (ex != null) {
+                firstFailure.completeExceptionally(ex);
+            }
+        }));
+        var all = CompletableFuture.allOf(stages.toArray(CompletableFuture[]::new));
+        try {
+            CompletableFuture.anyOf(all, firstFailure)
+                    .get(properties.getEnrichmentTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | CompletionException ex) {
+            cancelAll(stages);
+            if (ex.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(ex.getCause());
+        } catch (TimeoutException ex) {
+            cancelAll(stages);
+            log.error("Arricchimento dei risultati di ricerca oltre {}", properties.getEnrichmentTimeout());
+            throw new InternalServerErrorException("Si è verificato un errore interno. Riprova più tardi.");
+        } catch (InterruptedException ex) {
+            cancelAll(stages);
+            Thread.currentThread().interrupt();
+            throw new InternalServerErrorException("Si è verificato un errore interno. Riprova più tardi.");
+        }
+    }
+
+    private static void cancelAll(List<? extends CompletableFuture<?>> stages) {
+        stages.forEach(stage -> stage.cancel(true));
+    }
+
+    private <T> T timed(String stage, Supplier<T> task) {
+        long started = System.nanoTime();
+        try {
+            return task.get();
+        } finally {
+            var timer = timer(stage);
+            if (timer != null) {
+                timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    private Timer timer(String stage) {
+        var registry = meterRegistry;
+        if (registry == null) {
+            return null;
+        }
+        return timers.computeIfAbsent(stage, name -> Timer.builder("listing_search.enrichment")
+                .description("Latency of one enrichment stage of a search page")
+                .tag("stage", name)
+                .register(registry));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.meterRegistry = registry;
+    }
+}
@@ -0,0 +1,170 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.BoundingBox;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchPolygon;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.LineString;
+import org.locationtech.jts.geom.LinearRing;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.geom.PrecisionModel;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.io.WKTWriter;
+import org.locationtech.jts.simplify.TopologyPreservingSimplifier;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+
+/**
+ * Reads the area drawn on the map, a GeoJSON {@code Polygon} geometry, and simplifies it to the
+ * configured vertex budget so that the containment test in SQL has a bounded cost per row.
+ */
+@Component
+public class SearchPolygonParser {
+
+    private static final String FIELD = "polygon";
+    private static final int MAX_SIMPLIFY_STEPS = 32;
+    private static final double MAX_SPAN_DEGREES = 180;
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+
+    private final ListingSearchProperties properties;
+    private final ObjectMapper objectMapper;
+
+    public SearchPolygonParser(ListingSearchProperties properties, ObjectMapper objectMapper) {
+        this.properties = properties;
+        this.objectMapper = objectMapper;
+    }
+
+    public SearchPolygon parse(String geoJson) {
+        if (geoJson == null || geoJson.isBlank()) {
+            return null;
+        }
+        JsonNode root;
+        try {
+            root = objectMapper.readTree(geoJson);
+        } catch (JsonProcessingException ex) {
+            throw BadRequestException.forField(FIELD, "Il parametro 'polygon' deve essere un GeoJSON valido.");
+        }
+        if (root == null || !"Polygon".equals(root.path("type").asText())) {
+            throw BadRequestException.forField(FIELD, "Il parametro 'polygon' deve essere una geometria GeoJSON di tipo 'Polygon'.");
+        }
+        var rings = root.path("coordinates");
+        if (!rings.isArray() || rings.isEmpty()) {
+            throw BadRequestException.forField(FIELD, "Il poligono deve avere almeno un anello di coordinate.");
+        }
+        int inputVertices = 0;
+        for (JsonNode ring : rings) {
+            inputVertices += ring.size();
+        }
+        if (inputVertices > properties.getPolygonMaxInputVertices()) {
+            throw BadRequestException.forField(FIELD, "Il poligono può avere al massimo " + properties.getPolygonMaxInputVertices() + " vertici.");
+        }
+
+        var shell = toRing(rings.get(0));
+        var holes = new ArrayList<LinearRing>();
+        for (int i = 1; i < rings.size(); i++) {
+            holes.add(toRing(rings.get(i)));
+        }
+        var polygon = GEOMETRY_FACTORY.createPolygon(shell, holes.toArray(LinearRing[]::new));
+        if (!polygon.isValid() || polygon.getArea() == 0) {
+            throw BadRequestException.forField(FIELD, "Il poligono non è valido: i lati non devono intersecarsi.");
+        }
+        var envelope = polygon.getEnvelopeInternal();
+        if (envelope.getWidth() >= MAX_SPAN_DEGREES) {
+            throw BadRequestException.forField(FIELD, "Il poligono non può estendersi per più di " + (int) MAX_SPAN_DEGREES + " gradi di longitudine.");
+        }
+
+        var simplified = simplify(polygon);
+        var bounds = simplified.getEnvelopeInternal();
+        return new SearchPolygon(
+                new WKTWriter().write(simplified),
+                new BoundingBox(bounds.getMinY(), bounds.getMinX(), bounds.getMaxY(), bounds.getMaxX())
+        );
+    }
+
+    /**
+     * Inverse of {@link #parse(String)}: the (already simplified) polygon as a GeoJSON geometry.
+     */
+    public String toGeoJson(SearchPolygon polygon) {
+        if (polygon == null) {
+            return null;
+        }
+        Polygon geometry;
+        try {
+            geometry = (Polygon) new WKTReader(GEOMETRY_FACTORY).read(polygon.wkt());
+        } catch (ParseException | ClassCastException ex) {
+            throw new IllegalStateException("Invalid polygon WKT", ex);
+        }
+        var root = objectMapper.createObjectNode();
+        root.put("type", "Polygon");
+        var rings = root.putArray("coordinates");
+        writeRing(rings.addArray(), geometry.getExteriorRing());
+        for (int i = 0; i < geometry.getNumInteriorRing(); i++) {
+            writeRing(rings.addArray(), geometry.getInteriorRingN(i));
+        }
+        return root.toString();
+    }
+
+    private static void writeRing(ArrayNode target, LineString ring) {
+        for (Coordinate coordinate : ring.getCoordinates()) {
+            target.addArray().add(coordinate.getX()).add(coordinate.getY());
+        }
+    }
+
+    private static LinearRing toRing(JsonNode ring) {
+        if (!ring.isArray()) {
+            throw BadRequestException.forField(FIELD, "Ogni anello del poligono deve essere una lista di coordinate.");
+        }
+        var coordinates = new ArrayList<Coordinate>(ring.size() + 1);
+        for (JsonNode position : ring) {
+            if (!position.isArray() || position.size() < 2 || !position.get(0).isNumber() || !position.get(1).isNumber()) {
+                throw BadRequestException.forField(FIELD, "Le coordinate del poligono devono essere coppie [lng, lat].");
+            }
+            double longitude = position.get(0).asDouble();
+            double latitude = position.get(1).asDouble();
+            if (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180) {
+                throw BadRequestException.forField(FIELD, "Le coordinate del poligono devono avere lat tra -90 e 90 e lng tra -180 e 180.");
+            }
+            coordinates.add(new Coordinate(longitude, latitude));
+        }
+        if (!coordinates.isEmpty() && !coordinates.getFirst().equals2D(coordinates.getLast())) {
+            coordinates.add(coordinates.getFirst().copy());
+        }
+        if (coordinates.size() < 4) {
+            throw BadRequestException.forField(FIELD, "Ogni anello del poligono deve avere almeno 3 vertici.");
+        }
+        return GEOMETRY_FACTORY.createLinearRing(coordinates.toArray(Coordinate[]::new));
+    }
+
+    /**
+     * Douglas-Peucker simplification that keeps rings simple and non-overlapping. The tolerance
+     * starts at a thousandth of the envelope diagonal and doubles until the vertex budget is met.
+     */
+    private Polygon simplify(Polygon polygon) {
+        int maxVertices = properties.getPolygonMaxVertices();
+        var envelope = polygon.getEnvelopeInternal();
+        double tolerance = Math.hypot(envelope.getWidth(), envelope.getHeight()) / 1000;
+        var current = polygon;
+        for (int step = 0; vertexCount(current) > maxVertices && step < MAX_SIMPLIFY_STEPS; step++) {
+            current = (Polygon) TopologyPreservingSimplifier.simplify(polygon, tolerance);
+            tolerance *= 2;
+        }
+        if (vertexCount(current) > maxVertices) {
+            throw BadRequestException.forField(FIELD, "Il poligono è troppo complesso: riduci il numero di vertici o di buchi.");
+        }
+        return current;
+    }
+
+    /**
+     * Distinct vertices: every ring repeats its first point at the end.
+     */
+    private static int vertexCount(Polygon polygon) {
+        return polygon.getNumPoints() - 1 - polygon.getNumInteriorRing();
+    }
+}
@@ -0,0 +1,302 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/**
+ * Nearest-neighbour index over published listings, one balanced k-d tree per listing type (sale
+ * and rent prices are not comparable). Each listing is a point with five coordinates: east and
+ * north position in kilometres, the logarithm of price and of size, and the number of rooms,
+ * each divided by its {@link Scales scale} so that one unit weighs the same on every axis. A
+ * missing size or room count is compared as zero.
+ * <p>
+ * Points store the east position without the cosine of the latitude; each query weighs the east
+ * axis by the cosine of the target's latitude, i.e. an equirectangular projection centred on the
+ * target shared by every candidate. East-west distances are exact at the target's latitude and
+ * off by less than 2% for listings within one degree (about 110 km) north or south of it.
+ * <p>
+ * The trees are immutable; changes go to a small overlay of upserted listings, scanned linearly,
+ * and of stale ids, skipped in the trees. When the overlay exceeds {@code maxPendingChanges} the
+ * trees are rebuilt from the current listings. Readers work on a volatile snapshot and never lock.
+ */
+final class SimilarListingIndex {
+
+    static final int DIMENSIONS = 5;
+    private static final double KM_PER_DEGREE_LATITUDE = 110.574;
+    private static final double KM_PER_DEGREE_LONGITUDE = 111.320;
+
+    /**
+     * Amount of each quantity counted as one unit of distance.
+     */
+    record Scales(double distanceKm, double priceRatio, double sizeRatio, double rooms) {}
+
+    private final Scales scales;
+    private final int maxPendingChanges;
+    private final Map<UUID, ListingCard> listings = new ConcurrentHashMap<>();
+    private volatile Snapshot snapshot = new Snapshot(Map.of(), Map.of(), Set.of());
+
+    SimilarListingIndex(Scales scales, int maxPendingChanges) {
+        this.scales = scales;
+        this.maxPendingChanges = Math.max(0, maxPendingChanges);
+    }
+
+    int size() {
+        return listings.size();
+    }
+
+    ListingCard get(UUID listingId) {
+        return listings.get(listingId);
+    }
+
+    synchronized void addAll(Collection<ListingCard> cards) {
+        cards.forEach(card -> listings.put(card.id(), card));
+        rebuild();
+    }
+
+    synchronized void upsert(ListingCard card) {
+        listings.put(card.id(), card);
+        var current = snapshot;
+        var pending = new HashMap<>(current.pending());
+        pending.put(card.id(), card);
+        var stale = new HashSet<>(current.stale());
+        stale.add(card.id());
+        apply(current.trees(), pending, stale);
+    }
+
+    synchronized void remove(UUID listingId) {
+        if (listings.remove(listingId) == null) {
+            return;
+        }
+        var current = snapshot;
+        var pending = new HashMap<>(current.pending());
+        pending.remove(listingId);
+        var stale = new HashSet<>(current.stale());
+        stale.add(listingId);
+        apply(current.trees(), pending, stale);
+    }
+
+    /**
+     * Up to {@code limit} listings of the same type as {@code target}, nearest first; ties are
+     * broken by id. The target itself is excluded.
+     */
+    List<ListingCard> nearest(ListingCard target, int limit) {
+        var current = snapshot;
+        var query = vector(target);
+        double eastWeight = Math.cos(Math.toRadians(target.latitude()));
+        var neighbours = new Neighbours(limit);
+        var tree = current.trees().get(target.listingTypeId());
+        if (tree != null) {
+            tree.search(query, eastWeight, neighbours, id -> id.equals(target.id()) || current.stale().contains(id));
+        }
+        for (ListingCard card : current.pending().values()) {
+            if (!card.id().equals(target.id()) && card.listingTypeId() != null
+                    && card.listingTypeId().equals(target.listingTypeId())) {
+                neighbours.offer(card, squaredDistance(query, vector(card), 0, eastWeight));
+            }
+        }
+        return neighbours.toList();
+    }
+
+    private void apply(Map<UUID, KdTree> trees, Map<UUID, ListingCard> pending, Set<UUID> stale) {
+        if (pending.size() + stale.size() > maxPendingChanges) {
+            rebuild();
+        } else {
+            snapshot = new Snapshot(trees, Map.copyOf(pending), Set.copyOf(stale));
+        }
+    }
+
+    private void rebuild() {
+        var byType = new HashMap<UUID, List<ListingCard>>();
+        for (ListingCard card : listings.values()) {
+            if (card.listingTypeId() != null) {
+                byType.computeIfAbsent(card.listingTypeId(), ignored -> new ArrayList<>()).add(card);
+            }
+        }
+        var trees = new HashMap<UUID, KdTree>();
+        byType.forEach((typeId, cards) -> trees.put(typeId, new KdTree(cards)));
+        snapshot = new Snapshot(Map.copyOf(trees), Map.of(), Set.of());
+    }
+
+    private double[] vector(ListingCard card) {
+        double size = card.sizeSqm() != null ? card.sizeSqm().doubleValue() : 0;
+        return new double[]{
+                card.longitude() * KM_PER_DEGREE_LONGITUDE / scales.distanceKm(),
+                card.latitude() * KM_PER_DEGREE_LATITUDE / scales.distanceKm(),
+                Math.log1p(Math.max(0, card.priceCents())) / Math.log1p(scales.priceRatio()),
+                Math.log1p(Math.max(0, size)) / Math.log1p(scales.sizeRatio()),
+                (card.rooms() != null ? card.rooms() : 0) / scales.rooms()
+        };
+    }
+
+    private static double squaredDistance(double[] query, double[] points, int offset, double eastWeight) {
+        double sum = 0;
+        for (int axis = 0; axis < DIMENSIONS; axis++) {
+            double diff = axisDistance(query, points, offset, axis, eastWeight);
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    private static double axisDistance(double[] query, double[] points, int offset, int axis, double eastWeight) {
+        double diff = query[axis] - points[offset + axis];
+        return axis == 0 ? diff * eastWeight : diff;
+    }
+
+    private record Snapshot(Map<UUID, KdTree> trees, Map<UUID, ListingCard> pending, Set<UUID> stale) {}
+
+    /**
+     * Balanced k-d tree stored implicitly: the node of a range is its middle element, its
+     * children are the two halves, and the splitting axis cycles with the depth.
+     */
+    private final class KdTree {
+
+        private final ListingCard[] cards;
+        private final double[] points;
+
+        KdTree(List<ListingCard> source) {
+            this.cards = source.toArray(ListingCard[]::new);
+            this.points = new double[cards.length * DIMENSIONS];
+            for (int i = 0; i < cards.length; i++) {
+                System.arraycopy(vector(cards[i]), 0, points, i * DIMENSIONS, DIMENSIONS);
+            }
+            build(0, cards.length, 0);
+        }
+
+        void search(double[] query, double eastWeight, Neighbours neighbours, Predicate<UUID> skip) {
+            search(0, cards.length, 0, query, eastWeight, neighbours, skip);
+        }
+
+        private void build(int from, int to, int depth) {
+            if (to - from <= 1) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            select(from, to - 1, mid, depth % DIMENSIONS);
+            build(from, mid, depth + 1);
+            build(mid + 1, to, depth + 1);
+        }
+
+        private void search(int from, int to, int depth, double[] query, double eastWeight,
+                            Neighbours neighbours, Predicate<UUID> skip) {
+            if (from >= to) {
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            int axis = depth % DIMENSIONS;
+            if (!skip.test(cards[mid].id())) {
+                neighbours.offer(cards[mid], squaredDistance(query, points, mid * DIMENSIONS, eastWeight));
+            }
+            double diff = axisDistance(query, points, mid * DIMENSIONS, axis, eastWeight);
+            if (diff < 0) {
+                search(from, mid, depth + 1, query, eastWeight, neighbours, skip);
+                if (diff * diff <= neighbours.worst()) {
+                    search(mid + 1, to, depth + 1, query, eastWeight, neighbours, skip);
+                }
+            } else {
+                search(mid + 1, to, depth + 1, query, eastWeight, neighbours, skip);
+                if (diff * diff <= neighbours.worst()) {
+                    search(from, mid, depth + 1, query, eastWeight, neighbours, skip);
+                }
+            }
+        }
+
+        /**
+         * Quickselect on {@code axis} with a three-way partition, so that axes with many equal
+         * values (rooms) stay linear: afterwards position {@code k} holds the element that would
+         * be there if {@code [left, right]} were sorted, no larger ones before it and no smaller
+         * ones after.
+         */
+        private void select(int left, int right, int k, int axis) {
+            while (left < right) {
+                double pivot = points[((left + right) >>> 1) * DIMENSIONS + axis];
+                int lower = left;
+                int greater = right;
+                int i = left;
+                while (i <= greater) {
+                    double value = points[i * DIMENSIONS + axis];
+                    if (value < pivot) {
+                        swap(lower++, i++);
+                    } else if (value > pivot) {
+                        swap(i, greater--);
+                    } else {
+                        i++;
+                    }
+                }
+                if (k < lower) {
+                    right = lower - 1;
+                } else if (k > greater) {
+                    left = greater + 1;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private void swap(int i, int j) {
+            if (i == j) {
+                return;
+            }
+            var card = cards[i];
+            cards[i] = cards[j];
+            cards[j] = card;
+            for (int axis = 0; axis < DIMENSIONS; axis++) {
+                double value = points[i * DIMENSIONS + axis];
+                points[i * DIMENSIONS + axis] = points[j * DIMENSIONS + axis];
+                points[j * DIMENSIONS + axis] = value;
+            }
+        }
+    }
+
+    /**
+     * The {@code limit} closest candidates seen so far, kept sorted by insertion (limits are small).
+     */
+    private static final class Neighbours {
+
+        private final ListingCard[] cards;
+        private final double[] distances;
+        private int size;
+
+        Neighbours(int limit) {
+            this.cards = new ListingCard[limit];
+            this.distances = new double[limit];
+        }
+
+        double worst() {
+            return size < cards.length ? Double.POSITIVE_INFINITY : distances[size - 1];
+        }
+
+        void offer(ListingCard card, double distance) {
+            if (cards.length == 0 || (size == cards.length && !closer(distance, card, size - 1))) {
+                return;
+            }
+            int i = size < cards.length ? size++ : size - 1;
+            while (i > 0 && closer(distance, card, i - 1)) {
+                cards[i] = cards[i - 1];
+                distances[i] = distances[i - 1];
+                i--;
+            }
+            cards[i] = card;
+            distances[i] = distance;
+        }
+
+        private boolean closer(double distance, ListingCard card, int index) {
+            return distance < distances[index]
+                    || (distance == distances[index] && card.id().compareTo(cards[index].id()) < 0);
+        }
+
+        List<ListingCard> toList() {
+            return Arrays.asList(Arrays.copyOf(cards, size));
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.listings.similar")
+public class SimilarListingProperties {
+    /**
+     * Build the similar listings index when the application starts.
+     */
+    private boolean preload = true;
+
+    /**
+     * Interval between two full rebuilds of the index, which also pick up changes not
+     * published as events (e.g. deletions finalized by the scheduler).
+     */
+    private Duration refreshInterval = Duration.ofMinutes(30);
+
+    /**
+     * Listing changes kept beside the k-d trees before they are rebuilt.
+     */
+    private int maxPendingChanges = 512;
+
+    /**
+     * Neighbours returned when the client does not pass 'limit'.
+     */
+    private int defaultLimit = 6;
+
+    /**
+     * Upper bound on 'limit'.
+     */
+    private int maxLimit = 20;
+
+    /**
+     * Distance between two listings, in kilometres, weighing as much as one unit on the other axes.
+     */
+    private double distanceScaleKm = 2.0;
+
+    /**
+     * Relative price difference weighing one unit (0.25: one price is 25% higher than the other).
+     */
+    private double priceScale = 0.25;
+
+    /**
+     * Relative size difference weighing one unit.
+     */
+    private double sizeScale = 0.25;
+
+    /**
+     * Difference in number of rooms weighing one unit.
+     */
+    private double roomsScale = 1.0;
+
+    public boolean isPreload() {
+        return preload;
+    }
+
+    public void setPreload(boolean preload) {
+        this.preload = preload;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public int getMaxPendingChanges() {
+        return maxPendingChanges;
+    }
+
+    public void setMaxPendingChanges(int maxPendingChanges) {
+        this.maxPendingChanges = maxPendingChanges;
+    }
+
+    public int getDefaultLimit() {
+        return defaultLimit;
+    }
+
+    public void setDefaultLimit(int defaultLimit) {
+        this.defaultLimit = defaultLimit;
+    }
+
+    public int getMaxLimit() {
+        return maxLimit;
+    }
+
+    public void setMaxLimit(int maxLimit) {
+        this.maxLimit = maxLimit;
+    }
+
+    public double getDistanceScaleKm() {
+        return distanceScaleKm;
+    }
+
+    public void setDistanceScaleKm(double distanceScaleKm) {
+        this.distanceScaleKm = distanceScaleKm;
+    }
+
+    public double getPriceScale() {
+        return priceScale;
+    }
+
+    public void setPriceScale(double priceScale) {
+        this.priceScale = priceScale;
+    }
+
+    public double getSizeScale() {
+        return sizeScale;
+    }
+
+    public void setSizeScale(double sizeScale) {
+        this.sizeScale = sizeScale;
+    }
+
+    public double getRoomsScale() {
+        return roomsScale;
+    }
+
+    public void setRoomsScale(double roomsScale) {
+        this.roomsScale = roomsScale;
+    }
+}
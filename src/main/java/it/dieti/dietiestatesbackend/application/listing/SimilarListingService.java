@@ -0,0 +1,157 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.application.exception.NotFoundException;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchService.SearchItem;
+import it.dieti.dietiestatesbackend.domain.listing.Listing;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusesEnum;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.PublishedListingReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * "Similar listings" of a published listing: the nearest published listings of the same type by
+ * location, price, size and rooms, answered from a {@link SimilarListingIndex} in memory.
+ * <p>
+ * The index is built at startup and periodically from the published listings, and updated after
+ * commit whenever a listing enters, leaves or changes in the published state by re-reading it.
+ */
+@Service
+public class SimilarListingService implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SimilarListingService.class);
+
+    private final PublishedListingReader publishedListingReader;
+    private final ListingStatusRepository listingStatusRepository;
+    private final ListingSearchService listingSearchService;
+    private final SimilarListingProperties properties;
+
+    private volatile SimilarListingIndex index;
+    private volatile UUID publishedStatusId;
+
+    public SimilarListingService(PublishedListingReader publishedListingReader,
+                                 ListingStatusRepository listingStatusRepository,
+                                 ListingSearchService listingSearchService,
+                                 SimilarListingProperties properties) {
+        this.publishedListingReader = publishedListingReader;
+        this.listingStatusRepository = listingStatusRepository;
+        this.listingSearchService = listingSearchService;
+        this.properties = properties;
+    }
+
+    public List<SearchItem> findSimilar(UUID listingId, Integer limit) {
+        int effectiveLimit = limit == null ? properties.getDefaultLimit() : limit;
+        if (effectiveLimit < 1 || effectiveLimit > properties.getMaxLimit()) {
+            throw BadRequestException.forField("limit", "limit deve essere compreso tra 1 e " + properties.getMaxLimit() + ".");
+        }
+
+        var current = index;
+        if (current == null) {
+            current = buildIfAbsent();
+        }
+        var target = current.get(listingId);
+        if (target == null) {
+            log.debug("Annuncio {} non pubblicato o inesistente: nessun annuncio simile", listingId);
+            throw NotFoundException.resourceNotFound(ListingCreationService.ANNUNCIO, listingId);
+        }
+        return listingSearchService.enrich(current.nearest(target, effectiveLimit));
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isPreload()) {
+            log.info("Similar listings preload disabled; index will be built on first access");
+            return;
+        }
+        refresh();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.listings.similar.refresh-interval:PT30M}",
+            initialDelayString = "${app.listings.similar.refresh-interval:PT30M}"
+    )
+    public void scheduledRefresh() {
+        if (index != null) {
+            refresh();
+        }
+    }
+
+    /**
+     * Builds a new index and swaps it in; on failure the previous index keeps serving.
+     */
+    public void refresh() {
+        try {
+            rebuild();
+        } catch (RuntimeException ex) {
+            log.warn("Unable to build similar listings index; keeping previous content", ex);
+        }
+    }
+
+    /**
+     * Re-reads the changed listing: it is (re)indexed if published, removed otherwise. Feature
+     * changes are ignored since features are not compared. Changes committed while a rebuild is
+     * reading may be missed until the next rebuild.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        var current = index;
+        var statusId = publishedStatusId;
+        if (current == null || statusId == null || event.change() == ListingChangedEvent.Change.FEATURES) {
+            return;
+        }
+        if (!isPublished(event.previous(), statusId) && !isPublished(event.current(), statusId)) {
+            return;
+        }
+        try {
+            publishedListingReader.find(event.listingId(), statusId)
+                    .ifPresentOrElse(listing -> current.upsert(listing.card()), () -> current.remove(event.listingId()));
+        } catch (RuntimeException ex) {
+            log.warn("Unable to refresh listing {} in the similar listings index", event.listingId(), ex);
+        }
+    }
+
+    /**
+     * First access without a preloaded index: concurrent requests wait for a single build.
+     */
+    private synchronized SimilarListingIndex buildIfAbsent() {
+        if (index == null) {
+            rebuild();
+        }
+        return index;
+    }
+
+    /**
+     * Serialized with the lazy first build, so a refresh never runs alongside it.
+     */
+    private synchronized void rebuild() {
+        var statusId = listingStatusRepository.findByCode(ListingStatusesEnum.PUBLISHED.getDescription())
+                .orElseThrow(() -> new IllegalStateException("Listing status PUBLISHED not configured"))
+                .id();
+        long started = System.nanoTime();
+        var cards = new ArrayList<ListingCard>();
+        publishedListingReader.forEach(statusId, listing -> cards.add(listing.card()));
+        var rebuilt = new SimilarListingIndex(new SimilarListingIndex.Scales(
+                properties.getDistanceScaleKm(), properties.getPriceScale(), properties.getSizeScale(),
+                properties.getRoomsScale()), properties.getMaxPendingChanges());
+        rebuilt.addAll(cards);
+        publishedStatusId = statusId;
+        index = rebuilt;
+        log.info("Similar listings index built with {} listings in {} ms",
+                rebuilt.size(), (System.nanoTime() - started) / 1_000_000);
+    }
+
+    private static boolean isPublished(Listing listing, UUID publishedStatusId) {
+        return listing != null && listing.deletedAt() == null && publishedStatusId.equals(listing.statusId());
+    }
+}
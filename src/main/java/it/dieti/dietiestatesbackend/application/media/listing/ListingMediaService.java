@@ -4,6 +4,7 @@ import it.dieti.dietiestatesbackend.api.model.ListingPhoto;
 import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
 import it.dieti.dietiestatesbackend.application.exception.ForbiddenException;
 import it.dieti.dietiestatesbackend.application.exception.listing.AgentProfileRequiredException;
+import it.dieti.dietiestatesbackend.application.listing.ListingChangedEvent;
 import it.dieti.dietiestatesbackend.application.media.MediaAssetService;
 import it.dieti.dietiestatesbackend.domain.user.agent.AgentRepository;
 import it.dieti.dietiestatesbackend.domain.listing.ListingRepository;
@@ -15,6 +16,7 @@ import it.dieti.dietiestatesbackend.domain.user.role.RoleRepository;
 import it.dieti.dietiestatesbackend.domain.user.role.RolesEnum;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -38,6 +40,7 @@ public class ListingMediaService {
     private final AgentRepository agentRepository;
     private final UserRepository userRepository;
     private final RoleRepository roleRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     public ListingMediaService(ListingRepository listingRepository,
                                MediaAssetService mediaAssetService,
@@ -45,7 +48,8 @@ public class ListingMediaService {
                                MediaAssetRepository mediaAssetRepository,
                                AgentRepository agentRepository,
                                UserRepository userRepository,
-                               RoleRepository roleRepository) {
+                               RoleRepository roleRepository,
+                               ApplicationEventPublisher eventPublisher) {
         this.listingRepository = listingRepository;
         this.mediaAssetService = mediaAssetService;
         this.listingMediaRepository = listingMediaRepository;
@@ -53,6 +57,7 @@ public class ListingMediaService {
         this.agentRepository = agentRepository;
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
+        this.eventPublisher = eventPublisher;
     }
 
 
@@ -92,6 +97,8 @@ public class ListingMediaService {
                     .url(URI.create(media.publicUrl()))
                     .position(photo.getPosition()));
         }
+        listingMediaRepository.refreshListingPhotoSummary(listing.id());
+        eventPublisher.publishEvent(ListingChangedEvent.photos(listing));
         return addedPhotos;
     }
 
@@ -174,6 +181,8 @@ public class ListingMediaService {
         // Keep reference before deleting the join
         var mediaId = listingMedia.mediaId();
         listingMediaRepository.delete(listingPhotoId);
+        listingMediaRepository.refreshListingPhotoSummary(listingId);
+        eventPublisher.publishEvent(ListingChangedEvent.photos(listing));
 
         // Also delete the underlying media asset (DB + storage) in a best-effort manner
         mediaAssetService.deleteAsset(mediaId);
@@ -242,6 +251,8 @@ public class ListingMediaService {
             );
             listingMediaRepository.save(updated);
         }
+        listingMediaRepository.refreshListingPhotoSummary(listingId);
+        eventPublisher.publishEvent(ListingChangedEvent.photos(listing));
 
         return getListingPhotos(listingId);
     }
@@ -12,6 +12,8 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.lang.reflect.Method;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableAsync
@@ -40,6 +42,14 @@ public class AsyncConfig implements AsyncConfigurer {
         return executor;
     }
 
+    /**
+     * One virtual thread per search enrichment stage; concurrency is bounded by SearchEnrichmentExecutor.
+     */
+    @Bean(name = "searchVirtualThreadExecutor", destroyMethod = "close")
+    public ExecutorService searchVirtualThreadExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("search-enrich-", 0).factory());
+    }
+
     @Override
     public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
         return (ex, method, params) -> log.error("Unhandled exception in @Async method {} with params {}", method, params, ex);
@@ -1,6 +1,10 @@
 package it.dieti.dietiestatesbackend.domain.feature.listing;
 
+import it.dieti.dietiestatesbackend.domain.feature.Feature;
+
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -8,5 +12,11 @@ public interface ListingFeatureRepository {
     ListingFeature save(ListingFeature listingFeature);
     Optional<ListingFeature> findById(UUID id);
     List<ListingFeature> findByListingId(UUID listingId);
+    Map<UUID, List<Feature>> findFeaturesByListingIds(Collection<UUID> listingIds);
     void deleteById(UUID id);
+
+    /**
+     * Recomputes the denormalized feature set stored on the listing row from its current associations.
+     */
+    void refreshListingFeatureSet(UUID listingId);
 }
@@ -0,0 +1,23 @@
+package it.dieti.dietiestatesbackend.domain.listing.counter;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+public interface ListingCounterRepository {
+
+    /**
+     * Adds the increments to the counters of {@code day} and to the running totals in a single
+     * statement. Increments of listings that no longer exist are dropped.
+     */
+    void add(LocalDate day, List<CounterIncrement> increments);
+
+    /**
+     * Persisted totals of the given listings; listings never counted are missing from the map.
+     */
+    Map<UUID, ListingCounters> findTotals(Collection<UUID> listingIds);
+
+    record CounterIncrement(UUID listingId, long views, long impressions) {}
+}
@@ -0,0 +1,14 @@
+package it.dieti.dietiestatesbackend.domain.listing.counter;
+
+/**
+ * How many times a listing was opened ({@code views}) and shown in search results
+ * ({@code impressions}).
+ */
+public record ListingCounters(long views, long impressions) {
+
+    public static final ListingCounters ZERO = new ListingCounters(0, 0);
+
+    public ListingCounters plus(long moreViews, long moreImpressions) {
+        return new ListingCounters(views + moreViews, impressions + moreImpressions);
+    }
+}
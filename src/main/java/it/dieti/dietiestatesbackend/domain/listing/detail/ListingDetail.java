@@ -0,0 +1,44 @@
+package it.dieti.dietiestatesbackend.domain.listing.detail;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Read model of the listing detail page: the listing with its type and status codes, its photos
+ * in display order and its feature codes. {@code updatedAt} also moves when photos or features
+ * change, so it identifies the version of the whole view.
+ */
+public record ListingDetail(
+        UUID id,
+        UUID agencyId,
+        UUID ownerAgentId,
+        String listingTypeCode,
+        String statusCode,
+        String title,
+        String description,
+        long priceCents,
+        String currency,
+        BigDecimal sizeSqm,
+        Integer rooms,
+        Integer floor,
+        String energyClass,
+        String contractDescription,
+        long securityDepositCents,
+        boolean furnished,
+        long condoFeeCents,
+        boolean petsAllowed,
+        String addressLine,
+        String city,
+        String postalCode,
+        Double latitude,
+        Double longitude,
+        OffsetDateTime publishedAt,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        List<Photo> photos,
+        List<String> featureCodes
+) {
+    public record Photo(UUID id, String url, int position) {}
+}
@@ -0,0 +1,8 @@
+package it.dieti.dietiestatesbackend.domain.listing.detail;
+
+import java.util.Optional;
+import java.util.UUID;
+
+public interface ListingDetailRepository {
+    Optional<ListingDetail> findById(UUID listingId);
+}
@@ -0,0 +1,42 @@
+package it.dieti.dietiestatesbackend.domain.listing.search;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Columns needed to render a listing in search results. The description is an excerpt,
+ * the contract text is omitted, the position is read as plain coordinates and photos are
+ * summarised by their count and the URL of the cover (first) photo. {@code distanceMeters} is the
+ * distance from the reference point of a radius search, {@code null} for any other search.
+ */
+public record ListingCard(
+        UUID id,
+        UUID agencyId,
+        UUID ownerAgentId,
+        UUID listingTypeId,
+        UUID statusId,
+        String title,
+        String descriptionExcerpt,
+        long priceCents,
+        String currency,
+        BigDecimal sizeSqm,
+        Integer rooms,
+        Integer floor,
+        String energyClass,
+        long securityDepositCents,
+        boolean furnished,
+        long condoFeeCents,
+        boolean petsAllowed,
+        String addressLine,
+        String city,
+        String postalCode,
+        double latitude,
+        double longitude,
+        int photoCount,
+        String coverPhotoUrl,
+        OffsetDateTime publishedAt,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt,
+        Double distanceMeters
+) {}
@@ -0,0 +1,21 @@
+package it.dieti.dietiestatesbackend.domain.listing.search;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Distinct locations of the non-deleted listings in a given status, used to build the
+ * autocomplete index. Values are trimmed and upper-cased like the search filters.
+ */
+public interface ListingLocationRepository {
+
+    List<LocationCount> countCitiesByStatus(UUID statusId);
+
+    List<LocationCount> countPostalCodesByStatus(UUID statusId);
+
+    /**
+     * @param value normalized value, as accepted by the {@code city}/{@code postalCodes} filters
+     * @param label one of the spellings found in the listings, for display
+     */
+    record LocationCount(String value, String label, long count) {}
+}
@@ -1,18 +1,38 @@
 package it.dieti.dietiestatesbackend.domain.listing.search;
 
-import it.dieti.dietiestatesbackend.domain.listing.Listing;
-
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 public interface ListingSearchRepository {
 
     SearchResult search(SearchFilters filters);
 
+    /**
+     * Listings matching {@code filters} inside {@code bounds}. Up to {@code listingThreshold}
+     * matches are returned as cards; above it they are grouped on a grid of
+     * {@code cellSizeDegrees} and only the clusters are returned.
+     */
+    MapResult searchMap(SearchFilters filters, BoundingBox bounds, double cellSizeDegrees, int listingThreshold);
+
+    /**
+     * Counts of the listings matching {@code filters} per type, energy class, rooms bucket,
+     * feature and price bucket of {@code priceBucketCents}. Paging, sort and count mode are ignored.
+     */
+    FacetCounts facets(SearchFilters filters, long priceBucketCents);
+
+    /**
+     * Passes every listing matching {@code filters} to {@code consumer} in sort order, reading rows
+     * from a forward-only cursor as they are consumed. Paging, keyset and count mode are ignored.
+     * Must be called inside a transaction.
+     */
+    void stream(SearchFilters filters, Consumer<ListingCard> consumer);
+
     record SearchFilters(
             UUID listingTypeId,
             UUID statusId,
             String normalizedCity,
+            String textQuery,
             Integer minPriceCents,
             Integer maxPriceCents,
             Integer minRooms,
@@ -25,6 +45,7 @@ public interface ListingSearchRepository {
             Double latitude,
             Double longitude,
             Integer radiusMeters,
+            SearchPolygon polygon,
             Boolean hasPhotos,
             Boolean furnished,
             Boolean petsAllowed,
@@ -33,8 +54,62 @@ public interface ListingSearchRepository {
             String sortColumn,
             boolean sortAscending,
             int page,
-            int size
+            int size,
+            Keyset after,
+            CountMode countMode,
+            int countCap
+    ) {}
+
+    /**
+     * Area drawn by the user: a simple polygon in WGS84 as WKT, with its envelope.
+     */
+    record SearchPolygon(String wkt, BoundingBox envelope) {}
+
+    /**
+     * Position of the last row of the previous page for keyset pagination.
+     * {@code sortValue} is the value of the sort column (null only for unpublished listings
+     * sorted by {@code published_at}); {@code createdAt} and {@code id} break ties.
+     */
+    record Keyset(Object sortValue, java.time.OffsetDateTime createdAt, UUID id) {}
+
+    /**
+     * How the total number of matches is computed: a full {@code COUNT(*)}, a count stopped at
+     * {@code countCap + 1} rows, the planner row estimate, or no count at all.
+     */
+    enum CountMode { EXACT, CAPPED, ESTIMATED, NONE }
+
+    enum TotalAccuracy { EXACT, AT_LEAST, ESTIMATED, UNKNOWN }
+
+    record SearchResult(List<ListingCard> listings, long total, TotalAccuracy totalAccuracy) {
+        public SearchResult(List<ListingCard> listings, long total) {
+            this(listings, total, TotalAccuracy.EXACT);
+        }
+    }
+
+    record BoundingBox(double minLatitude, double minLongitude, double maxLatitude, double maxLongitude) {}
+
+    /**
+     * Listings of one grid cell: how many, their centroid and their price range.
+     */
+    record MapCluster(double latitude, double longitude, long count, long minPriceCents, long maxPriceCents) {}
+
+    record MapResult(boolean clustered, long total, List<MapCluster> clusters, List<ListingCard> listings) {}
+
+    /**
+     * Facet counts under the same filters. Rooms buckets are "0".."4" and "5+"; listings
+     * without a value for a facet are only counted in {@code total}.
+     */
+    record FacetCounts(
+            long total,
+            java.util.Map<UUID, Long> listingTypes,
+            java.util.Map<String, Long> energyClasses,
+            java.util.Map<String, Long> rooms,
+            java.util.Map<UUID, Long> features,
+            List<PriceBucket> priceHistogram
     ) {}
 
-    record SearchResult(List<Listing> listings, long total) {}
+    /**
+     * Listings priced in {@code [minPriceCents, maxPriceCents)}.
+     */
+    record PriceBucket(long minPriceCents, long maxPriceCents, long count) {}
 }
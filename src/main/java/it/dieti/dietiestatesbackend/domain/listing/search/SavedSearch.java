@@ -0,0 +1,17 @@
+package it.dieti.dietiestatesbackend.domain.listing.search;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * Search saved by a user for new-listing alerts. {@code filters} are normalized as for a
+ * published-only search; paging, sort, keyset and count mode are not meaningful here.
+ */
+public record SavedSearch(
+        UUID id,
+        UUID userId,
+        String name,
+        ListingSearchRepository.SearchFilters filters,
+        OffsetDateTime createdAt,
+        OffsetDateTime updatedAt
+) {}
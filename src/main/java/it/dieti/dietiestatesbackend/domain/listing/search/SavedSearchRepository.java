@@ -0,0 +1,34 @@
+package it.dieti.dietiestatesbackend.domain.listing.search;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+public interface SavedSearchRepository {
+    SavedSearch insert(SavedSearch savedSearch);
+    List<SavedSearch> findByUserId(UUID userId);
+    long countByUserId(UUID userId);
+    boolean deleteByIdAndUserId(UUID id, UUID userId);
+
+    /**
+     * Passes every saved search to {@code consumer}. Must be called inside a transaction.
+     */
+    void forEach(Consumer<SavedSearch> consumer);
+
+    /**
+     * End of the publication window covered by the latest alert run, if any run happened.
+     */
+    Optional<OffsetDateTime> findLastAlertRunUntil();
+
+    void insertAlertRun(AlertRun run);
+
+    record AlertRun(
+            OffsetDateTime publishedAfter,
+            OffsetDateTime publishedUntil,
+            int listingsScanned,
+            int digestsEnqueued,
+            OffsetDateTime createdAt
+    ) {}
+}
@@ -12,4 +12,9 @@ public interface ListingMediaRepository {
     Integer findNextOrderByListingId(UUID listingId);
     void delete(UUID id);
     void bumpSortOrders(UUID listingId, int offset);
+
+    /**
+     * Recomputes the photo count and cover URL stored on the listing row from its current photos.
+     */
+    void refreshListingPhotoSummary(UUID listingId);
 }
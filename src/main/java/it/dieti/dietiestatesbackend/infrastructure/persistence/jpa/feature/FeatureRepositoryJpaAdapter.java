@@ -2,6 +2,8 @@ package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.feature;
 
 import it.dieti.dietiestatesbackend.domain.feature.Feature;
 import it.dieti.dietiestatesbackend.domain.feature.FeatureRepository;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceDataRegistry;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceTable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
@@ -11,22 +13,27 @@ import java.util.UUID;
 
 @Repository
 public class FeatureRepositoryJpaAdapter implements FeatureRepository {
-    private final FeatureJpaRepository jpaRepository;
-    public FeatureRepositoryJpaAdapter(FeatureJpaRepository jpaRepository) {
-        this.jpaRepository = jpaRepository;
+    private final ReferenceTable<Feature> features;
+    public FeatureRepositoryJpaAdapter(FeatureJpaRepository jpaRepository, ReferenceDataRegistry referenceDataRegistry) {
+        this.features = referenceDataRegistry.register(
+                "features",
+                () -> jpaRepository.findAll(Sort.by("code").ascending()).stream().map(this::toDomain).toList(),
+                Feature::id,
+                Feature::code
+        );
     }
     @Override
     public List<Feature> findAll() {
-        return jpaRepository.findAll(Sort.by("code").ascending()).stream().map(this::toDomain).toList();
+        return features.findAll();
     }
     @Override
     public Optional<Feature> findByCode(String code) {
-        return jpaRepository.findByCode(code).map(this::toDomain);
+        return features.findByCode(code);
     }
 
     @Override
     public Optional<Feature> findById(UUID id) {
-        return jpaRepository.findById(id).map(this::toDomain);
+        return features.findById(id);
     }
 
     private Feature toDomain(FeatureEntity e) {
@@ -1,10 +1,23 @@
 package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.feature.listing;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
 public interface ListingFeatureJpaRepository extends JpaRepository<ListingFeatureEntity, UUID> {
     List<ListingFeatureEntity> findByListing_Id(UUID listingId);
+
+    @Query("select lf from ListingFeatureEntity lf join fetch lf.feature f where lf.listing.id in :listingIds order by lf.listing.id, f.code asc")
+    List<ListingFeatureEntity> findAllWithFeatureByListingIds(@Param("listingIds") Collection<UUID> listingIds);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE listings SET feature_ids = COALESCE("
+            + "(SELECT array_agg(lf.feature_id ORDER BY lf.feature_id) FROM listing_features lf WHERE lf.listing_id = :listingId),"
+            + " '{}'), updated_at = clock_timestamp() WHERE id = :listingId", nativeQuery = true)
+    int refreshFeatureIds(@Param("listingId") UUID listingId);
 }
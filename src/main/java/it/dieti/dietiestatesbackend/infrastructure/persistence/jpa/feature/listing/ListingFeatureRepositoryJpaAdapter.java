@@ -1,5 +1,6 @@
 package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.feature.listing;
 
+import it.dieti.dietiestatesbackend.domain.feature.Feature;
 import it.dieti.dietiestatesbackend.domain.feature.listing.ListingFeature;
 import it.dieti.dietiestatesbackend.domain.feature.listing.ListingFeatureRepository;
 import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.feature.FeatureEntity;
@@ -7,7 +8,11 @@ import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.Listi
 import org.springframework.stereotype.Repository;
 
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -67,8 +72,27 @@ public class ListingFeatureRepositoryJpaAdapter implements ListingFeatureReposit
         return repository.findByListing_Id(listingId).stream().map(this::toDomain).toList();
     }
 
+    @Override
+    public Map<UUID, List<Feature>> findFeaturesByListingIds(Collection<UUID> listingIds) {
+        Map<UUID, List<Feature>> result = new LinkedHashMap<>();
+        if (listingIds == null || listingIds.isEmpty()) {
+            return result;
+        }
+        for (ListingFeatureEntity entity : repository.findAllWithFeatureByListingIds(listingIds)) {
+            var feature = entity.getFeature();
+            result.computeIfAbsent(entity.getListing().getId(), id -> new ArrayList<>())
+                    .add(new Feature(feature.getId(), feature.getCode(), feature.getName()));
+        }
+        return result;
+    }
+
     @Override
     public void deleteById(UUID id) {
         repository.deleteById(id);
     }
+
+    @Override
+    public void refreshListingFeatureSet(UUID listingId) {
+        repository.refreshFeatureIds(listingId);
+    }
 }
@@ -0,0 +1,89 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounterRepository;
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounters;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Daily counters and running totals written by one {@code INSERT ... ON CONFLICT DO UPDATE} per
+ * batch: the increments are bound as three parallel arrays and unnested, and a data-modifying
+ * CTE upserts the daily rows before the totals. The batch is ordered by listing id so that
+ * instances flushing at the same time lock rows in the same order.
+ */
+@Component
+public class ListingCounterRepositoryJpaAdapter implements ListingCounterRepository {
+
+    private static final String UPSERT = """
+            WITH batch AS (
+                SELECT b.listing_id, b.views, b.impressions
+                FROM unnest(CAST(:listingIds AS uuid[]), CAST(:views AS bigint[]), CAST(:impressions AS bigint[]))
+                     AS b(listing_id, views, impressions)
+                JOIN listings l ON l.id = b.listing_id
+                ORDER BY b.listing_id
+            ), daily AS (
+                INSERT INTO listing_daily_counters (listing_id, day, views, impressions)
+                SELECT listing_id, :day, views, impressions FROM batch
+                ON CONFLICT (listing_id, day) DO UPDATE
+                SET views = listing_daily_counters.views + EXCLUDED.views,
+                    impressions = listing_daily_counters.impressions + EXCLUDED.impressions
+            )
+            INSERT INTO listing_counter_totals (listing_id, views, impressions)
+            SELECT listing_id, views, impressions FROM batch
+            ON CONFLICT (listing_id) DO UPDATE
+            SET views = listing_counter_totals.views + EXCLUDED.views,
+                impressions = listing_counter_totals.impressions + EXCLUDED.impressions
+            """;
+
+    private final EntityManager entityManager;
+
+    public ListingCounterRepositoryJpaAdapter(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    @Transactional
+    public void add(LocalDate day, List<CounterIncrement> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        entityManager.createNativeQuery(UPSERT)
+                .setParameter("listingIds", increments.stream().map(CounterIncrement::listingId).toArray(UUID[]::new))
+                .setParameter("views", increments.stream().map(CounterIncrement::views).toArray(Long[]::new))
+                .setParameter("impressions", increments.stream().map(CounterIncrement::impressions).toArray(Long[]::new))
+                .setParameter("day", day)
+                .executeUpdate();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public Map<UUID, ListingCounters> findTotals(Collection<UUID> listingIds) {
+        if (listingIds.isEmpty()) {
+            return Map.of();
+        }
+        List<Object[]> rows = entityManager.createNativeQuery(
+                        "SELECT t.listing_id, t.views, t.impressions FROM listing_counter_totals t WHERE t.listing_id = ANY(:ids)")
+                .unwrap(NativeQuery.class)
+                .addScalar("listing_id", StandardBasicTypes.UUID)
+                .addScalar("views", StandardBasicTypes.LONG)
+                .addScalar("impressions", StandardBasicTypes.LONG)
+                .setParameter("ids", listingIds.toArray(UUID[]::new))
+                .getResultList();
+        var totals = new HashMap<UUID, ListingCounters>();
+        for (Object[] row : rows) {
+            totals.put((UUID) row[0], new ListingCounters((Long) row[1], (Long) row[2]));
+        }
+        return totals;
+    }
+}
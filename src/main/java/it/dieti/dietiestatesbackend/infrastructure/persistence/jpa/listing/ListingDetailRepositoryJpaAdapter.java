@@ -0,0 +1,140 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.dieti.dietiestatesbackend.domain.listing.detail.ListingDetail;
+import it.dieti.dietiestatesbackend.domain.listing.detail.ListingDetailRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Loads the detail view with one statement: type and status codes are joined, photos and
+ * feature codes are aggregated as JSON arrays by correlated subqueries, so the cost does not
+ * grow with the number of photos or features.
+ */
+@Component
+public class ListingDetailRepositoryJpaAdapter implements ListingDetailRepository {
+
+    private static final TypeReference<List<ListingDetail.Photo>> PHOTOS = new TypeReference<>() {};
+    private static final TypeReference<List<String>> CODES = new TypeReference<>() {};
+
+    private static final String DETAIL_SQL = """
+            SELECT l.id, l.agency_id, l.owner_agent_id, lt.code AS listing_type_code, ls.code AS status_code,
+                   l.title, l.description, l.price_cents, l.currency, l.size_sqm, l.rooms, l.floor, l.energy_class,
+                   l.contract_description, l.security_deposit_cents, l.furnished, l.condo_fee_cents, l.pets_allowed,
+                   l.address_line, l.city, l.postal_code,
+                   ST_Y(l.geo::geometry) AS latitude, ST_X(l.geo::geometry) AS longitude,
+                   l.published_at, l.created_at, l.updated_at,
+                   COALESCE((SELECT json_agg(json_build_object('id', lm.id, 'url', ma.public_url, 'position', lm.sort_order)
+                                             ORDER BY lm.sort_order)
+                             FROM listing_media lm
+                             JOIN media_assets ma ON ma.id = lm.media_id
+                             WHERE lm.listing_id = l.id), '[]'::json)::text AS photos,
+                   COALESCE((SELECT json_agg(f.code ORDER BY f.code)
+                             FROM listing_features lf
+                             JOIN features f ON f.id = lf.feature_id
+                             WHERE lf.listing_id = l.id), '[]'::json)::text AS feature_codes
+            FROM listings l
+            JOIN listing_types lt ON lt.id = l.listing_type_id
+            JOIN listing_statuses ls ON ls.id = l.status_id
+            WHERE l.id = :id
+            """;
+
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public ListingDetailRepositoryJpaAdapter(EntityManager entityManager, ObjectMapper objectMapper) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    @SuppressWarnings("unchecked")
+    public Optional<ListingDetail> findById(UUID listingId) {
+        List<Object[]> rows = entityManager.createNativeQuery(DETAIL_SQL)
+                .unwrap(NativeQuery.class)
+                .addScalar("id", StandardBasicTypes.UUID)
+                .addScalar("agency_id", StandardBasicTypes.UUID)
+                .addScalar("owner_agent_id", StandardBasicTypes.UUID)
+                .addScalar("listing_type_code", StandardBasicTypes.STRING)
+                .addScalar("status_code", StandardBasicTypes.STRING)
+                .addScalar("title", StandardBasicTypes.STRING)
+                .addScalar("description", StandardBasicTypes.STRING)
+                .addScalar("price_cents", StandardBasicTypes.LONG)
+                .addScalar("currency", StandardBasicTypes.STRING)
+                .addScalar("size_sqm", StandardBasicTypes.BIG_DECIMAL)
+                .addScalar("rooms", StandardBasicTypes.INTEGER)
+                .addScalar("floor", StandardBasicTypes.INTEGER)
+                .addScalar("energy_class", StandardBasicTypes.STRING)
+                .addScalar("contract_description", StandardBasicTypes.STRING)
+                .addScalar("security_deposit_cents", StandardBasicTypes.LONG)
+                .addScalar("furnished", StandardBasicTypes.BOOLEAN)
+                .addScalar("condo_fee_cents", StandardBasicTypes.LONG)
+                .addScalar("pets_allowed", StandardBasicTypes.BOOLEAN)
+                .addScalar("address_line", StandardBasicTypes.STRING)
+                .addScalar("city", StandardBasicTypes.STRING)
+                .addScalar("postal_code", StandardBasicTypes.STRING)
+                .addScalar("latitude", StandardBasicTypes.DOUBLE)
+                .addScalar("longitude", StandardBasicTypes.DOUBLE)
+                .addScalar("published_at", StandardBasicTypes.OFFSET_DATE_TIME)
+                .addScalar("created_at", StandardBasicTypes.OFFSET_DATE_TIME)
+                .addScalar("updated_at", StandardBasicTypes.OFFSET_DATE_TIME)
+                .addScalar("photos", StandardBasicTypes.STRING)
+                .addScalar("feature_codes", StandardBasicTypes.STRING)
+                .setParameter("id", listingId)
+                .getResultList();
+        return rows.stream().findFirst().map(this::toDetail);
+    }
+
+    private ListingDetail toDetail(Object[] row) {
+        return new ListingDetail(
+                (UUID) row[0],
+                (UUID) row[1],
+                (UUID) row[2],
+                (String) row[3],
+                (String) row[4],
+                (String) row[5],
+                (String) row[6],
+                row[7] != null ? (Long) row[7] : 0L,
+                (String) row[8],
+                (BigDecimal) row[9],
+                (Integer) row[10],
+                (Integer) row[11],
+                (String) row[12],
+                (String) row[13],
+                row[14] != null ? (Long) row[14] : 0L,
+                Boolean.TRUE.equals(row[15]),
+                row[16] != null ? (Long) row[16] : 0L,
+                Boolean.TRUE.equals(row[17]),
+                (String) row[18],
+                (String) row[19],
+                (String) row[20],
+                (Double) row[21],
+                (Double) row[22],
+                (OffsetDateTime) row[23],
+                (OffsetDateTime) row[24],
+                (OffsetDateTime) row[25],
+                readJson((String) row[26], PHOTOS),
+                readJson((String) row[27], CODES)
+        );
+    }
+
+    private <T> T readJson(String json, TypeReference<T> type) {
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to read aggregated listing detail", ex);
+        }
+    }
+}
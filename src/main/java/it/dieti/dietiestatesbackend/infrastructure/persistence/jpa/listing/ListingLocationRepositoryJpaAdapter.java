@@ -0,0 +1,55 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingLocationRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+@Transactional(readOnly = true)
+public class ListingLocationRepositoryJpaAdapter implements ListingLocationRepository {
+
+    private static final String CITY_SQL = """
+            SELECT UPPER(TRIM(l.city)) AS value, MIN(TRIM(l.city)) AS label, COUNT(*) AS cnt
+            FROM listings l
+            WHERE l.deleted_at IS NULL AND l.status_id = :statusId AND TRIM(l.city) <> ''
+            GROUP BY UPPER(TRIM(l.city))
+            """;
+
+    private static final String POSTAL_CODE_SQL = """
+            SELECT UPPER(TRIM(l.postal_code)) AS value, MIN(TRIM(l.postal_code)) AS label, COUNT(*) AS cnt
+            FROM listings l
+            WHERE l.deleted_at IS NULL AND l.status_id = :statusId
+              AND l.postal_code IS NOT NULL AND TRIM(l.postal_code) <> ''
+            GROUP BY UPPER(TRIM(l.postal_code))
+            """;
+
+    private final EntityManager entityManager;
+
+    public ListingLocationRepositoryJpaAdapter(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    @Override
+    public List<LocationCount> countCitiesByStatus(UUID statusId) {
+        return countBy(CITY_SQL, statusId);
+    }
+
+    @Override
+    public List<LocationCount> countPostalCodesByStatus(UUID statusId) {
+        return countBy(POSTAL_CODE_SQL, statusId);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LocationCount> countBy(String sql, UUID statusId) {
+        List<Object[]> rows = entityManager.createNativeQuery(sql)
+                .setParameter("statusId", statusId)
+                .getResultList();
+        return rows.stream()
+                .map(row -> new LocationCount((String) row[0], (String) row[1], ((Number) row[2]).longValue()))
+                .toList();
+    }
+}
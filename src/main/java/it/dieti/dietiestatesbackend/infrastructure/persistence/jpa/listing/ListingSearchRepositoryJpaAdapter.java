@@ -1,27 +1,145 @@
 package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
 
-import it.dieti.dietiestatesbackend.domain.listing.Listing;
+import it.dieti.dietiestatesbackend.application.listing.ListingChangedEvent;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchProperties;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
 import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.CountMode;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.MapCluster;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.PriceBucket;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.TotalAccuracy;
 import jakarta.persistence.EntityManager;
 import jakarta.persistence.Query;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
 
 @Repository
 public class ListingSearchRepositoryJpaAdapter implements ListingSearchRepository {
 
+    private static final Logger log = LoggerFactory.getLogger(ListingSearchRepositoryJpaAdapter.class);
+    private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+    /**
+     * Length of the card description; part of the API contract, see {@code Listing.description}
+     * in {@code docs/openapi.yaml}.
+     */
+    private static final int DESCRIPTION_EXCERPT_LENGTH = 280;
+    private static final int MAX_STATEMENT_SHAPES = 512;
+    private static final int ROOMS_OPEN_BUCKET = 5;
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final String TEXT_QUERY = "websearch_to_tsquery('italian', :textQuery)";
+    private static final String REFERENCE_POINT = "ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography";
+    /**
+     * KNN distance operator on the geography column: as the leading ORDER BY key it lets the GIST
+     * index {@code idx_listings_geo} return rows nearest first instead of sorting every match.
+     */
+    private static final String DISTANCE = "(l.geo <-> " + REFERENCE_POINT + ")";
+    /**
+     * Map viewport as a planar longitude/latitude box, the way the map draws it: a geography box
+     * has great-circle edges, which on wide viewports bend poleward and drop listings just inside
+     * the equator-side edge. Answered by the expression index {@code idx_listings_geo_geometry}.
+     */
+    static final String VIEWPORT_CONDITION = "l.geo::geometry && ST_MakeEnvelope(:minLng, :minLat, :maxLng, :maxLat, 4326)";
+    /**
+     * Total views from the counters table, read by primary key for each candidate row.
+     */
+    private static final String VIEWS = "COALESCE((SELECT t.views FROM listing_counter_totals t WHERE t.listing_id = l.id), 0)";
+    private static final String FACET_TOTAL = "TOTAL";
+    private static final String FACET_TYPE = "TYPE";
+    private static final String FACET_ENERGY_CLASS = "ENERGY_CLASS";
+    private static final String FACET_ROOMS = "ROOMS";
+    private static final String FACET_FEATURE = "FEATURE";
+    private static final String FACET_PRICE = "PRICE";
+    /**
+     * Card columns only: no contract text, a description excerpt and the coordinates instead of
+     * the geography value. Photos are summarised by the denormalised count and cover URL. Rows are
+     * read as scalars and never enter the persistence context. The distance column is NULL unless
+     * the search has a reference point, see {@link #DISTANCE_CARD_COLUMNS}.
+     */
+    static final String CARD_COLUMNS = cardColumns("CAST(NULL AS double precision)");
+    private static final String DISTANCE_CARD_COLUMNS = cardColumns(DISTANCE);
+
+    private static String cardColumns(String distance) {
+        return "SELECT l.id, l.agency_id, l.owner_agent_id, l.listing_type_id, l.status_id,"
+            + " l.title, LEFT(l.description, " + DESCRIPTION_EXCERPT_LENGTH + ") AS description_excerpt,"
+            + " l.price_cents, l.currency, l.size_sqm, l.rooms, l.floor, l.energy_class,"
+            + " l.security_deposit_cents, l.furnished, l.condo_fee_cents, l.pets_allowed,"
+            + " l.address_line, l.city, l.postal_code,"
+            + " ST_Y(l.geo::geometry) AS latitude, ST_X(l.geo::geometry) AS longitude,"
+            + " l.photo_count, l.cover_media_url,"
+            + " l.published_at, l.created_at, l.updated_at,"
+            + " " + distance + " AS distance_meters";
+    }
+
     private final EntityManager entityManager;
+    private final TtlQueryCache<Long> countCache;
+    private final TtlQueryCache<FacetCounts> facetCache;
+    private final Map<StatementShape, SearchStatements> compiledStatements = new ConcurrentHashMap<>();
 
-    public ListingSearchRepositoryJpaAdapter(EntityManager entityManager) {
+    public ListingSearchRepositoryJpaAdapter(EntityManager entityManager, ListingSearchProperties properties) {
         this.entityManager = entityManager;
+        this.countCache = new TtlQueryCache<>(properties.getCountCacheTtl(), properties.getCountCacheMaxEntries());
+        this.facetCache = new TtlQueryCache<>(properties.getFacetCacheTtl(), properties.getFacetCacheMaxEntries());
+    }
+
+    /**
+     * Cached totals and facet counts may no longer match the listings once one changes.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        countCache.clear();
+        facetCache.clear();
     }
 
     @Override
+    @Transactional(readOnly = true)
     public SearchResult search(SearchFilters filters) {
+        var prepared = prepare(filters);
+        var params = prepared.params();
+        var statements = compiledStatements.get(prepared.shape());
+        if (statements == null) {
+            statements = SearchStatements.compile(prepared.shape());
+            if (compiledStatements.size() < MAX_STATEMENT_SHAPES) {
+                compiledStatements.putIfAbsent(prepared.shape(), statements);
+            }
+        }
+
+        var searchQuery = cardQuery(statements.searchSql());
+        params.forEach(searchQuery::setParameter);
+        prepared.pageParams().forEach(searchQuery::setParameter);
+        List<ListingCard> listings = searchQuery.getResultList();
+
+        var countMode = filters.countMode() != null ? filters.countMode() : CountMode.EXACT;
+        return switch (countMode) {
+            case NONE -> new SearchResult(listings, 0, TotalAccuracy.UNKNOWN);
+            case CAPPED -> countCapped(listings, statements, params, filters.countCap());
+            case ESTIMATED -> estimateCount(listings, statements, params);
+            case EXACT -> new SearchResult(listings, countExact(statements, params), TotalAccuracy.EXACT);
+        };
+    }
+
+    /**
+     * Translates the filters into a statement shape plus the values to bind: {@code params} are
+     * shared by the search and count statements, {@code pageParams} only apply to the search.
+     */
+    static PreparedSearch prepare(SearchFilters filters) {
         var params = new HashMap<String, Object>();
         var whereClauses = new ArrayList<String>();
 
@@ -30,6 +148,7 @@ public class ListingSearchRepositoryJpaAdapter implements ListingSearchRepositor
         buildListingTypeCondition(filters, params, whereClauses);
         buildStatusCondition(filters, params, whereClauses);
         buildCityCondition(filters, params, whereClauses);
+        buildTextCondition(filters, params, whereClauses);
         buildPriceCondition(filters, params, whereClauses);
         buildRoomsRangeCondition(filters, params, whereClauses);
         buildSizeCondition(filters, params, whereClauses);
@@ -38,47 +157,275 @@ public class ListingSearchRepositoryJpaAdapter implements ListingSearchRepositor
         buildPetsAllowedCondition(filters, params, whereClauses);
         buildPostalCodesCondition(filters, params, whereClauses);
         buildRadiusCondition(filters, params, whereClauses);
+        buildPolygonCondition(filters, params, whereClauses);
         buildHasPhotosCondition(filters, whereClauses);
         buildAgencyCondition(filters, params, whereClauses);
         buildOwnerAgentCondition(filters, params, whereClauses);
-        String featureCondition = buildFeatureCondition(filters, params);
+        buildFeatureCondition(filters, params, whereClauses);
 
-        var whereClause = whereClauses.isEmpty()
-                ? ""
-                : " WHERE " + String.join(" AND ", whereClauses);
+        var pageParams = new HashMap<String, Object>();
+        var keysetKind = bindKeyset(filters, pageParams);
+        pageParams.put("limit", filters.size());
+        pageParams.put("offset", filters.after() != null ? 0 : filters.page() * filters.size());
 
-        String baseSql = " FROM listings l";
-        if (!featureCondition.isEmpty()) {
-            whereClause = whereClause.isEmpty()
-                    ? " WHERE " + featureCondition
-                    : whereClause + " AND " + featureCondition;
-        }
+        var shape = new StatementShape(List.copyOf(whereClauses), sortColumn(filters), filters.sortAscending(), keysetKind,
+                params.containsKey("latitude"));
+        return new PreparedSearch(shape, params, pageParams);
+    }
+
+    @SuppressWarnings("unchecked")
+    private NativeQuery<ListingCard> cardQuery(String sql) {
+        return addCardScalars(entityManager.createNativeQuery(sql).unwrap(NativeQuery.class))
+                .setTupleTransformer((tuple, aliases) -> toCard(tuple));
+    }
+
+    /**
+     * Declares the types of the {@link #CARD_COLUMNS} in select order, so that {@link #toCard(Object[])}
+     * can read the first columns of each tuple.
+     */
+    static NativeQuery<?> addCardScalars(NativeQuery<?> query) {
+        return query
+                .addScalar("id", StandardBasicTypes.UUID)
+                .addScalar("agency_id", StandardBasicTypes.UUID)
+                .addScalar("owner_agent_id", StandardBasicTypes.UUID)
+                .addScalar("listing_type_id", StandardBasicTypes.UUID)
+                .addScalar("status_id", StandardBasicTypes.UUID)
+                .addScalar("title", StandardBasicTypes.STRING)
+                .addScalar("description_excerpt", StandardBasicTypes.STRING)
+                .addScalar("price_cents", StandardBasicTypes.LONG)
+                .addScalar("currency", StandardBasicTypes.STRING)
+                .addScalar("size_sqm", StandardBasicTypes.BIG_DECIMAL)
+                .addScalar("rooms", StandardBasicTypes.INTEGER)
+                .addScalar("floor", StandardBasicTypes.INTEGER)
+                .addScalar("energy_class", StandardBasicTypes.STRING)
+                .addScalar("security_deposit_cents", StandardBasicTypes.LONG)
+                .addScalar("furnished", StandardBasicTypes.BOOLEAN)
+                .addScalar("condo_fee_cents", StandardBasicTypes.LONG)
+                .addScalar("pets_allowed", StandardBasicTypes.BOOLEAN)
+                .addScalar("address_line", StandardBasicTypes.STRING)
+                .addScalar("city", StandardBasicTypes.STRING)
+                .addScalar("postal_code", StandardBasicTypes.STRING)
+                .addScalar("latitude", StandardBasicTypes.DOUBLE)
+                .addScalar("longitude", StandardBasicTypes.DOUBLE)
+                .addScalar("photo_count", StandardBasicTypes.INTEGER)
+                .addScalar("cover_media_url", StandardBasicTypes.STRING)
+                .addScalar("published_at", StandardBasicTypes.OFFSET_DATE_TIME)
+                .addScalar("created_at", StandardBasicTypes.OFFSET_DATE_TIME)
+                .addScalar("updated_at", StandardBasicTypes.OFFSET_DATE_TIME)
+                .addScalar("distance_meters", StandardBasicTypes.DOUBLE);
+    }
 
-        String orderClause = buildOrderClause(filters);
-        String searchSql = "SELECT l.*" + baseSql + whereClause + orderClause + " LIMIT :limit OFFSET :offset";
-        String countSql = "SELECT COUNT(*)" + baseSql + whereClause;
+    static ListingCard toCard(Object[] row) {
+        return new ListingCard(
+                (UUID) row[0],
+                (UUID) row[1],
+                (UUID) row[2],
+                (UUID) row[3],
+                (UUID) row[4],
+                (String) row[5],
+                (String) row[6],
+                row[7] != null ? (Long) row[7] : 0L,
+                (String) row[8],
+                (BigDecimal) row[9],
+                (Integer) row[10],
+                (Integer) row[11],
+                (String) row[12],
+                row[13] != null ? (Long) row[13] : 0L,
+                Boolean.TRUE.equals(row[14]),
+                row[15] != null ? (Long) row[15] : 0L,
+                Boolean.TRUE.equals(row[16]),
+                (String) row[17],
+                (String) row[18],
+                (String) row[19],
+                row[20] != null ? (Double) row[20] : 0.0,
+                row[21] != null ? (Double) row[21] : 0.0,
+                row[22] != null ? (Integer) row[22] : 0,
+                (String) row[23],
+                (OffsetDateTime) row[24],
+                (OffsetDateTime) row[25],
+                (OffsetDateTime) row[26],
+                (Double) row[27]
+        );
+    }
 
-        params.put("limit", filters.size());
-        params.put("offset", filters.page() * filters.size());
+    private long countExact(SearchStatements statements, Map<String, Object> params) {
+        String countSql = statements.countSql();
+        return countCache.getOrLoad(countSql, params, () -> {
+            Query countQuery = entityManager.createNativeQuery(countSql);
+            params.forEach(countQuery::setParameter);
+            return ((Number) countQuery.getSingleResult()).longValue();
+        });
+    }
 
-        Query searchQuery = entityManager.createNativeQuery(searchSql, ListingEntity.class);
-        Query countQuery = entityManager.createNativeQuery(countSql);
+    /**
+     * Counts at most {@code cap + 1} matching rows, so the cost is bounded regardless of how many
+     * listings match. A result above the cap is reported as "cap+".
+     */
+    private SearchResult countCapped(List<ListingCard> listings, SearchStatements statements, Map<String, Object> params, int cap) {
+        Query countQuery = entityManager.createNativeQuery(statements.cappedCountSql());
+        params.forEach(countQuery::setParameter);
+        countQuery.setParameter("countLimit", cap + 1);
+        long counted = ((Number) countQuery.getSingleResult()).longValue();
+        return counted > cap
+                ? new SearchResult(listings, cap, TotalAccuracy.AT_LEAST)
+                : new SearchResult(listings, counted, TotalAccuracy.EXACT);
+    }
 
-        params.forEach((key, value) -> {
-            searchQuery.setParameter(key, value);
-            if (!"limit".equals(key) && !"offset".equals(key)) {
-                countQuery.setParameter(key, value);
+    /**
+     * Reads the row estimate of the top plan node from {@code EXPLAIN}; the query is planned but not executed.
+     */
+    private SearchResult estimateCount(List<ListingCard> listings, SearchStatements statements, Map<String, Object> params) {
+        Query explainQuery = entityManager.createNativeQuery(statements.explainSql());
+        params.forEach(explainQuery::setParameter);
+        List<?> planLines = explainQuery.getResultList();
+        if (!planLines.isEmpty()) {
+            var matcher = PLAN_ROWS.matcher(String.valueOf(planLines.getFirst()));
+            if (matcher.find()) {
+                return new SearchResult(listings, Long.parseLong(matcher.group(1)), TotalAccuracy.ESTIMATED);
             }
+        }
+        log.warn("Stima del planner non disponibile per la ricerca annunci");
+        return new SearchResult(listings, 0, TotalAccuracy.UNKNOWN);
+    }
+
+    /**
+     * The viewport is a planar envelope overlap, see {@link #VIEWPORT_CONDITION}.
+     * A capped count decides between returning cards and grouping rows by grid cell in SQL.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public MapResult searchMap(SearchFilters filters, BoundingBox bounds, double cellSizeDegrees, int listingThreshold) {
+        var prepared = prepare(filters);
+        var params = new HashMap<>(prepared.params());
+        var predicates = new ArrayList<>(prepared.shape().predicates());
+        predicates.add(VIEWPORT_CONDITION);
+        params.put("minLat", bounds.minLatitude());
+        params.put("minLng", bounds.minLongitude());
+        params.put("maxLat", bounds.maxLatitude());
+        params.put("maxLng", bounds.maxLongitude());
+        String fromWhere = " FROM listings l WHERE " + String.join(" AND ", predicates);
+
+        Query countQuery = entityManager.createNativeQuery("SELECT COUNT(*) FROM (SELECT 1" + fromWhere + " LIMIT :countLimit) capped");
+        params.forEach(countQuery::setParameter);
+        countQuery.setParameter("countLimit", listingThreshold + 1);
+        long counted = ((Number) countQuery.getSingleResult()).longValue();
+
+        if (counted <= listingThreshold) {
+            var shape = prepared.shape();
+            var listingQuery = cardQuery(shape.cardColumns() + fromWhere + orderClause(shape.sortColumn(), shape.ascending()) + " LIMIT :limit");
+            params.forEach(listingQuery::setParameter);
+            listingQuery.setParameter("limit", listingThreshold);
+            return new MapResult(false, counted, List.of(), listingQuery.getResultList());
+        }
+
+        var clusters = clusterQuery("SELECT COUNT(*) AS listing_count,"
+                + " AVG(ST_Y(l.geo::geometry)) AS latitude, AVG(ST_X(l.geo::geometry)) AS longitude,"
+                + " MIN(l.price_cents) AS min_price_cents, MAX(l.price_cents) AS max_price_cents"
+                + fromWhere
+                + " GROUP BY FLOOR(ST_X(l.geo::geometry) / :cellSize), FLOOR(ST_Y(l.geo::geometry) / :cellSize)");
+        params.forEach(clusters::setParameter);
+        clusters.setParameter("cellSize", cellSizeDegrees);
+        List<MapCluster> result = clusters.getResultList();
+        long total = result.stream().mapToLong(MapCluster::count).sum();
+        return new MapResult(true, total, result, List.of());
+    }
+
+    /**
+     * All facets come from one statement: the filtered rows are materialized once and every facet
+     * is a GROUP BY over that set, joined with UNION ALL.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public FacetCounts facets(SearchFilters filters, long priceBucketCents) {
+        var prepared = prepare(filters);
+        var params = new HashMap<>(prepared.params());
+        params.put("priceBucket", priceBucketCents);
+        String facetSql = "WITH filtered AS MATERIALIZED ("
+                + "SELECT l.listing_type_id, UPPER(l.energy_class) AS energy_class, l.rooms, l.price_cents, l.feature_ids"
+                + " FROM listings l WHERE " + String.join(" AND ", prepared.shape().predicates()) + ")"
+                + " SELECT '" + FACET_TOTAL + "' AS facet, NULL AS bucket, COUNT(*) AS listing_count FROM filtered"
+                + " UNION ALL SELECT '" + FACET_TYPE + "', listing_type_id::text, COUNT(*) FROM filtered GROUP BY listing_type_id"
+                + " UNION ALL SELECT '" + FACET_ENERGY_CLASS + "', energy_class, COUNT(*) FROM filtered"
+                + " WHERE energy_class IS NOT NULL GROUP BY energy_class"
+                + " UNION ALL SELECT '" + FACET_ROOMS + "', CASE WHEN rooms >= " + ROOMS_OPEN_BUCKET
+                + " THEN '" + ROOMS_OPEN_BUCKET + "+' ELSE rooms::text END, COUNT(*) FROM filtered"
+                + " WHERE rooms IS NOT NULL GROUP BY 2"
+                + " UNION ALL SELECT '" + FACET_FEATURE + "', feature_id::text, COUNT(*)"
+                + " FROM filtered CROSS JOIN LATERAL unnest(feature_ids) AS feature_id GROUP BY feature_id"
+                + " UNION ALL SELECT '" + FACET_PRICE + "', (price_cents / :priceBucket)::text, COUNT(*) FROM filtered GROUP BY 2";
+
+        return facetCache.getOrLoad(facetSql, params, () -> {
+            Query facetQuery = entityManager.createNativeQuery(facetSql);
+            params.forEach(facetQuery::setParameter);
+            List<?> rows = facetQuery.getResultList();
+            return toFacetCounts(rows, priceBucketCents);
         });
+    }
 
-        @SuppressWarnings("unchecked")
-        List<ListingEntity> entities = searchQuery.getResultList();
-        List<Listing> listings = entities.stream()
-                .map(ListingEntityMapper::toDomain)
-                .toList();
-        long total = ((Number) countQuery.getSingleResult()).longValue();
+    /**
+     * Same predicates and order as the search statement, without LIMIT/OFFSET and without a count.
+     * With a fetch size inside a transaction the PostgreSQL driver reads the forward-only result
+     * set through a server-side cursor, {@value #STREAM_FETCH_SIZE} rows at a time.
+     */
+    @Override
+    public void stream(SearchFilters filters, Consumer<ListingCard> consumer) {
+        var prepared = prepare(filters);
+        var shape = prepared.shape();
+        var query = cardQuery(shape.cardColumns() + " FROM listings l WHERE " + String.join(" AND ", shape.predicates())
+                + orderClause(shape.sortColumn(), shape.ascending()));
+        prepared.params().forEach(query::setParameter);
+        query.setFetchSize(STREAM_FETCH_SIZE);
+        query.setReadOnly(true);
+        try (var rows = query.getResultStream()) {
+            rows.forEach(consumer);
+        }
+    }
+
+    private static FacetCounts toFacetCounts(List<?> rows, long priceBucketCents) {
+        long total = 0;
+        var listingTypes = new LinkedHashMap<UUID, Long>();
+        var energyClasses = new TreeMap<String, Long>();
+        var rooms = new TreeMap<String, Long>();
+        var features = new LinkedHashMap<UUID, Long>();
+        var priceHistogram = new ArrayList<PriceBucket>();
+        for (Object row : rows) {
+            var columns = (Object[]) row;
+            String facet = (String) columns[0];
+            String bucket = (String) columns[1];
+            long count = ((Number) columns[2]).longValue();
+            switch (facet) {
+                case FACET_TOTAL -> total = count;
+                case FACET_TYPE -> listingTypes.put(UUID.fromString(bucket), count);
+                case FACET_ENERGY_CLASS -> energyClasses.put(bucket, count);
+                case FACET_ROOMS -> rooms.put(bucket, count);
+                case FACET_FEATURE -> features.put(UUID.fromString(bucket), count);
+                case FACET_PRICE -> {
+                    long index = Long.parseLong(bucket);
+                    priceHistogram.add(new PriceBucket(index * priceBucketCents, (index + 1) * priceBucketCents, count));
+                }
+                default -> log.warn("Facet sconosciuta nel risultato: {}", facet);
+            }
+        }
+        priceHistogram.sort(java.util.Comparator.comparingLong(PriceBucket::minPriceCents));
+        return new FacetCounts(total, listingTypes, energyClasses, rooms, features, List.copyOf(priceHistogram));
+    }
 
-        return new SearchResult(listings, total);
+    @SuppressWarnings("unchecked")
+    private NativeQuery<MapCluster> clusterQuery(String sql) {
+        return entityManager.createNativeQuery(sql)
+                .unwrap(NativeQuery.class)
+                .addScalar("listing_count", StandardBasicTypes.LONG)
+                .addScalar("latitude", StandardBasicTypes.DOUBLE)
+                .addScalar("longitude", StandardBasicTypes.DOUBLE)
+                .addScalar("min_price_cents", StandardBasicTypes.LONG)
+                .addScalar("max_price_cents", StandardBasicTypes.LONG)
+                .setTupleTransformer((row, aliases) -> new MapCluster(
+                        (Double) row[1],
+                        (Double) row[2],
+                        (Long) row[0],
+                        (Long) row[3],
+                        (Long) row[4]
+                ));
     }
 
     private static void buildListingTypeCondition(
@@ -114,6 +461,21 @@ public class ListingSearchRepositoryJpaAdapter implements ListingSearchRepositor
         }
     }
 
+    /**
+     * Keyword match on the generated Italian tsvector (GIN index); websearch syntax accepts
+     * free user input such as {@code vista mare} or {@code "vista mare" -box}.
+     */
+    private static void buildTextCondition(
+            SearchFilters filters,
+            Map<String, Object> params,
+            List<String> whereClauses
+    ) {
+        if (filters.textQuery() != null && !filters.textQuery().isBlank()) {
+            whereClauses.add("l.search_vector @@ " + TEXT_QUERY);
+            params.put("textQuery", filters.textQuery());
+        }
+    }
+
     private static void buildPriceCondition(
             SearchFilters filters,
             Map<String, Object> params,
@@ -167,13 +529,8 @@ public class ListingSearchRepositoryJpaAdapter implements ListingSearchRepositor
         if (filters.normalizedEnergyClasses() == null || filters.normalizedEnergyClasses().isEmpty()) {
             return;
         }
-        List<String> placeholders = new ArrayList<>();
-        for (int i = 0; i < filters.normalizedEnergyClasses().size(); i++) {
-            String key = "energyClass" + i;
-            placeholders.add(":" + key);
-            params.put(key, filters.normalizedEnergyClasses().get(i));
-        }
-        whereClauses.add("UPPER(l.energy_class) IN (" + String.join(",", placeholders) + ")");
+        whereClauses.add("UPPER(l.energy_class) = ANY(:energyClasses)");
+        params.put("energyClasses", filters.normalizedEnergyClasses().toArray(String[]::new));
     }
 
     private static void buildFurnishedCondition(
@@ -206,13 +563,8 @@ public class ListingSearchRepositoryJpaAdapter implements ListingSearchRepositor
         if (filters.normalizedPostalCodes() == null || filters.normalizedPostalCodes().isEmpty()) {
             return;
         }
-        List<String> placeholders = new ArrayList<>();
-        for (int i = 0; i < filters.normalizedPostalCodes().size(); i++) {
-            String key = "postalCode" + i;
-            placeholders.add(":" + key);
-            params.put(key, filters.normalizedPostalCodes().get(i));
-        }
-        whereClauses.add("UPPER(l.postal_code) IN (" + String.join(",", placeholders) + ")");
+        whereClauses.add("UPPER(l.postal_code) = ANY(:postalCodes)");
+        params.put("postalCodes", filters.normalizedPostalCodes().toArray(String[]::new));
     }
 
     private static void buildRadiusCondition(
@@ -221,13 +573,35 @@ public class ListingSearchRepositoryJpaAdapter implements ListingSearchRepositor
             List<String> whereClauses
     ) {
         if (filters.latitude() != null && filters.longitude() != null && filters.radiusMeters() != null) {
-            whereClauses.add("ST_DWithin(l.geo, ST_SetSRID(ST_MakePoint(:longitude, :latitude), 4326)::geography, :radius)");
+            whereClauses.add("ST_DWithin(l.geo, " + REFERENCE_POINT + ", :radius)");
             params.put("latitude", filters.latitude());
             params.put("longitude", filters.longitude());
             params.put("radius", filters.radiusMeters());
         }
     }
 
+    /**
+     * The envelope overlap is answered by the GIST index and discards most rows before the exact
+     * test, whose cost grows with the number of vertices. Points on the boundary are included.
+     */
+    private static void buildPolygonCondition(
+            SearchFilters filters,
+            Map<String, Object> params,
+            List<String> whereClauses
+    ) {
+        var polygon = filters.polygon();
+        if (polygon == null) {
+            return;
+        }
+        whereClauses.add("l.geo && ST_MakeEnvelope(:polygonMinLng, :polygonMinLat, :polygonMaxLng, :polygonMaxLat, 4326)::geography");
+        whereClauses.add("ST_Covers(ST_GeogFromText(:polygon), l.geo)");
+        params.put("polygonMinLat", polygon.envelope().minLatitude());
+        params.put("polygonMinLng", polygon.envelope().minLongitude());
+        params.put("polygonMaxLat", polygon.envelope().maxLatitude());
+        params.put("polygonMaxLng", polygon.envelope().maxLongitude());
+        params.put("polygon", polygon.wkt());
+    }
+
     private static void buildHasPhotosCondition(
             SearchFilters filters,
             List<String> whereClauses
@@ -236,9 +610,9 @@ public class ListingSearchRepositoryJpaAdapter implements ListingSearchRepositor
             return;
         }
         if (Boolean.TRUE.equals(filters.hasPhotos())) {
-            whereClauses.add("EXISTS (SELECT 1 FROM listing_media lm WHERE lm.listing_id = l.id)");
+            whereClauses.add("l.photo_count > 0");
         } else {
-            whereClauses.add("NOT EXISTS (SELECT 1 FROM listing_media lm WHERE lm.listing_id = l.id)");
+            whereClauses.add("l.photo_count = 0");
         }
     }
 
@@ -264,36 +638,105 @@ public class ListingSearchRepositoryJpaAdapter implements ListingSearchRepositor
         }
     }
 
-    private static String buildFeatureCondition(
+    private static void buildFeatureCondition(
             SearchFilters filters,
-            Map<String, Object> params
+            Map<String, Object> params,
+            List<String> whereClauses
     ) {
         if (filters.featureIds() == null || filters.featureIds().isEmpty()) {
-            return "";
+            return;
         }
+        whereClauses.add("l.feature_ids @> :featureIds");
+        params.put("featureIds", filters.featureIds().toArray(UUID[]::new));
+    }
 
-        List<String> placeholders = new ArrayList<>();
-        for (int i = 0; i < filters.featureIds().size(); i++) {
-            String key = "featureId" + i;
-            placeholders.add(":" + key);
-            params.put(key, filters.featureIds().get(i));
+    private static KeysetKind bindKeyset(
+            SearchFilters filters,
+            Map<String, Object> params
+    ) {
+        var after = filters.after();
+        if (after == null) {
+            return KeysetKind.NONE;
+        }
+        params.put("afterCreatedAt", after.createdAt());
+        params.put("afterId", after.id());
+        if (after.sortValue() == null) {
+            return KeysetKind.NULL_SORT_VALUE;
         }
-        params.put("featureCount", filters.featureIds().size());
+        params.put("afterSortValue", after.sortValue());
+        return KeysetKind.SORT_VALUE;
+    }
 
-        return "l.id IN (SELECT lf.listing_id FROM listing_features lf WHERE lf.feature_id IN ("
-                + String.join(",", placeholders)
-                + ") GROUP BY lf.listing_id HAVING COUNT(DISTINCT lf.feature_id) = :featureCount)";
+    /**
+     * Keyset predicate positioned after the last row of the previous page. It mirrors
+     * {@link #orderClause(String, boolean)}: PostgreSQL puts NULL {@code published_at}
+     * values last in ascending order and first in descending order.
+     */
+    private static String keysetCondition(String column, boolean ascending, KeysetKind kind) {
+        String operator = ascending ? ">" : "<";
+        return switch (kind) {
+            case NONE -> "";
+            case NULL_SORT_VALUE -> {
+                String tieBreak = "(l.created_at, l.id) " + operator + " (:afterCreatedAt, :afterId)";
+                yield ascending
+                        ? "(" + column + " IS NULL AND " + tieBreak + ")"
+                        : "(" + column + " IS NOT NULL OR " + tieBreak + ")";
+            }
+            case SORT_VALUE -> {
+                String condition = "(" + column + ", l.created_at, l.id) " + operator + " (:afterSortValue, :afterCreatedAt, :afterId)";
+                yield ascending ? "(" + condition + " OR " + column + " IS NULL)" : condition;
+            }
+        };
     }
 
-    private static String buildOrderClause(SearchFilters filters) {
-        String column = switch (filters.sortColumn()) {
+    private static String sortColumn(SearchFilters filters) {
+        return switch (filters.sortColumn()) {
             case "price_cents" -> "l.price_cents";
             case "created_at" -> "l.created_at";
             case "published_at" -> "l.published_at";
+            case "relevance" -> "ts_rank(l.search_vector, " + TEXT_QUERY + ")";
+            case "distance" -> DISTANCE;
+            case "views" -> VIEWS;
             default -> "l.published_at";
         };
-        String direction = filters.sortAscending() ? "ASC" : "DESC";
-        String secondary = filters.sortAscending() ? ", l.created_at ASC" : ", l.created_at DESC";
+    }
+
+    private static String orderClause(String column, boolean ascending) {
+        String direction = ascending ? "ASC" : "DESC";
+        String secondary = ascending ? ", l.created_at ASC, l.id ASC" : ", l.created_at DESC, l.id DESC";
         return " ORDER BY " + column + " " + direction + secondary;
     }
+
+    enum KeysetKind { NONE, SORT_VALUE, NULL_SORT_VALUE }
+
+    /**
+     * Everything that determines the SQL text of a search. Predicates are constant strings bound
+     * with scalar or array parameters, so the number of distinct shapes does not depend on the
+     * filter values or on how many values a list filter carries. {@code withDistance} is set when
+     * the search has a reference point, whose distance is then selected for every card.
+     */
+    record StatementShape(List<String> predicates, String sortColumn, boolean ascending, KeysetKind keyset,
+                          boolean withDistance) {
+
+        String cardColumns() {
+            return withDistance ? DISTANCE_CARD_COLUMNS : CARD_COLUMNS;
+        }
+    }
+
+    record PreparedSearch(StatementShape shape, Map<String, Object> params, Map<String, Object> pageParams) {}
+
+    record SearchStatements(String searchSql, String countSql, String cappedCountSql, String explainSql) {
+
+        static SearchStatements compile(StatementShape shape) {
+            String fromWhere = " FROM listings l WHERE " + String.join(" AND ", shape.predicates());
+            String keyset = keysetCondition(shape.sortColumn(), shape.ascending(), shape.keyset());
+            String searchWhere = keyset.isEmpty() ? fromWhere : fromWhere + " AND " + keyset;
+            return new SearchStatements(
+                    shape.cardColumns() + searchWhere + orderClause(shape.sortColumn(), shape.ascending()) + " LIMIT :limit OFFSET :offset",
+                    "SELECT COUNT(*)" + fromWhere,
+                    "SELECT COUNT(*) FROM (SELECT 1" + fromWhere + " LIMIT :countLimit) capped",
+                    "EXPLAIN SELECT 1" + fromWhere
+            );
+        }
+    }
 }
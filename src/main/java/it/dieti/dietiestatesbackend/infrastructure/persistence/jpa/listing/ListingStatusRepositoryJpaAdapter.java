@@ -2,6 +2,8 @@ package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
 
 import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatus;
 import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceDataRegistry;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Repository;
@@ -12,20 +14,25 @@ import java.util.UUID;
 @Repository
 public class ListingStatusRepositoryJpaAdapter implements ListingStatusRepository {
     private static final Logger log = LoggerFactory.getLogger(ListingStatusRepositoryJpaAdapter.class);
-    private final ListingStatusJpaRepository jpaRepository;
+    private final ReferenceTable<ListingStatus> listingStatuses;
 
-    public ListingStatusRepositoryJpaAdapter(ListingStatusJpaRepository jpaRepository) {
-        this.jpaRepository = jpaRepository;
+    public ListingStatusRepositoryJpaAdapter(ListingStatusJpaRepository jpaRepository, ReferenceDataRegistry referenceDataRegistry) {
+        this.listingStatuses = referenceDataRegistry.register(
+                "listing_statuses",
+                () -> jpaRepository.findAll().stream().map(this::toDomain).toList(),
+                ListingStatus::id,
+                ListingStatus::code
+        );
     }
 
     @Override
     public Optional<ListingStatus> findByCode(String code) {
-        return jpaRepository.findByCode(code).map(this::toDomain);
+        return listingStatuses.findByCode(code);
     }
 
     @Override
     public Optional<ListingStatus> findById(UUID id) {
-        return jpaRepository.findById(id).map(this::toDomain);
+        return listingStatuses.findById(id);
     }
 
     private ListingStatus toDomain(ListingStatusEntity entity) {
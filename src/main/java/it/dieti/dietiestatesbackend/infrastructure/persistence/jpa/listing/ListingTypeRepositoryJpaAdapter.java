@@ -2,6 +2,8 @@ package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
 
 import it.dieti.dietiestatesbackend.domain.listing.ListingType;
 import it.dieti.dietiestatesbackend.domain.listing.ListingTypeRepository;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceDataRegistry;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceTable;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -9,20 +11,25 @@ import java.util.UUID;
 
 @Repository
 public class ListingTypeRepositoryJpaAdapter implements ListingTypeRepository {
-    private final ListingTypeJpaRepository jpaRepository;
+    private final ReferenceTable<ListingType> listingTypes;
 
-    public ListingTypeRepositoryJpaAdapter(ListingTypeJpaRepository jpaRepository) {
-        this.jpaRepository = jpaRepository;
+    public ListingTypeRepositoryJpaAdapter(ListingTypeJpaRepository jpaRepository, ReferenceDataRegistry referenceDataRegistry) {
+        this.listingTypes = referenceDataRegistry.register(
+                "listing_types",
+                () -> jpaRepository.findAll().stream().map(this::toDomain).toList(),
+                ListingType::id,
+                ListingType::code
+        );
     }
 
     @Override
     public Optional<ListingType> findByCode(String code) {
-        return jpaRepository.findByCode(code).map(this::toDomain);
+        return listingTypes.findByCode(code);
     }
 
     @Override
     public Optional<ListingType> findById(UUID id) {
-        return jpaRepository.findById(id).map(this::toDomain);
+        return listingTypes.findById(id);
     }
 
     private ListingType toDomain(ListingTypeEntity entity) {
@@ -0,0 +1,121 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import jakarta.persistence.EntityManager;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Reads the search card and the feature ids of non-deleted listings in a given status, for
+ * in-memory search indexes and the saved search matcher. Rows are read as scalars and never enter the persistence context.
+ */
+@Component
+public class PublishedListingReader {
+
+    private static final int FETCH_SIZE = 1000;
+    private static final String COLUMNS = ListingSearchRepositoryJpaAdapter.CARD_COLUMNS
+            + ", array_to_string(l.feature_ids, ',') AS feature_ids"
+            + " FROM listings l WHERE l.deleted_at IS NULL AND l.status_id = :statusId";
+
+    private final EntityManager entityManager;
+
+    public PublishedListingReader(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    public record IndexedListing(ListingCard card, List<UUID> featureIds) {}
+
+    /**
+     * Streams every listing in {@code statusId} with a forward-only cursor.
+     */
+    @Transactional(readOnly = true)
+    public void forEach(UUID statusId, Consumer<IndexedListing> consumer) {
+        try (var rows = query(COLUMNS)
+                .setParameter("statusId", statusId)
+                .setFetchSize(FETCH_SIZE)
+                .getResultStream()) {
+            rows.forEach(consumer);
+        }
+    }
+
+    /**
+     * The listing if it exists, is not deleted and is in {@code statusId}.
+     */
+    @Transactional(readOnly = true)
+    public Optional<IndexedListing> find(UUID listingId, UUID statusId) {
+        return query(COLUMNS + " AND l.id = :id")
+                .setParameter("statusId", statusId)
+                .setParameter("id", listingId)
+                .getResultStream()
+                .findFirst();
+    }
+
+    /**
+     * Streams the listings in {@code statusId} first published in {@code (after, until]}.
+     */
+    @Transactional(readOnly = true)
+    public void forEachPublishedBetween(UUID statusId, OffsetDateTime after, OffsetDateTime until,
+                                        Consumer<IndexedListing> consumer) {
+        try (var rows = query(COLUMNS + " AND l.published_at > :after AND l.published_at <= :until")
+                .setParameter("statusId", statusId)
+                .setParameter("after", after)
+                .setParameter("until", until)
+                .setFetchSize(FETCH_SIZE)
+                .getResultStream()) {
+            rows.forEach(consumer);
+        }
+    }
+
+    /**
+     * The subset of {@code listingIds} whose title or description matches {@code textQuery},
+     * with the same Italian full-text semantics as the listing search.
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> matchingText(Collection<UUID> listingIds, String textQuery) {
+        if (listingIds.isEmpty()) {
+            return Set.of();
+        }
+        List<?> ids = entityManager.createNativeQuery("SELECT l.id FROM listings l WHERE l.id = ANY(:ids)"
+                        + " AND l.search_vector @@ websearch_to_tsquery('italian', :textQuery)")
+                .unwrap(NativeQuery.class)
+                .addScalar("id", StandardBasicTypes.UUID)
+                .setParameter("ids", listingIds.toArray(UUID[]::new))
+                .setParameter("textQuery", textQuery)
+                .getResultList();
+        var matching = new HashSet<UUID>();
+        ids.forEach(id -> matching.add((UUID) id));
+        return matching;
+    }
+
+    @SuppressWarnings("unchecked")
+    private NativeQuery<IndexedListing> query(String sql) {
+        return ListingSearchRepositoryJpaAdapter.addCardScalars(entityManager.createNativeQuery(sql).unwrap(NativeQuery.class))
+                .addScalar("feature_ids", StandardBasicTypes.STRING)
+                .setTupleTransformer((tuple, aliases) -> new IndexedListing(
+                        ListingSearchRepositoryJpaAdapter.toCard(tuple),
+                        parseIds((String) tuple[tuple.length - 1])));
+    }
+
+    private static List<UUID> parseIds(String joined) {
+        if (joined == null || joined.isEmpty()) {
+            return List.of();
+        }
+        var ids = new ArrayList<UUID>();
+        for (String id : joined.split(",")) {
+            ids.add(UUID.fromString(id));
+        }
+        return List.copyOf(ids);
+    }
+}
@@ -0,0 +1,43 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import jakarta.persistence.*;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "saved_search_alert_runs")
+public class SavedSearchAlertRunEntity {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(nullable = false)
+    private UUID id;
+
+    @Column(name = "published_after", nullable = false, unique = true)
+    private OffsetDateTime publishedAfter;
+
+    @Column(name = "published_until", nullable = false)
+    private OffsetDateTime publishedUntil;
+
+    @Column(name = "listings_scanned", nullable = false)
+    private int listingsScanned;
+
+    @Column(name = "digests_enqueued", nullable = false)
+    private int digestsEnqueued;
+
+    @Column(name = "created_at", nullable = false)
+    private OffsetDateTime createdAt;
+
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    public OffsetDateTime getPublishedAfter() { return publishedAfter; }
+    public void setPublishedAfter(OffsetDateTime publishedAfter) { this.publishedAfter = publishedAfter; }
+    public OffsetDateTime getPublishedUntil() { return publishedUntil; }
+    public void setPublishedUntil(OffsetDateTime publishedUntil) { this.publishedUntil = publishedUntil; }
+    public int getListingsScanned() { return listingsScanned; }
+    public void setListingsScanned(int listingsScanned) { this.listingsScanned = listingsScanned; }
+    public int getDigestsEnqueued() { return digestsEnqueued; }
+    public void setDigestsEnqueued(int digestsEnqueued) { this.digestsEnqueued = digestsEnqueued; }
+    public OffsetDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(OffsetDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,13 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.time.OffsetDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface SavedSearchAlertRunJpaRepository extends JpaRepository<SavedSearchAlertRunEntity, UUID> {
+    @Query("SELECT MAX(r.publishedUntil) FROM SavedSearchAlertRunEntity r")
+    Optional<OffsetDateTime> findMaxPublishedUntil();
+}
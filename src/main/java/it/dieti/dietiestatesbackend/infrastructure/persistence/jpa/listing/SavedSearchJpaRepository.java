@@ -0,0 +1,23 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+public interface SavedSearchJpaRepository extends JpaRepository<SavedSearchEntity, UUID> {
+    List<SavedSearchEntity> findByUserIdOrderByCreatedAtDesc(UUID userId);
+
+    long countByUserId(UUID userId);
+
+    @Modifying
+    @Query("DELETE FROM SavedSearchEntity s WHERE s.id = :id AND s.userId = :userId")
+    int deleteByIdAndUserId(@Param("id") UUID id, @Param("userId") UUID userId);
+
+    @Query("SELECT s FROM SavedSearchEntity s")
+    Stream<SavedSearchEntity> streamAll();
+}
@@ -0,0 +1,112 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchFilters;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearch;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearchRepository;
+import jakarta.persistence.EntityManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * Saved searches with their filters serialized as JSON. Rows streamed by {@link #forEach} are
+ * detached as they are read, so the persistence context does not grow with the table.
+ */
+@Component
+public class SavedSearchRepositoryJpaAdapter implements SavedSearchRepository {
+    private final SavedSearchJpaRepository repo;
+    private final SavedSearchAlertRunJpaRepository alertRuns;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public SavedSearchRepositoryJpaAdapter(SavedSearchJpaRepository repo,
+                                           SavedSearchAlertRunJpaRepository alertRuns,
+                                           EntityManager entityManager,
+                                           ObjectMapper objectMapper) {
+        this.repo = repo;
+        this.alertRuns = alertRuns;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+    }
+
+    private SavedSearchEntity toEntity(SavedSearch d) {
+        var e = new SavedSearchEntity();
+        e.setId(d.id());
+        e.setUserId(d.userId());
+        e.setName(d.name());
+        try {
+            e.setFilters(objectMapper.writeValueAsString(d.filters()));
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to serialize saved search filters", ex);
+        }
+        e.setCreatedAt(d.createdAt());
+        e.setUpdatedAt(d.updatedAt());
+        return e;
+    }
+
+    private SavedSearch toDomain(SavedSearchEntity e) {
+        SearchFilters filters;
+        try {
+            filters = objectMapper.readValue(e.getFilters(), SearchFilters.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unable to read filters of saved search " + e.getId(), ex);
+        }
+        return new SavedSearch(e.getId(), e.getUserId(), e.getName(), filters, e.getCreatedAt(), e.getUpdatedAt());
+    }
+
+    @Override
+    @Transactional
+    public SavedSearch insert(SavedSearch savedSearch) {
+        return toDomain(repo.save(toEntity(savedSearch)));
+    }
+
+    @Override
+    public List<SavedSearch> findByUserId(UUID userId) {
+        return repo.findByUserIdOrderByCreatedAtDesc(userId).stream().map(this::toDomain).toList();
+    }
+
+    @Override
+    public long countByUserId(UUID userId) {
+        return repo.countByUserId(userId);
+    }
+
+    @Override
+    @Transactional
+    public boolean deleteByIdAndUserId(UUID id, UUID userId) {
+        return repo.deleteByIdAndUserId(id, userId) > 0;
+    }
+
+    @Override
+    public void forEach(Consumer<SavedSearch> consumer) {
+        try (var rows = repo.streamAll()) {
+            rows.forEach(entity -> {
+                entityManager.detach(entity);
+                consumer.accept(toDomain(entity));
+            });
+        }
+    }
+
+    @Override
+    public Optional<OffsetDateTime> findLastAlertRunUntil() {
+        return alertRuns.findMaxPublishedUntil();
+    }
+
+    @Override
+    @Transactional
+    public void insertAlertRun(AlertRun run) {
+        var e = new SavedSearchAlertRunEntity();
+        e.setPublishedAfter(run.publishedAfter());
+        e.setPublishedUntil(run.publishedUntil());
+        e.setListingsScanned(run.listingsScanned());
+        e.setDigestsEnqueued(run.digestsEnqueued());
+        e.setCreatedAt(run.createdAt());
+        alertRuns.saveAndFlush(e);
+    }
+}
@@ -0,0 +1,58 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Short-lived cache of query results, keyed by the statement and its parameters, i.e. by the
+ * normalized filters. Disabled when the TTL is zero or negative. When the cache is full, expired
+ * entries are evicted first and, if none has expired, the whole cache is cleared.
+ */
+final class TtlQueryCache<V> {
+
+    private final Duration ttl;
+    private final int maxEntries;
+    private final Map<String, CachedValue<V>> entries = new ConcurrentHashMap<>();
+
+    TtlQueryCache(Duration ttl, int maxEntries) {
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    V getOrLoad(String sql, Map<String, Object> params, Supplier<V> loader) {
+        if (ttl == null || ttl.isZero() || ttl.isNegative()) {
+            return loader.get();
+        }
+        var key = sql + '|' + normalize(params);
+        long now = System.nanoTime();
+        var cached = entries.get(key);
+        if (cached != null && cached.expiresAt() - now > 0) {
+            return cached.value();
+        }
+        var value = loader.get();
+        if (entries.size() >= maxEntries) {
+            entries.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+            if (entries.size() >= maxEntries) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new CachedValue<>(value, now + ttl.toNanos()));
+        return value;
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    private static String normalize(Map<String, Object> params) {
+        var sorted = new TreeMap<String, Object>();
+        params.forEach((name, value) -> sorted.put(name, value instanceof Object[] array ? Arrays.asList(array) : value));
+        return sorted.toString();
+    }
+
+    private record CachedValue<V>(V value, long expiresAt) {}
+}
@@ -2,6 +2,8 @@ package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.media;
 
 import it.dieti.dietiestatesbackend.domain.media.MediaAssetCategory;
 import it.dieti.dietiestatesbackend.domain.media.MediaAssetCategoryRepository;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceDataRegistry;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceTable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
@@ -11,27 +13,32 @@ import java.util.UUID;
 
 @Repository
 public class MediaAssetCategoryRepositoryJpaAdapter implements MediaAssetCategoryRepository {
-    private final MediaAssetCategoryJpaRepository jpaRepository;
-
-    public MediaAssetCategoryRepositoryJpaAdapter(MediaAssetCategoryJpaRepository jpaRepository) {
-        this.jpaRepository = jpaRepository;
+    private final ReferenceTable<MediaAssetCategory> categories;
+
+    public MediaAssetCategoryRepositoryJpaAdapter(MediaAssetCategoryJpaRepository jpaRepository, ReferenceDataRegistry referenceDataRegistry) {
+        this.categories = referenceDataRegistry.register(
+                "media_asset_categories",
+                () -> jpaRepository.findAll(Sort.by("code").ascending()).stream()
+                        .map(this::toDomain)
+                        .toList(),
+                MediaAssetCategory::id,
+                MediaAssetCategory::code
+        );
     }
 
     @Override
     public List<MediaAssetCategory> findAll() {
-        return jpaRepository.findAll(Sort.by("code").ascending()).stream()
-                .map(this::toDomain)
-                .toList();
+        return categories.findAll();
     }
 
     @Override
     public Optional<MediaAssetCategory> findByCode(String code) {
-        return jpaRepository.findByCode(code).map(this::toDomain);
+        return categories.findByCode(code);
     }
 
     @Override
     public Optional<MediaAssetCategory> findById(UUID id) {
-        return jpaRepository.findById(id).map(this::toDomain);
+        return categories.findById(id);
     }
 
     private MediaAssetCategory toDomain(MediaAssetCategoryEntity entity) {
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 public interface ListingMediaJpaRepository extends JpaRepository<ListingMediaEntity, UUID> {
 
@@ -19,4 +20,20 @@ public interface ListingMediaJpaRepository extends JpaRepository<ListingMediaEnt
     @Modifying
     @Query("update ListingMediaEntity lm set lm.sortOrder = lm.sortOrder + :offset where lm.listing.id = :listingId")
     int bumpAllByListing(@Param("listingId") UUID listingId, @Param("offset") int offset);
+
+    @Transactional
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+            UPDATE listings SET
+                photo_count = (SELECT COUNT(*) FROM listing_media lm WHERE lm.listing_id = :listingId),
+                cover_media_url = (SELECT ma.public_url
+                                   FROM listing_media lm
+                                   JOIN media_assets ma ON ma.id = lm.media_id
+                                   WHERE lm.listing_id = :listingId
+                                   ORDER BY lm.sort_order ASC
+                                   LIMIT 1),
+                updated_at = clock_timestamp()
+            WHERE id = :listingId
+            """, nativeQuery = true)
+    int refreshPhotoSummary(@Param("listingId") UUID listingId);
 }
@@ -88,6 +88,11 @@ public class ListingMediaRepositoryJpaAdapter implements ListingMediaRepository
         repository.bumpAllByListing(listingId, offset);
     }
 
+    @Override
+    public void refreshListingPhotoSummary(UUID listingId) {
+        repository.refreshPhotoSummary(listingId);
+    }
+
 
     private ListingMedia toDomain(ListingMediaEntity entity) {
         return new ListingMedia(
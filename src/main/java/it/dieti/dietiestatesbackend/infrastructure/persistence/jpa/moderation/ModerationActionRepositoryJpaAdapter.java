@@ -6,6 +6,9 @@ import it.dieti.dietiestatesbackend.domain.moderation.ModerationActionType;
 import it.dieti.dietiestatesbackend.domain.user.role.RolesEnum;
 import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.ListingEntity;
 import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.user.UserEntity;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceDataRegistry;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceTable;
+import jakarta.persistence.EntityManager;
 import org.springframework.stereotype.Repository;
 import org.springframework.util.StringUtils;
 
@@ -18,12 +21,23 @@ import java.util.UUID;
 public class ModerationActionRepositoryJpaAdapter implements ModerationActionRepository {
 
     private final ModerationActionJpaRepository jpaRepository;
-    private final ModerationActionTypeJpaRepository actionTypeRepository;
+    private final EntityManager entityManager;
+    private final ReferenceTable<ActionTypeRef> actionTypes;
 
     public ModerationActionRepositoryJpaAdapter(ModerationActionJpaRepository jpaRepository,
-                                                ModerationActionTypeJpaRepository actionTypeRepository) {
+                                                ModerationActionTypeJpaRepository actionTypeRepository,
+                                                EntityManager entityManager,
+                                                ReferenceDataRegistry referenceDataRegistry) {
         this.jpaRepository = jpaRepository;
-        this.actionTypeRepository = actionTypeRepository;
+        this.entityManager = entityManager;
+        this.actionTypes = referenceDataRegistry.register(
+                "moderation_action_types",
+                () -> actionTypeRepository.findAll().stream()
+                        .map(entity -> new ActionTypeRef(entity.getId(), entity.getCode()))
+                        .toList(),
+                ActionTypeRef::id,
+                ActionTypeRef::code
+        );
     }
 
     @Override
@@ -45,9 +59,9 @@ public class ModerationActionRepositoryJpaAdapter implements ModerationActionRep
         if (actionType == null) {
             throw new IllegalArgumentException("Moderation action type is required");
         }
-        var actionTypeEntity = actionTypeRepository.findByCode(actionType.name())
+        var actionTypeRef = actionTypes.findByCode(actionType.name())
                 .orElseThrow(() -> new IllegalStateException("Moderation action type not found: " + actionType));
-        entity.setActionType(actionTypeEntity);
+        entity.setActionType(entityManager.getReference(ModerationActionTypeEntity.class, actionTypeRef.id()));
 
         entity.setReason(action.reason());
 
@@ -105,14 +119,23 @@ public class ModerationActionRepositoryJpaAdapter implements ModerationActionRep
         }
     }
 
+    /**
+     * The code is read from the reference table by id, so the lazy association is never initialized.
+     */
     private ModerationActionType toActionType(ModerationActionTypeEntity actionType) {
-        if (actionType == null || !StringUtils.hasText(actionType.getCode())) {
+        if (actionType == null) {
+            return null;
+        }
+        var code = actionTypes.findById(actionType.getId()).map(ActionTypeRef::code).orElse(null);
+        if (!StringUtils.hasText(code)) {
             return null;
         }
         try {
-            return ModerationActionType.valueOf(actionType.getCode());
+            return ModerationActionType.valueOf(code);
         } catch (IllegalArgumentException ex) {
-            throw new IllegalStateException("Unsupported moderation action type: " + actionType.getCode(), ex);
+            throw new IllegalStateException("Unsupported moderation action type: " + code, ex);
         }
     }
+
+    private record ActionTypeRef(UUID id, String code) {}
 }
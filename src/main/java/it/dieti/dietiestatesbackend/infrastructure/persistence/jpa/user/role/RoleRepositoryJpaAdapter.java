@@ -2,6 +2,8 @@ package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.user.role;
 
 import it.dieti.dietiestatesbackend.domain.user.role.Role;
 import it.dieti.dietiestatesbackend.domain.user.role.RoleRepository;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceDataRegistry;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.reference.ReferenceTable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Repository;
 
@@ -10,25 +12,30 @@ import java.util.Optional;
 
 @Repository
 public class RoleRepositoryJpaAdapter implements RoleRepository {
-    private final RoleJpaRepository jpaRepository;
-
-    public RoleRepositoryJpaAdapter(RoleJpaRepository jpaRepository) {
-        this.jpaRepository = jpaRepository;
+    private final ReferenceTable<Role> roles;
+
+    public RoleRepositoryJpaAdapter(RoleJpaRepository jpaRepository, ReferenceDataRegistry referenceDataRegistry) {
+        this.roles = referenceDataRegistry.register(
+                "roles",
+                () -> jpaRepository.findAll(Sort.by("code").ascending()).stream().map(this::toDomain).toList(),
+                Role::id,
+                Role::code
+        );
     }
 
     @Override
     public List<Role> findAll() {
-        return jpaRepository.findAll(Sort.by("code").ascending()).stream().map(this::toDomain).toList();
+        return roles.findAll();
     }
 
     @Override
     public Optional<Role> findByCode( String code) {
-        return jpaRepository.findByCode(code).map(this::toDomain);
+        return roles.findByCode(code);
     }
 
     @Override
     public Optional<Role> findById(java.util.UUID id) {
-        return jpaRepository.findById(id).map(this::toDomain);
+        return roles.findById(id);
     }
 
     private Role toDomain(RoleEntity roleEntity) {
@@ -0,0 +1,36 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.reference;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.reference-data")
+public class ReferenceDataProperties {
+    /**
+     * Load every registered lookup table when the application starts.
+     */
+    private boolean preload = true;
+
+    /**
+     * Interval between two scheduled reloads of the lookup tables.
+     */
+    private Duration refreshInterval = Duration.ofHours(1);
+
+    public boolean isPreload() {
+        return preload;
+    }
+
+    public void setPreload(boolean preload) {
+        this.preload = preload;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+}
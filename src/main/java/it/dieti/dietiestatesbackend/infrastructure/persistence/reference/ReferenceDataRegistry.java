@@ -0,0 +1,106 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.reference;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the almost-static lookup tables (listing types/statuses, features, roles,
+ * media categories, moderation action types). Each JPA adapter registers its table here and
+ * serves lookups from memory; the registry takes care of preloading, refreshing and metrics.
+ */
+@Component
+public class ReferenceDataRegistry implements ApplicationRunner, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ReferenceDataRegistry.class);
+
+    private final ReferenceDataProperties properties;
+    private final List<ReferenceTable<?>> tables = new CopyOnWriteArrayList<>();
+    private volatile MeterRegistry meterRegistry;
+
+    public ReferenceDataRegistry(ReferenceDataProperties properties) {
+        this.properties = properties;
+    }
+
+    public <T> ReferenceTable<T> register(String name,
+                                          Supplier<List<T>> loader,
+                                          Function<T, UUID> idExtractor,
+                                          Function<T, String> codeExtractor) {
+        var table = new ReferenceTable<>(name, loader, idExtractor, codeExtractor);
+        tables.add(table);
+        var registry = meterRegistry;
+        if (registry != null) {
+            bindTable(registry, table);
+        }
+        return table;
+    }
+
+    public List<ReferenceTable<?>> tables() {
+        return List.copyOf(tables);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isPreload()) {
+            log.info("Reference data preload disabled; tables will be loaded on first access");
+            return;
+        }
+        refresh();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.reference-data.refresh-interval:PT1H}",
+            initialDelayString = "${app.reference-data.refresh-interval:PT1H}"
+    )
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Reloads every registered table. A table that fails to load keeps serving its previous content.
+     */
+    public void refresh() {
+        for (ReferenceTable<?> table : tables) {
+            try {
+                table.reload();
+                log.debug("Reference table {} loaded with {} entries", table.name(), table.size());
+            } catch (RuntimeException ex) {
+                log.warn("Unable to load reference table {}; keeping previous content", table.name(), ex);
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.meterRegistry = registry;
+        tables.forEach(table -> bindTable(registry, table));
+    }
+
+    private static void bindTable(MeterRegistry registry, ReferenceTable<?> table) {
+        FunctionCounter.builder("reference_data.lookups", table, ReferenceTable::hits)
+                .tag("table", table.name())
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("reference_data.lookups", table, ReferenceTable::misses)
+                .tag("table", table.name())
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("reference_data.size", table, ReferenceTable::size)
+                .tag("table", table.name())
+                .register(registry);
+    }
+}
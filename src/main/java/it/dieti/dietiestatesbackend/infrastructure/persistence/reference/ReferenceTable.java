@@ -0,0 +1,113 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.reference;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Immutable in-memory copy of a small lookup table, indexed by id and by code.
+ * The content is swapped atomically on {@link #reload()}; lookups never hit the database
+ * once the table has been loaded.
+ */
+public final class ReferenceTable<T> {
+
+    private final String name;
+    private final Supplier<List<T>> loader;
+    private final Function<T, UUID> idExtractor;
+    private final Function<T, String> codeExtractor;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private volatile Snapshot<T> snapshot;
+
+    ReferenceTable(String name,
+                   Supplier<List<T>> loader,
+                   Function<T, UUID> idExtractor,
+                   Function<T, String> codeExtractor) {
+        this.name = name;
+        this.loader = loader;
+        this.idExtractor = idExtractor;
+        this.codeExtractor = codeExtractor;
+    }
+
+    public Optional<T> findById(UUID id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        return record(current().byId().get(id));
+    }
+
+    public Optional<T> findByCode(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        return record(current().byCode().get(code));
+    }
+
+    public List<T> findAll() {
+        return current().values();
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int size() {
+        var current = snapshot;
+        return current != null ? current.values().size() : 0;
+    }
+
+    public boolean isLoaded() {
+        return snapshot != null;
+    }
+
+    void reload() {
+        var values = List.copyOf(loader.get());
+        Map<UUID, T> byId = new HashMap<>();
+        Map<String, T> byCode = new HashMap<>();
+        for (T value : values) {
+            byId.put(idExtractor.apply(value), value);
+            var code = codeExtractor.apply(value);
+            if (code != null) {
+                byCode.put(code, value);
+            }
+        }
+        snapshot = new Snapshot<>(values, Map.copyOf(byId), Map.copyOf(byCode));
+    }
+
+    private Snapshot<T> current() {
+        var current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Optional<T> record(T value) {
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return Optional.ofNullable(value);
+    }
+
+    private record Snapshot<T>(List<T> values, Map<UUID, T> byId, Map<String, T> byCode) {}
+}
@@ -0,0 +1,189 @@
+package it.dieti.dietiestatesbackend.infrastructure.search;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import it.dieti.dietiestatesbackend.application.listing.ListingChangedEvent;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusesEnum;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.ListingSearchRepositoryJpaAdapter;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.PublishedListingReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.lang.NonNull;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * {@link ListingSearchRepository} that answers published-only searches from a
+ * {@link ListingColumnStore} and delegates everything else to the SQL adapter: searches on
+ * other statuses, keyword, radius and polygon filters (their semantics live in PostgreSQL),
+ * relevance and distance sort, pages deeper than the configured window, map, facet and export
+ * queries, and any search issued before the index is built.
+ * <p>
+ * The index is loaded at startup, rebuilt periodically and updated after commit by re-reading
+ * the changed listing whenever a {@link ListingChangedEvent} is published.
+ */
+@Repository
+@Primary
+@ConditionalOnProperty(value = "app.listings.search.columnar.enabled", havingValue = "true")
+public class ColumnarListingSearchRepository implements ListingSearchRepository, ApplicationRunner, MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(ColumnarListingSearchRepository.class);
+    private static final Set<String> INDEXED_SORT_COLUMNS = Set.of("price_cents", "created_at", "published_at");
+
+    private final ListingSearchRepositoryJpaAdapter sqlRepository;
+    private final PublishedListingReader publishedListingReader;
+    private final ListingStatusRepository listingStatusRepository;
+    private final ColumnarSearchProperties properties;
+    private final LongAdder indexedQueries = new LongAdder();
+    private final LongAdder fallbackQueries = new LongAdder();
+    private volatile ListingColumnStore store;
+    private volatile UUID publishedStatusId;
+
+    public ColumnarListingSearchRepository(ListingSearchRepositoryJpaAdapter sqlRepository,
+                                           PublishedListingReader publishedListingReader,
+                                           ListingStatusRepository listingStatusRepository,
+                                           ColumnarSearchProperties properties) {
+        this.sqlRepository = sqlRepository;
+        this.publishedListingReader = publishedListingReader;
+        this.listingStatusRepository = listingStatusRepository;
+        this.properties = properties;
+    }
+
+    @Override
+    public SearchResult search(SearchFilters filters) {
+        var current = store;
+        if (current == null || !isIndexable(filters)) {
+            fallbackQueries.increment();
+            return sqlRepository.search(filters);
+        }
+        indexedQueries.increment();
+        return current.search(filters);
+    }
+
+    @Override
+    public MapResult searchMap(SearchFilters filters, BoundingBox bounds, double cellSizeDegrees, int listingThreshold) {
+        return sqlRepository.searchMap(filters, bounds, cellSizeDegrees, listingThreshold);
+    }
+
+    @Override
+    public FacetCounts facets(SearchFilters filters, long priceBucketCents) {
+        return sqlRepository.facets(filters, priceBucketCents);
+    }
+
+    @Override
+    public void stream(SearchFilters filters, Consumer<ListingCard> consumer) {
+        sqlRepository.stream(filters, consumer);
+    }
+
+    boolean isIndexable(SearchFilters filters) {
+        int offset = filters.after() != null ? 0 : filters.page() * filters.size();
+        return publishedStatusId != null
+                && publishedStatusId.equals(filters.statusId())
+                && (filters.textQuery() == null || filters.textQuery().isBlank())
+                && filters.radiusMeters() == null
+                && filters.polygon() == null
+                && INDEXED_SORT_COLUMNS.contains(filters.sortColumn())
+                && (long) offset + filters.size() <= properties.getMaxWindow();
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        refresh();
+    }
+
+    @Scheduled(
+            fixedDelayString = "${app.listings.search.columnar.refresh-interval:PT30M}",
+            initialDelayString = "${app.listings.search.columnar.refresh-interval:PT30M}"
+    )
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Builds a new index and swaps it in; on failure the previous index (or SQL) keeps serving.
+     */
+    public void refresh() {
+        try {
+            var statusId = listingStatusRepository.findByCode(ListingStatusesEnum.PUBLISHED.getDescription())
+                    .orElseThrow(() -> new IllegalStateException("Listing status PUBLISHED not configured"))
+                    .id();
+            long started = System.nanoTime();
+            var rebuilt = new ListingColumnStore();
+            publishedListingReader.forEach(statusId, rebuilt::upsert);
+            publishedStatusId = statusId;
+            store = rebuilt;
+            int size = rebuilt.size();
+            log.info("Columnar search index built with {} listings in {} ms, ~{} bytes per listing",
+                    size, (System.nanoTime() - started) / 1_000_000, bytesPerListing(rebuilt));
+        } catch (RuntimeException ex) {
+            log.warn("Unable to build columnar search index; keeping previous state", ex);
+        }
+    }
+
+    /**
+     * Re-reads the changed listing: it is (re)indexed if still published, removed otherwise.
+     * Changes committed while a rebuild is reading may be missed until the next rebuild. Runs
+     * before the other listeners, so that pages cached after the search cache invalidation are
+     * read from the updated store.
+     */
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onListingChanged(ListingChangedEvent event) {
+        var current = store;
+        var statusId = publishedStatusId;
+        if (current == null || statusId == null) {
+            return;
+        }
+        try {
+            publishedListingReader.find(event.listingId(), statusId)
+                    .ifPresentOrElse(current::upsert, () -> current.remove(event.listingId()));
+        } catch (RuntimeException ex) {
+            log.warn("Unable to refresh listing {} in the columnar search index", event.listingId(), ex);
+        }
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("listing_search.columnar.listings", this, repository -> sizeOf(repository.store))
+                .register(registry);
+        Gauge.builder("listing_search.columnar.bytes", this,
+                        repository -> repository.store != null ? repository.store.estimatedBytes() : 0)
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("listing_search.columnar.bytes_per_listing", this, repository -> bytesPerListing(repository.store))
+                .baseUnit("bytes")
+                .register(registry);
+        FunctionCounter.builder("listing_search.columnar.queries", indexedQueries, LongAdder::sum)
+                .tag("result", "indexed")
+                .register(registry);
+        FunctionCounter.builder("listing_search.columnar.queries", fallbackQueries, LongAdder::sum)
+                .tag("result", "fallback")
+                .register(registry);
+    }
+
+    private static int sizeOf(ListingColumnStore store) {
+        return store != null ? store.size() : 0;
+    }
+
+    private static long bytesPerListing(ListingColumnStore store) {
+        int size = sizeOf(store);
+        return size == 0 ? 0 : store.estimatedBytes() / size;
+    }
+}
@@ -0,0 +1,49 @@
+package it.dieti.dietiestatesbackend.infrastructure.search;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@ConfigurationProperties(prefix = "app.listings.search.columnar")
+public class ColumnarSearchProperties {
+    /**
+     * Serve published-only searches from the in-memory columnar index instead of PostgreSQL.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Interval between two full rebuilds of the index from the database.
+     */
+    private Duration refreshInterval = Duration.ofMinutes(30);
+
+    /**
+     * Deepest page (offset + size) answered in memory; deeper pages go to SQL.
+     */
+    private int maxWindow = 5000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Duration getRefreshInterval() {
+        return refreshInterval;
+    }
+
+    public void setRefreshInterval(Duration refreshInterval) {
+        this.refreshInterval = refreshInterval;
+    }
+
+    public int getMaxWindow() {
+        return maxWindow;
+    }
+
+    public void setMaxWindow(int maxWindow) {
+        this.maxWindow = maxWindow;
+    }
+}
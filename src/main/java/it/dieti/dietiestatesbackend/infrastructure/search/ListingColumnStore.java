@@ -0,0 +1,446 @@
+package it.dieti.dietiestatesbackend.infrastructure.search;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.CountMode;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.Keyset;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchFilters;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchResult;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.TotalAccuracy;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.PublishedListingReader.IndexedListing;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Column-oriented in-memory copy of the published listings.
+ * <p>
+ * Each listing occupies a slot; numeric attributes live in primitive arrays indexed by slot and
+ * every categorical attribute (type, city, postal code, energy class, feature, agency, agent and
+ * the boolean flags) has one bitset per value. Equality filters are bitset intersections, range
+ * filters are checked on the surviving slots only, and the requested page is selected with a
+ * heap bounded to {@code offset + size} entries. Ordering, NULL placement and keyset semantics
+ * mirror the SQL statements of the JPA adapter, including PostgreSQL's unsigned UUID ordering.
+ */
+final class ListingColumnStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int NULL_ROOMS = Integer.MIN_VALUE;
+    /**
+     * NULL timestamps sort after every value, as in PostgreSQL.
+     */
+    private static final long NULL_TIME = Long.MAX_VALUE;
+    /**
+     * Bytes per slot of the columns: id (2 longs), price, size and the two timestamps (8 bytes
+     * each) plus rooms, object size and the card and feature references (4 bytes each).
+     */
+    private static final int PRIMITIVE_BYTES_PER_SLOT = 6 * 8 + 4 * 4;
+    private static final int CARD_OBJECT_BYTES = 160;
+    private static final int STRING_OVERHEAD_BYTES = 40;
+    private static final int FEATURE_ID_BYTES = 32;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<UUID, Integer> slotsById = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private int slotCount;
+
+    private ListingCard[] cards = new ListingCard[INITIAL_CAPACITY];
+    private List<UUID>[] featureIds = newFeatureColumn(INITIAL_CAPACITY);
+    private long[] idHigh = new long[INITIAL_CAPACITY];
+    private long[] idLow = new long[INITIAL_CAPACITY];
+    private long[] priceCents = new long[INITIAL_CAPACITY];
+    private int[] rooms = new int[INITIAL_CAPACITY];
+    private double[] sizeSqm = new double[INITIAL_CAPACITY];
+    private long[] publishedAtMicros = new long[INITIAL_CAPACITY];
+    private long[] createdAtMicros = new long[INITIAL_CAPACITY];
+    private int[] objectBytes = new int[INITIAL_CAPACITY];
+    private long totalObjectBytes;
+
+    private final BitSet live = new BitSet();
+    private final BitSet furnished = new BitSet();
+    private final BitSet petsAllowed = new BitSet();
+    private final BitSet withPhotos = new BitSet();
+    private final Map<UUID, BitSet> byType = new HashMap<>();
+    private final Map<UUID, BitSet> byAgency = new HashMap<>();
+    private final Map<UUID, BitSet> byOwnerAgent = new HashMap<>();
+    private final Map<UUID, BitSet> byFeature = new HashMap<>();
+    private final Map<String, BitSet> byCity = new HashMap<>();
+    private final Map<String, BitSet> byPostalCode = new HashMap<>();
+    private final Map<String, BitSet> byEnergyClass = new HashMap<>();
+
+    /**
+     * Inserts the listing or replaces its previous version.
+     */
+    void upsert(IndexedListing listing) {
+        var card = listing.card();
+        lock.writeLock().lock();
+        try {
+            var existing = slotsById.get(card.id());
+            int slot;
+            if (existing != null) {
+                slot = existing;
+                clearSlot(slot);
+            } else {
+                slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+                ensureCapacity(slotCount);
+                slotsById.put(card.id(), slot);
+            }
+            fillSlot(slot, card, listing.featureIds());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(UUID listingId) {
+        lock.writeLock().lock();
+        try {
+            var slot = slotsById.remove(listingId);
+            if (slot != null) {
+                clearSlot(slot);
+                freeSlots.push(slot);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return slotsById.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate heap footprint: primitive columns, bitsets and the retained card objects.
+     */
+    long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long bitsetBytes = (long) bitsetCount() * (slotCount / 8 + 16);
+            return (long) cards.length * PRIMITIVE_BYTES_PER_SLOT + bitsetBytes + totalObjectBytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    SearchResult search(SearchFilters filters) {
+        int offset = filters.after() != null ? 0 : filters.page() * filters.size();
+        int window = offset + filters.size();
+        lock.readLock().lock();
+        try {
+            var candidates = candidates(filters);
+            var order = new SlotOrder(sortColumn(filters), filters.sortAscending());
+            var after = filters.after() != null ? order.position(filters.after()) : null;
+            var worstFirst = new PriorityQueue<Integer>(Math.max(1, window + 1), order.reversed());
+            long total = 0;
+            for (int slot = candidates.nextSetBit(0); slot >= 0; slot = candidates.nextSetBit(slot + 1)) {
+                if (!matchesRanges(slot, filters)) {
+                    continue;
+                }
+                total++;
+                if (window == 0 || (after != null && order.compareTo(slot, after) <= 0)) {
+                    continue;
+                }
+                if (worstFirst.size() < window) {
+                    worstFirst.add(slot);
+                } else if (order.compare(slot, worstFirst.peek()) < 0) {
+                    worstFirst.poll();
+                    worstFirst.add(slot);
+                }
+            }
+            var ordered = new ArrayList<>(worstFirst);
+            ordered.sort(order);
+            var page = new ArrayList<ListingCard>(filters.size());
+            for (int i = offset; i < ordered.size(); i++) {
+                page.add(cards[ordered.get(i)]);
+            }
+            return result(page, total, filters);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static SearchResult result(List<ListingCard> page, long total, SearchFilters filters) {
+        var countMode = filters.countMode() != null ? filters.countMode() : CountMode.EXACT;
+        return switch (countMode) {
+            case NONE -> new SearchResult(page, 0, TotalAccuracy.UNKNOWN);
+            case CAPPED -> total > filters.countCap()
+                    ? new SearchResult(page, filters.countCap(), TotalAccuracy.AT_LEAST)
+                    : new SearchResult(page, total, TotalAccuracy.EXACT);
+            case EXACT, ESTIMATED -> new SearchResult(page, total, TotalAccuracy.EXACT);
+        };
+    }
+
+    private BitSet candidates(SearchFilters filters) {
+        var candidates = (BitSet) live.clone();
+        if (filters.listingTypeId() != null) {
+            intersect(candidates, byType.get(filters.listingTypeId()));
+        }
+        if (filters.normalizedCity() != null && !filters.normalizedCity().isBlank()) {
+            intersect(candidates, byCity.get(filters.normalizedCity()));
+        }
+        if (filters.normalizedEnergyClasses() != null && !filters.normalizedEnergyClasses().isEmpty()) {
+            intersect(candidates, union(byEnergyClass, filters.normalizedEnergyClasses()));
+        }
+        if (filters.normalizedPostalCodes() != null && !filters.normalizedPostalCodes().isEmpty()) {
+            intersect(candidates, union(byPostalCode, filters.normalizedPostalCodes()));
+        }
+        if (filters.featureIds() != null) {
+            filters.featureIds().forEach(featureId -> intersect(candidates, byFeature.get(featureId)));
+        }
+        if (filters.agencyId() != null) {
+            intersect(candidates, byAgency.get(filters.agencyId()));
+        }
+        if (filters.ownerAgentId() != null) {
+            intersect(candidates, byOwnerAgent.get(filters.ownerAgentId()));
+        }
+        applyFlag(candidates, furnished, filters.furnished());
+        applyFlag(candidates, petsAllowed, filters.petsAllowed());
+        applyFlag(candidates, withPhotos, filters.hasPhotos());
+        return candidates;
+    }
+
+    /**
+     * Range predicates; as in SQL, a NULL attribute never satisfies a bound.
+     */
+    private boolean matchesRanges(int slot, SearchFilters filters) {
+        if (filters.minPriceCents() != null && priceCents[slot] < filters.minPriceCents()) {
+            return false;
+        }
+        if (filters.maxPriceCents() != null && priceCents[slot] > filters.maxPriceCents()) {
+            return false;
+        }
+        if (filters.minRooms() != null && (rooms[slot] == NULL_ROOMS || rooms[slot] < filters.minRooms())) {
+            return false;
+        }
+        if (filters.maxRooms() != null && (rooms[slot] == NULL_ROOMS || rooms[slot] > filters.maxRooms())) {
+            return false;
+        }
+        if (filters.minSqm() != null && !(sizeSqm[slot] >= filters.minSqm().doubleValue())) {
+            return false;
+        }
+        return filters.maxSqm() == null || sizeSqm[slot] <= filters.maxSqm().doubleValue();
+    }
+
+    private static void intersect(BitSet candidates, BitSet values) {
+        if (values == null) {
+            candidates.clear();
+        } else {
+            candidates.and(values);
+        }
+    }
+
+    private static <K> BitSet union(Map<K, BitSet> index, Collection<K> keys) {
+        var union = new BitSet();
+        for (K key : keys) {
+            var values = index.get(key);
+            if (values != null) {
+                union.or(values);
+            }
+        }
+        return union;
+    }
+
+    private static void applyFlag(BitSet candidates, BitSet flag, Boolean expected) {
+        if (Boolean.TRUE.equals(expected)) {
+            candidates.and(flag);
+        } else if (Boolean.FALSE.equals(expected)) {
+            candidates.andNot(flag);
+        }
+    }
+
+    private long[] sortColumn(SearchFilters filters) {
+        return switch (filters.sortColumn()) {
+            case "price_cents" -> priceCents;
+            case "created_at" -> createdAtMicros;
+            default -> publishedAtMicros;
+        };
+    }
+
+    private void fillSlot(int slot, ListingCard card, List<UUID> features) {
+        cards[slot] = card;
+        featureIds[slot] = features;
+        idHigh[slot] = card.id().getMostSignificantBits();
+        idLow[slot] = card.id().getLeastSignificantBits();
+        priceCents[slot] = card.priceCents();
+        rooms[slot] = card.rooms() != null ? card.rooms() : NULL_ROOMS;
+        sizeSqm[slot] = card.sizeSqm() != null ? card.sizeSqm().doubleValue() : Double.NaN;
+        publishedAtMicros[slot] = micros(card.publishedAt());
+        createdAtMicros[slot] = micros(card.createdAt());
+        objectBytes[slot] = estimateObjectBytes(card, features);
+        totalObjectBytes += objectBytes[slot];
+
+        live.set(slot);
+        furnished.set(slot, card.furnished());
+        petsAllowed.set(slot, card.petsAllowed());
+        withPhotos.set(slot, card.photoCount() > 0);
+        mark(byType, card.listingTypeId(), slot);
+        mark(byAgency, card.agencyId(), slot);
+        mark(byOwnerAgent, card.ownerAgentId(), slot);
+        mark(byCity, upper(card.city()), slot);
+        mark(byPostalCode, upper(card.postalCode()), slot);
+        mark(byEnergyClass, upper(card.energyClass()), slot);
+        features.forEach(featureId -> mark(byFeature, featureId, slot));
+    }
+
+    private void clearSlot(int slot) {
+        var card = cards[slot];
+        unmark(byType, card.listingTypeId(), slot);
+        unmark(byAgency, card.agencyId(), slot);
+        unmark(byOwnerAgent, card.ownerAgentId(), slot);
+        unmark(byCity, upper(card.city()), slot);
+        unmark(byPostalCode, upper(card.postalCode()), slot);
+        unmark(byEnergyClass, upper(card.energyClass()), slot);
+        featureIds[slot].forEach(featureId -> unmark(byFeature, featureId, slot));
+        live.clear(slot);
+        furnished.clear(slot);
+        petsAllowed.clear(slot);
+        withPhotos.clear(slot);
+        totalObjectBytes -= objectBytes[slot];
+        objectBytes[slot] = 0;
+        cards[slot] = null;
+        featureIds[slot] = null;
+    }
+
+    private static <K> void mark(Map<K, BitSet> index, K key, int slot) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new BitSet()).set(slot);
+        }
+    }
+
+    private static <K> void unmark(Map<K, BitSet> index, K key, int slot) {
+        if (key == null) {
+            return;
+        }
+        var values = index.get(key);
+        if (values != null) {
+            values.clear(slot);
+            if (values.isEmpty()) {
+                index.remove(key);
+            }
+        }
+    }
+
+    private int bitsetCount() {
+        return 4 + byType.size() + byAgency.size() + byOwnerAgent.size() + byFeature.size()
+                + byCity.size() + byPostalCode.size() + byEnergyClass.size();
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= cards.length) {
+            return;
+        }
+        int capacity = Math.max(required, cards.length * 2);
+        cards = Arrays.copyOf(cards, capacity);
+        featureIds = Arrays.copyOf(featureIds, capacity);
+        idHigh = Arrays.copyOf(idHigh, capacity);
+        idLow = Arrays.copyOf(idLow, capacity);
+        priceCents = Arrays.copyOf(priceCents, capacity);
+        rooms = Arrays.copyOf(rooms, capacity);
+        sizeSqm = Arrays.copyOf(sizeSqm, capacity);
+        publishedAtMicros = Arrays.copyOf(publishedAtMicros, capacity);
+        createdAtMicros = Arrays.copyOf(createdAtMicros, capacity);
+        objectBytes = Arrays.copyOf(objectBytes, capacity);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<UUID>[] newFeatureColumn(int capacity) {
+        return (List<UUID>[]) new List<?>[capacity];
+    }
+
+    private static int estimateObjectBytes(ListingCard card, List<UUID> features) {
+        return CARD_OBJECT_BYTES
+                + stringBytes(card.title()) + stringBytes(card.descriptionExcerpt()) + stringBytes(card.currency())
+                + stringBytes(card.energyClass()) + stringBytes(card.addressLine()) + stringBytes(card.city())
+                + stringBytes(card.postalCode()) + stringBytes(card.coverPhotoUrl())
+                + features.size() * FEATURE_ID_BYTES;
+    }
+
+    private static int stringBytes(String value) {
+        return value == null ? 0 : STRING_OVERHEAD_BYTES + value.length();
+    }
+
+    private static String upper(String value) {
+        return value != null ? value.toUpperCase(Locale.ROOT) : null;
+    }
+
+    private static long micros(OffsetDateTime value) {
+        if (value == null) {
+            return NULL_TIME;
+        }
+        var instant = value.toInstant();
+        return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+    }
+
+    /**
+     * Row position used by keyset pagination, expressed in column units.
+     */
+    private record Position(long sortValue, long createdAt, long idHigh, long idLow) {}
+
+    /**
+     * ORDER BY sort column, created_at, id in the requested direction.
+     */
+    private final class SlotOrder implements java.util.Comparator<Integer> {
+
+        private final long[] sortValues;
+        private final boolean ascending;
+
+        SlotOrder(long[] sortValues, boolean ascending) {
+            this.sortValues = sortValues;
+            this.ascending = ascending;
+        }
+
+        Position position(Keyset keyset) {
+            long sortValue = switch (keyset.sortValue()) {
+                case null -> NULL_TIME;
+                case Number number -> number.longValue();
+                case OffsetDateTime time -> micros(time);
+                default -> throw new IllegalArgumentException("Unsupported keyset value " + keyset.sortValue());
+            };
+            var id = keyset.id();
+            return new Position(sortValue, micros(keyset.createdAt()), id.getMostSignificantBits(), id.getLeastSignificantBits());
+        }
+
+        @Override
+        public int compare(Integer a, Integer b) {
+            int result = Long.compare(sortValues[a], sortValues[b]);
+            if (result == 0) {
+                result = Long.compare(createdAtMicros[a], createdAtMicros[b]);
+            }
+            if (result == 0) {
+                result = Long.compareUnsigned(idHigh[a], idHigh[b]);
+            }
+            if (result == 0) {
+                result = Long.compareUnsigned(idLow[a], idLow[b]);
+            }
+            return ascending ? result : -result;
+        }
+
+        int compareTo(int slot, Position position) {
+            int result = Long.compare(sortValues[slot], position.sortValue());
+            if (result == 0) {
+                result = Long.compare(createdAtMicros[slot], position.createdAt());
+            }
+            if (result == 0) {
+                result = Long.compareUnsigned(idHigh[slot], position.idHigh());
+            }
+            if (result == 0) {
+                result = Long.compareUnsigned(idLow[slot], position.idLow());
+            }
+            return ascending ? result : -result;
+        }
+    }
+}
@@ -0,0 +1,15 @@
+-- Flyway V19: denormalized feature set on listings
+-- feature_ids mirrors listing_features and is kept in sync by the application,
+-- so the "has all features" filter becomes a containment check on a GIN index
+
+ALTER TABLE listings
+    ADD COLUMN IF NOT EXISTS feature_ids uuid[] NOT NULL DEFAULT '{}';
+
+UPDATE listings l
+SET feature_ids = COALESCE(
+        (SELECT array_agg(lf.feature_id ORDER BY lf.feature_id)
+         FROM listing_features lf
+         WHERE lf.listing_id = l.id),
+        '{}');
+
+CREATE INDEX IF NOT EXISTS idx_listings_feature_ids ON listings USING GIN (feature_ids);
@@ -0,0 +1,16 @@
+-- Flyway V20: photo summary on listings
+-- photo_count and cover_media_url mirror listing_media (cover = lowest sort_order)
+-- and are kept in sync by the application whenever photos are attached, removed or reordered
+
+ALTER TABLE listings
+    ADD COLUMN IF NOT EXISTS photo_count int NOT NULL DEFAULT 0,
+    ADD COLUMN IF NOT EXISTS cover_media_url text NULL;
+
+UPDATE listings l
+SET photo_count = (SELECT COUNT(*) FROM listing_media lm WHERE lm.listing_id = l.id),
+    cover_media_url = (SELECT ma.public_url
+                       FROM listing_media lm
+                       JOIN media_assets ma ON ma.id = lm.media_id
+                       WHERE lm.listing_id = l.id
+                       ORDER BY lm.sort_order ASC
+                       LIMIT 1);
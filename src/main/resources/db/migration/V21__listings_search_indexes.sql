@@ -0,0 +1,23 @@
+-- Flyway V21: indexes matching the listing search predicates
+-- Search compares UPPER(city), UPPER(postal_code) and UPPER(energy_class) and always applies
+-- deleted_at IS NULL, so the plain b-tree on city is replaced by partial expression indexes.
+-- The composite indexes serve "status = ? ORDER BY <sort> , created_at, id" with LIMIT directly,
+-- including keyset continuation, for the published_at (default), price_cents and created_at sorts.
+
+DROP INDEX IF EXISTS idx_listings_city;
+
+CREATE INDEX IF NOT EXISTS idx_listings_city_upper
+    ON listings (UPPER(city)) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_listings_postal_code_upper
+    ON listings (UPPER(postal_code)) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_listings_energy_class_upper
+    ON listings (UPPER(energy_class)) WHERE deleted_at IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_listings_status_published_at
+    ON listings (status_id, published_at DESC, created_at DESC, id DESC) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_listings_status_price
+    ON listings (status_id, price_cents, created_at, id) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_listings_status_created_at
+    ON listings (status_id, created_at DESC, id DESC) WHERE deleted_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_listings_status_city_published_at
+    ON listings (status_id, UPPER(city), published_at DESC, created_at DESC, id DESC) WHERE deleted_at IS NULL;
@@ -0,0 +1,13 @@
+-- Flyway V22: Italian full-text search on listings
+-- search_vector is generated from title (weight A) and description (weight B) with the
+-- 'italian' configuration, so keyword search is answered by the GIN index instead of
+-- reading description
+
+ALTER TABLE listings
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('italian', coalesce(title, '')), 'A')
+            || setweight(to_tsvector('italian', coalesce(description, '')), 'B')
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_listings_search_vector ON listings USING GIN (search_vector);
@@ -0,0 +1,27 @@
+-- Flyway V23: saved searches and the runs of their alert matcher
+-- Saved searches store the normalized search filters as JSON; the alert matcher loads them all
+-- and indexes them in memory, so no column of the filters needs an index here.
+CREATE TABLE IF NOT EXISTS saved_searches (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    user_id UUID NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    name TEXT NOT NULL,
+    filters JSONB NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_saved_searches_user_id ON saved_searches(user_id);
+
+-- One row per matcher run: the next run starts from the latest published_until. The unique
+-- published_after makes a second instance running the same window fail instead of re-sending.
+CREATE TABLE IF NOT EXISTS saved_search_alert_runs (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    published_after TIMESTAMPTZ NOT NULL,
+    published_until TIMESTAMPTZ NOT NULL,
+    listings_scanned INTEGER NOT NULL,
+    digests_enqueued INTEGER NOT NULL,
+    created_at TIMESTAMPTZ NOT NULL
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS uq_saved_search_alert_runs_published_after ON saved_search_alert_runs(published_after);
+CREATE INDEX IF NOT EXISTS idx_saved_search_alert_runs_published_until ON saved_search_alert_runs(published_until);
@@ -0,0 +1,18 @@
+-- Flyway V24: listing view and impression counters
+-- Counts are accumulated in memory and added here in periodic batches, one row per listing and
+-- day, so the listings table is never updated because of traffic.
+CREATE TABLE IF NOT EXISTS listing_daily_counters (
+    listing_id UUID NOT NULL REFERENCES listings(id) ON DELETE CASCADE,
+    day DATE NOT NULL,
+    views BIGINT NOT NULL DEFAULT 0,
+    impressions BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (listing_id, day)
+);
+
+-- Running totals maintained by the same statement as the daily rows; the "most viewed" sort
+-- reads them by primary key instead of summing the daily rows of every candidate listing.
+CREATE TABLE IF NOT EXISTS listing_counter_totals (
+    listing_id UUID PRIMARY KEY REFERENCES listings(id) ON DELETE CASCADE,
+    views BIGINT NOT NULL DEFAULT 0,
+    impressions BIGINT NOT NULL DEFAULT 0
+);
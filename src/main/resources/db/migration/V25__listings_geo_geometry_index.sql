@@ -0,0 +1,6 @@
+-- Flyway V25: planar index for the map viewport
+-- The viewport is compared as a longitude/latitude box on geo::geometry rather than as a
+-- geography box, whose great-circle edges miss listings near the equator-side edge of wide
+-- viewports. The expression index answers that comparison; idx_listings_geo still serves
+-- radius, distance and polygon filters on the geography value.
+CREATE INDEX IF NOT EXISTS idx_listings_geo_geometry ON listings USING GIST ((geo::geometry));
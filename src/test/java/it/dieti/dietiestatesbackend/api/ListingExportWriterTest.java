@@ -0,0 +1,68 @@
+package it.dieti.dietiestatesbackend.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchService.ExportRow;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ListingExportWriterTest {
+
+    private static final OffsetDateTime CREATED = OffsetDateTime.of(2025, 3, 1, 10, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    void ndjson_writesOneObjectPerLine() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new ListingExportWriter(ListingExportWriter.Format.NDJSON, out);
+        writer.write(row("Bilocale"));
+        writer.write(row("Trilocale"));
+        writer.flush();
+
+        var lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        var first = new ObjectMapper().readTree(lines[0]);
+        assertThat(first.get("title").asText()).isEqualTo("Bilocale");
+        assertThat(first.get("listingType").asText()).isEqualTo("SALE");
+        assertThat(first.get("priceCents").asLong()).isEqualTo(15_000_000L);
+        assertThat(first.get("sizeSqm").decimalValue()).isEqualByComparingTo("55.50");
+        assertThat(first.get("rooms").isNull()).isTrue();
+        assertThat(first.get("createdAt").asText()).isEqualTo("2025-03-01T10:00Z");
+    }
+
+    @Test
+    void csv_writesHeaderAndQuotesSpecialCharacters() throws IOException {
+        var out = new ByteArrayOutputStream();
+        var writer = new ListingExportWriter(ListingExportWriter.Format.CSV, out);
+        writer.write(row("Attico \"vista mare\", Napoli"));
+        writer.flush();
+
+        var lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+        assertThat(lines[0]).startsWith("id,listingType,status,title,priceCents");
+        assertThat(lines[1]).contains(",SALE,PUBLISHED,\"Attico \"\"vista mare\"\", Napoli\",15000000,EUR,55.50,,");
+    }
+
+    @Test
+    void format_rejectsUnknownValues() {
+        assertThat(ListingExportWriter.Format.parse(null)).isEqualTo(ListingExportWriter.Format.NDJSON);
+        assertThat(ListingExportWriter.Format.parse(" CSV ")).isEqualTo(ListingExportWriter.Format.CSV);
+        assertThatThrownBy(() -> ListingExportWriter.Format.parse("xlsx")).isInstanceOf(BadRequestException.class);
+    }
+
+    private static ExportRow row(String title) {
+        var card = new ListingCard(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(),
+                title, "descrizione", 15_000_000L, "EUR", new BigDecimal("55.50"), null, 2, "A", 0, true, 0, false,
+                "Via Roma 1", "Napoli", "80100", 40.85, 14.27, 3, null, CREATED, CREATED, CREATED, null);
+        return new ExportRow(card, "SALE", "PUBLISHED");
+    }
+}
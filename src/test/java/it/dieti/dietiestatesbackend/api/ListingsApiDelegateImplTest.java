@@ -1,27 +1,37 @@
 package it.dieti.dietiestatesbackend.api;
 
 import it.dieti.dietiestatesbackend.application.exception.NotFoundException;
-import it.dieti.dietiestatesbackend.application.feature.FeatureService;
+import it.dieti.dietiestatesbackend.application.listing.ListingCounterService;
 import it.dieti.dietiestatesbackend.application.listing.ListingCreationService;
+import it.dieti.dietiestatesbackend.application.listing.ListingDetailService;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchProperties;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchService;
 import it.dieti.dietiestatesbackend.application.media.listing.ListingMediaService;
 import it.dieti.dietiestatesbackend.application.user.UserProfileService;
-import it.dieti.dietiestatesbackend.domain.listing.Listing;
-import it.dieti.dietiestatesbackend.domain.listing.ListingType;
-import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatus;
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounters;
+import it.dieti.dietiestatesbackend.domain.listing.detail.ListingDetail;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.TotalAccuracy;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
+import java.util.function.Predicate;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -32,7 +42,13 @@ class ListingsApiDelegateImplTest {
     @Mock
     private ListingMediaService listingMediaService;
     @Mock
-    private FeatureService featureService;
+    private ListingDetailService listingDetailService;
+    @Mock
+    private ListingCounterService listingCounterService;
+    @Mock
+    private ListingSearchService listingSearchService;
+    @Spy
+    private ListingSearchProperties listingSearchProperties = new ListingSearchProperties();
 
     @Mock
     private UserProfileService userProfileService;
@@ -44,54 +60,15 @@ class ListingsApiDelegateImplTest {
     void listingsIdGet_returnsListingWithPhotos() {
         var listingId = UUID.randomUUID();
         var agencyId = UUID.randomUUID();
-        var agentId = UUID.randomUUID();
-        var listingTypeId = UUID.randomUUID();
-        var statusId = UUID.randomUUID();
-        var now = OffsetDateTime.now();
+        var detail = detail(listingId, agencyId);
 
-        var listing = new Listing(
-                listingId,
-                agencyId,
-                agentId,
-                listingTypeId,
-                statusId,
-                "Loft centrale",
-                "Ampio open space",
-                250000L,
-                "EUR",
-                BigDecimal.valueOf(120),
-                3,
-                2,
-                "A2",
-                "Contratto",
-                0L,
-                false,
-                0L,
-                true,
-                "Via Roma 10",
-                "Roma",
-                "00100",
-                null,
-                null,
-                null,
-                now,
-                now,
-                now
-        );
-
-        var listingType = new ListingType(listingTypeId, "SALE", "Vendita");
-        var listingStatus = new ListingStatus(statusId, "PUBLISHED", "Pubblicato", 1, now);
+        when(listingDetailService.getDetail(listingId, null)).thenReturn(detail);
+        when(listingCounterService.totals(listingId)).thenReturn(new ListingCounters(12, 340));
 
-        when(listingCreationService.getListingDetails(listingId,null))
-                .thenReturn(new ListingCreationService.ListingDetails(listing, listingType, listingStatus));
+        ResponseEntity<it.dieti.dietiestatesbackend.api.model.Listing> response = delegate.listingsIdGet(listingId, null);
 
-        when(listingMediaService.getListingPhotos(listingId)).thenReturn(List.of(
-                new ListingMediaService.ListingPhotoView(UUID.randomUUID(), "https://cdn.test/photo.jpg", 1)
-        ));
-
-        ResponseEntity<it.dieti.dietiestatesbackend.api.model.Listing> response = delegate.listingsIdGet(listingId);
-
-        assertThat(response.getStatusCode()).isEqualTo(org.springframework.http.HttpStatus.OK);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo(ListingDetailService.entityTag(detail));
         var body = response.getBody();
         assertThat(body).isNotNull();
         assertThat(body.getId()).isEqualTo(listingId);
@@ -103,19 +80,111 @@ class ListingsApiDelegateImplTest {
         assertThat(body.getFurnished()).isFalse();
         assertThat(body.getCondoFeeCents()).isZero();
         assertThat(body.getPetsAllowed()).isTrue();
+        assertThat(body.getFeatures()).containsExactly("GARDEN");
+        assertThat(body.getGeo().getLat()).isEqualTo(41.9f);
         assertThat(body.getPhotos()).hasSize(1);
         assertThat(body.getPhotos().get(0).getUrl().toString()).hasToString("https://cdn.test/photo.jpg");
         assertThat(body.getPhotos().get(0).getPosition()).isEqualTo(1);
+        assertThat(body.getViewCount()).isEqualTo(12);
+        assertThat(body.getImpressionCount()).isEqualTo(340);
+        verify(listingCounterService).recordView(listingId);
+    }
+
+    @Test
+    void listingsIdGet_whenIfNoneMatchesCurrentTag_returnsNotModifiedWithoutBody() {
+        var listingId = UUID.randomUUID();
+        var detail = detail(listingId, UUID.randomUUID());
+        var etag = ListingDetailService.entityTag(detail);
+        when(listingDetailService.getDetail(listingId, null)).thenReturn(detail);
+
+        var response = delegate.listingsIdGet(listingId, "\"stale\", " + etag.substring(2));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+        assertThat(response.getBody()).isNull();
+        verify(listingCounterService).recordView(listingId);
+        verify(listingCounterService, never()).totals(listingId);
     }
 
     @Test
     void listingsIdGet_whenListingMissing_throwsNotFound() {
         var listingId = UUID.randomUUID();
-        when(listingCreationService.getListingDetails(listingId,null))
+        when(listingDetailService.getDetail(listingId, null))
                 .thenThrow(NotFoundException.resourceNotFound("Annuncio", listingId));
 
-        assertThatThrownBy(() -> delegate.listingsIdGet(listingId))
+        assertThatThrownBy(() -> delegate.listingsIdGet(listingId, null))
                 .isInstanceOf(NotFoundException.class)
                 .hasMessageContaining("Annuncio");
     }
+
+    @Test
+    void listingsGet_whenAnonymousPageUnchanged_returnsNotModifiedAndCountsImpressions() {
+        var tag = "W/\"page-v1\"";
+        var listingId = UUID.randomUUID();
+        ArgumentCaptor<Predicate<String>> unchanged = ArgumentCaptor.captor();
+        when(listingSearchService.search(any(), unchanged.capture())).thenReturn(
+                new ListingSearchService.ConditionalSearchResult(null, tag, List.of(listingId)));
+
+        var response = delegate.listingsGet(null, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, tag);
+
+        assertThat(unchanged.getValue().test(tag)).isTrue();
+        assertThat(unchanged.getValue().test("W/\"page-v0\"")).isFalse();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getBody()).isNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(tag);
+        assertThat(response.getHeaders().getCacheControl()).contains("public").contains("max-age=0");
+        assertThat(response.getHeaders().getVary()).contains("Authorization");
+        verify(listingCounterService).recordImpressions(List.of(listingId));
+    }
+
+    @Test
+    void listingsGet_whenTagDiffers_returnsPageWithValidators() {
+        var tag = "W/\"page-v2\"";
+        var page = new ListingSearchService.SearchResult(List.of(), 0, 20, 0, TotalAccuracy.EXACT, null, tag);
+        when(listingSearchService.search(any(), any())).thenReturn(
+                new ListingSearchService.ConditionalSearchResult(page, tag, List.of()));
+
+        var response = delegate.listingsGet(null, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null,
+                "W/\"page-v1\"");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isNotNull();
+        assertThat(response.getHeaders().getETag()).isEqualTo(tag);
+    }
+
+    private static ListingDetail detail(UUID listingId, UUID agencyId) {
+        var now = OffsetDateTime.now();
+        return new ListingDetail(
+                listingId,
+                agencyId,
+                UUID.randomUUID(),
+                "SALE",
+                "PUBLISHED",
+                "Loft centrale",
+                "Ampio open space",
+                250000L,
+                "EUR",
+                BigDecimal.valueOf(120),
+                3,
+                2,
+                "A2",
+                "Contratto",
+                0L,
+                false,
+                0L,
+                true,
+                "Via Roma 10",
+                "Roma",
+                "00100",
+                41.9,
+                12.5,
+                now,
+                now,
+                now,
+                List.of(new ListingDetail.Photo(UUID.randomUUID(), "https://cdn.test/photo.jpg", 1)),
+                List.of("GARDEN")
+        );
+    }
 }
@@ -10,12 +10,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
@@ -28,6 +32,8 @@ class FeatureServiceTest {
     private FeatureRepository featureRepository;
     @Mock
     private ListingFeatureRepository listingFeatureRepository;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private FeatureService featureService;
@@ -64,5 +70,42 @@ class FeatureServiceTest {
 
         verify(listingFeatureRepository).save(new ListingFeature(null, listingId, wifiId, 0, null, null));
         verify(listingFeatureRepository).save(new ListingFeature(null, listingId, poolId, 0, null, null));
+        verify(listingFeatureRepository).refreshListingFeatureSet(listingId);
+    }
+
+    @Test
+    void syncListingFeatures_skipsFeatureSetRefreshWhenUnchanged() {
+        var listingId = UUID.randomUUID();
+        var wifiId = UUID.randomUUID();
+        when(featureRepository.findByCode("wifi")).thenReturn(Optional.of(new Feature(wifiId, "wifi", "Wi-Fi")));
+        when(listingFeatureRepository.findByListingId(listingId))
+                .thenReturn(List.of(new ListingFeature(UUID.randomUUID(), listingId, wifiId, 0, null, null)));
+
+        featureService.syncListingFeatures(listingId, List.of("wifi"));
+
+        verify(listingFeatureRepository, never()).save(any(ListingFeature.class));
+        verify(listingFeatureRepository, never()).refreshListingFeatureSet(any());
+    }
+
+    @Test
+    void getListingFeatures_usesSingleBatchedLookup() {
+        var listingId = UUID.randomUUID();
+        var elevator = new Feature(UUID.randomUUID(), "ELEVATOR", "Ascensore");
+        when(listingFeatureRepository.findFeaturesByListingIds(List.of(listingId)))
+                .thenReturn(Map.of(listingId, List.of(elevator)));
+
+        var features = featureService.getListingFeatures(listingId);
+
+        assertEquals(List.of(elevator), features);
+        verify(featureRepository, never()).findById(any());
+        verify(listingFeatureRepository, never()).findByListingId(any());
+    }
+
+    @Test
+    void getListingFeaturesByListingIds_returnsEmptyMapForNoListings() {
+        var result = featureService.getListingFeaturesByListingIds(List.of());
+
+        assertTrue(result.isEmpty());
+        verify(listingFeatureRepository, never()).findFeaturesByListingIds(any());
     }
 }
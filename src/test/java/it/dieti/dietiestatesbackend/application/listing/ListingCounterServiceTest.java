@@ -0,0 +1,124 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounterRepository;
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounterRepository.CounterIncrement;
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounters;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ListingCounterServiceTest {
+
+    @Mock
+    private ListingCounterRepository listingCounterRepository;
+
+    private ListingCounterProperties properties;
+    private ListingCounterService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ListingCounterProperties();
+        service = new ListingCounterService(listingCounterRepository, properties);
+    }
+
+    @Test
+    void flush_writesPendingCountsOnceAndEvictsIdleListings() {
+        var listing = UUID.randomUUID();
+        var other = UUID.randomUUID();
+        service.recordView(listing);
+        service.recordView(listing);
+        service.recordImpressions(List.of(listing, other));
+
+        assertThat(service.flush()).isEqualTo(2);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<CounterIncrement>> batch = ArgumentCaptor.forClass(List.class);
+        verify(listingCounterRepository).add(any(), batch.capture());
+        assertThat(batch.getValue()).containsExactlyInAnyOrder(
+                new CounterIncrement(listing, 2, 1),
+                new CounterIncrement(other, 0, 1));
+
+        assertThat(service.flush()).isZero();
+        assertThat(service.flush()).isZero();
+        verify(listingCounterRepository, times(1)).add(any(), anyList());
+    }
+
+    @Test
+    void flush_splitsBatchesAndKeepsUnwrittenCountsOnFailure() {
+        properties.setFlushBatchSize(1);
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        service.recordView(first);
+        service.recordView(second);
+        var written = new ArrayList<CounterIncrement>();
+        doAnswer(invocation -> {
+            written.addAll(invocation.getArgument(1));
+            return null;
+        }).doThrow(new IllegalStateException("db down"))
+                .when(listingCounterRepository).add(any(), anyList());
+
+        assertThat(service.flush()).isEqualTo(1);
+
+        var unwritten = written.getFirst().listingId().equals(first) ? second : first;
+        when(listingCounterRepository.findTotals(List.of(unwritten))).thenReturn(Map.of());
+        assertThat(service.totals(unwritten)).isEqualTo(new ListingCounters(1, 0));
+    }
+
+    @Test
+    void totals_addsPendingCountsToPersistedTotals() {
+        var listing = UUID.randomUUID();
+        when(listingCounterRepository.findTotals(List.of(listing))).thenReturn(Map.of(listing, new ListingCounters(10, 100)));
+        service.recordView(listing);
+
+        assertThat(service.totals(listing)).isEqualTo(new ListingCounters(11, 100));
+    }
+
+    @Test
+    void recordView_countsConcurrentIncrementsExactly() throws InterruptedException {
+        var listing = UUID.randomUUID();
+        int threads = 8;
+        int perThread = 1_000;
+        var done = new CountDownLatch(threads);
+        try (var executor = Executors.newFixedThreadPool(threads)) {
+            for (int t = 0; t < threads; t++) {
+                executor.execute(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        service.recordView(listing);
+                    }
+                    done.countDown();
+                });
+            }
+            assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+        }
+        when(listingCounterRepository.findTotals(List.of(listing))).thenReturn(Map.of());
+
+        assertThat(service.totals(listing).views()).isEqualTo((long) threads * perThread);
+    }
+
+    @Test
+    void flush_withNothingPending_doesNotTouchTheDatabase() {
+        assertThat(service.flush()).isZero();
+        verifyNoInteractions(listingCounterRepository);
+    }
+}
@@ -71,6 +71,8 @@ class ListingCreationServiceTest {
     private ModerationService moderationService;
     @org.mockito.Spy
     private CoordinatesValidator coordinatesValidator;
+    @Mock
+    private org.springframework.context.ApplicationEventPublisher eventPublisher;
 
     @InjectMocks
     private ListingCreationService listingCreationService;
@@ -1313,6 +1315,46 @@ class ListingCreationServiceTest {
         assertThrows(BadRequestException.class, () -> listingCreationService.updateListingForUser(userId, listingId, command));
     }
 
+    @Test
+    void canViewUnpublished_whenAnonymous_returnsFalse() {
+        assertThat(listingCreationService.canViewUnpublished(null, agentId)).isFalse();
+    }
+
+    @Test
+    void canViewUnpublished_whenAdmin_returnsTrue() {
+        mockUserWithRole(RolesEnum.ADMIN);
+
+        assertThat(listingCreationService.canViewUnpublished(userId, agentId)).isTrue();
+        verify(agentRepository, never()).findByUserId(any());
+    }
+
+    @Test
+    void canViewUnpublished_whenOwningAgent_returnsTrue() {
+        mockUserWithRole(RolesEnum.AGENT);
+        var agent = new Agent(agentId, userId, agencyId, "REA123", null, OffsetDateTime.now(), OffsetDateTime.now());
+        when(agentRepository.findByUserId(userId)).thenReturn(Optional.of(agent));
+
+        assertThat(listingCreationService.canViewUnpublished(userId, agentId)).isTrue();
+    }
+
+    @Test
+    void canViewUnpublished_whenAgentOfAnotherListing_returnsFalse() {
+        mockUserWithRole(RolesEnum.AGENT);
+        var agent = new Agent(agentId, userId, agencyId, "REA123", null, OffsetDateTime.now(), OffsetDateTime.now());
+        when(agentRepository.findByUserId(userId)).thenReturn(Optional.of(agent));
+
+        assertThat(listingCreationService.canViewUnpublished(userId, UUID.randomUUID())).isFalse();
+    }
+
+    private void mockUserWithRole(RolesEnum role) {
+        var roleId = UUID.randomUUID();
+        var now = OffsetDateTime.now();
+        when(userRepository.findById(userId)).thenReturn(Optional.of(new User(
+                userId, "User", "user@example.com", true, roleId, null, null, now.minusYears(1), now.minusMonths(1), null
+        )));
+        when(roleRepository.findById(roleId)).thenReturn(Optional.of(new Role(roleId, role.name(), role.name(), role.name())));
+    }
+
     private void mockAgentWithBasics() {
         var agent = new Agent(agentId, userId, agencyId, "REA123", null, OffsetDateTime.now(), OffsetDateTime.now());
         when(agentRepository.findByUserId(userId)).thenReturn(Optional.of(agent));
@@ -0,0 +1,81 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.exception.NotFoundException;
+import it.dieti.dietiestatesbackend.domain.listing.detail.ListingDetail;
+import it.dieti.dietiestatesbackend.domain.listing.detail.ListingDetailRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ListingDetailServiceTest {
+
+    private static final OffsetDateTime UPDATED_AT = OffsetDateTime.of(2025, 3, 1, 10, 0, 0, 123_456_789, ZoneOffset.UTC);
+
+    @Mock
+    private ListingDetailRepository listingDetailRepository;
+    @Mock
+    private ListingCreationService listingCreationService;
+
+    @InjectMocks
+    private ListingDetailService service;
+
+    @Test
+    void getDetail_publishedListingIsPublic() {
+        var detail = detail("PUBLISHED", UPDATED_AT);
+        when(listingDetailRepository.findById(detail.id())).thenReturn(Optional.of(detail));
+
+        assertThat(service.getDetail(detail.id(), null)).isSameAs(detail);
+        verifyNoInteractions(listingCreationService);
+    }
+
+    @Test
+    void getDetail_unpublishedListingRequiresPrivilegedViewer() {
+        var userId = UUID.randomUUID();
+        var detail = detail("DRAFT", UPDATED_AT);
+        when(listingDetailRepository.findById(detail.id())).thenReturn(Optional.of(detail));
+        when(listingCreationService.canViewUnpublished(userId, detail.ownerAgentId())).thenReturn(false);
+
+        assertThatThrownBy(() -> service.getDetail(detail.id(), userId))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void getDetail_missingListing_throwsNotFound() {
+        var listingId = UUID.randomUUID();
+        when(listingDetailRepository.findById(listingId)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> service.getDetail(listingId, null))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void entityTag_isWeakAndMovesWithUpdatedAt() {
+        var tag = ListingDetailService.entityTag(detail("PUBLISHED", UPDATED_AT));
+
+        assertThat(tag).isEqualTo("W/\"1740823200123456\"");
+        assertThat(ListingDetailService.entityTag(detail("PUBLISHED", UPDATED_AT.plusNanos(1_000)))).isNotEqualTo(tag);
+        assertThat(ListingDetailService.entityTag(detail("PUBLISHED", UPDATED_AT.withOffsetSameInstant(ZoneOffset.ofHours(2)))))
+                .isEqualTo(tag);
+    }
+
+    private static ListingDetail detail(String status, OffsetDateTime updatedAt) {
+        return new ListingDetail(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), "SALE", status,
+                "t", "d", 100_000, "EUR", BigDecimal.valueOf(80), 2, 1, "A", null, 0, false, 0, false,
+                "via", "Napoli", "80100", 40.85, 14.27, null, updatedAt, updatedAt, List.of(), List.of());
+    }
+}
@@ -0,0 +1,132 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchService.SearchItem;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchService.SearchResult;
+import it.dieti.dietiestatesbackend.domain.listing.Listing;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.CountMode;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchFilters;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.TotalAccuracy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.PrecisionModel;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListingSearchCacheTest {
+
+    private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory(new PrecisionModel(), 4326);
+    private static final UUID PUBLISHED_ID = UUID.randomUUID();
+    private static final UUID DRAFT_ID = UUID.randomUUID();
+
+    private ListingSearchProperties properties;
+    private ListingSearchCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ListingSearchProperties();
+        properties.setResultCacheMaxEntries(2);
+        cache = new ListingSearchCache(properties);
+    }
+
+    @Test
+    void onListingChanged_evictsOnlyPagesTheListingMayAffect() {
+        var listedInRome = listing(UUID.randomUUID(), "Roma", PUBLISHED_ID);
+        var romeFilters = filters("ROMA", 0);
+        var milanFilters = filters("MILANO", 0);
+        cache.put(romeFilters, page(listedInRome), cache.generation());
+        cache.put(milanFilters, page(), cache.generation());
+
+        var newInRome = listing(UUID.randomUUID(), "Roma", DRAFT_ID);
+        cache.onListingChanged(ListingChangedEvent.listing(newInRome, withStatus(newInRome, PUBLISHED_ID)));
+
+        assertThat(cache.get(romeFilters)).isEmpty();
+        assertThat(cache.get(milanFilters)).isPresent();
+    }
+
+    @Test
+    void onListingChanged_evictsPagesContainingTheListing() {
+        var listing = listing(UUID.randomUUID(), "Roma", PUBLISHED_ID);
+        var filters = filters(null, 0);
+        cache.put(filters, page(listing), cache.generation());
+
+        cache.onListingChanged(ListingChangedEvent.features(listing.id()));
+
+        assertThat(cache.get(filters)).isEmpty();
+    }
+
+    @Test
+    void put_evictsLeastRecentlyUsedAndSkipsStaleGenerations() {
+        var first = filters("ROMA", 0);
+        var second = filters("ROMA", 1);
+        var third = filters("ROMA", 2);
+        cache.put(first, page(), cache.generation());
+        cache.put(second, page(), cache.generation());
+        cache.get(first);
+        cache.put(third, page(), cache.generation());
+
+        assertThat(cache.get(second)).isEmpty();
+        assertThat(cache.get(first)).isPresent();
+
+        long generation = cache.generation();
+        cache.onListingChanged(ListingChangedEvent.features(UUID.randomUUID()));
+        var fourth = filters("NAPOLI", 0);
+        cache.put(fourth, page(), generation);
+        assertThat(cache.get(fourth)).isEmpty();
+    }
+
+    private static SearchFilters filters(String city, int page) {
+        return new SearchFilters(
+                null, PUBLISHED_ID, city, null, null, null, null, null, null, null,
+                List.of(), List.of(), List.of(), null, null, null, null, null, null, null, null, null,
+                "published_at", false, page, 20, null, CountMode.EXACT, 1000
+        );
+    }
+
+    private static SearchResult page(Listing... listings) {
+        var items = java.util.Arrays.stream(listings)
+                .map(listing -> new SearchItem(card(listing), null, null, List.of(), null))
+                .toList();
+        return new SearchResult(items, 0, 20, items.size(), TotalAccuracy.EXACT, null, null);
+    }
+
+    private static ListingCard card(Listing listing) {
+        return new ListingCard(
+                listing.id(), listing.agencyId(), listing.ownerAgentId(), listing.listingTypeId(), listing.statusId(),
+                listing.title(), listing.description(), listing.priceCents(), listing.currency(), listing.sizeSqm(),
+                listing.rooms(), listing.floor(), listing.energyClass(), listing.securityDepositCents(),
+                listing.furnished(), listing.condoFeeCents(), listing.petsAllowed(), listing.addressLine(),
+                listing.city(), listing.postalCode(), listing.geo().getY(), listing.geo().getX(), 0, null,
+                listing.publishedAt(), listing.createdAt(), listing.updatedAt(), null
+        );
+    }
+
+    private static Listing withStatus(Listing listing, UUID statusId) {
+        return new Listing(
+                listing.id(), listing.agencyId(), listing.ownerAgentId(), listing.listingTypeId(), statusId,
+                listing.title(), listing.description(), listing.priceCents(), listing.currency(), listing.sizeSqm(),
+                listing.rooms(), listing.floor(), listing.energyClass(), listing.contractDescription(),
+                listing.securityDepositCents(), listing.furnished(), listing.condoFeeCents(), listing.petsAllowed(),
+                listing.addressLine(), listing.city(), listing.postalCode(), listing.geo(),
+                listing.pendingDeleteUntil(), listing.deletedAt(), OffsetDateTime.now(), listing.createdAt(), OffsetDateTime.now()
+        );
+    }
+
+    private static Listing listing(UUID id, String city, UUID statusId) {
+        var now = OffsetDateTime.now();
+        return new Listing(
+                id, UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), statusId,
+                "Trilocale", "Luminoso", 200_000L, "EUR", BigDecimal.valueOf(85), 3, 2, "C",
+                null, 0L, false, 0L, false, "Via Nazionale 5", city, "00184",
+                GEOMETRY_FACTORY.createPoint(new Coordinate(12.49, 41.90)),
+                null, null, null, now, now
+        );
+    }
+}
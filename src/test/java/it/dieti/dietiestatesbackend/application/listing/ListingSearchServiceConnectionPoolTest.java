@@ -0,0 +1,189 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import it.dieti.dietiestatesbackend.application.feature.FeatureService;
+import it.dieti.dietiestatesbackend.domain.feature.FeatureRepository;
+import it.dieti.dietiestatesbackend.domain.listing.ListingType;
+import it.dieti.dietiestatesbackend.domain.listing.ListingTypeRepository;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatus;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the real service behind its transactional proxy against a connection pool smaller than the
+ * number of concurrent searches, with every repository read and enrichment stage borrowing a
+ * pooled connection as it does in production.
+ */
+@ExtendWith(MockitoExtension.class)
+class ListingSearchServiceConnectionPoolTest {
+
+    private static final int POOL_SIZE = 2;
+    private static final int CONCURRENT_SEARCHES = 6;
+    private static final Duration STAGE_DURATION = Duration.ofMillis(50);
+
+    @Mock
+    private ListingSearchRepository listingSearchRepository;
+    @Mock
+    private ListingTypeRepository listingTypeRepository;
+    @Mock
+    private ListingStatusRepository listingStatusRepository;
+    @Mock
+    private FeatureRepository featureRepository;
+    @Mock
+    private FeatureService featureService;
+    @Mock
+    private ListingSearchCache searchCache;
+    @Mock
+    private ListingCounterService listingCounterService;
+
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+    private final ExecutorService requests = Executors.newFixedThreadPool(CONCURRENT_SEARCHES);
+    private AnnotationConfigApplicationContext context;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new ListingSearchProperties();
+        context = new AnnotationConfigApplicationContext();
+        context.register(PoolConfig.class);
+        context.registerBean(ListingSearchService.class, () -> new ListingSearchService(
+                listingSearchRepository, listingTypeRepository, listingStatusRepository, featureRepository,
+                featureService, new CoordinatesValidator(), new SearchPolygonParser(properties, new ObjectMapper()),
+                properties, searchCache, new SearchEnrichmentExecutor(properties, virtualThreads),
+                listingCounterService));
+        context.refresh();
+    }
+
+    @AfterEach
+    void tearDown() {
+        requests.shutdownNow();
+        virtualThreads.close();
+        context.close();
+    }
+
+    @Test
+    void search_withMoreConcurrentSearchesThanPooledConnections_completesEverySearch() throws Exception {
+        var listingType = new ListingType(UUID.randomUUID(), "SALE", "Vendita");
+        var published = new ListingStatus(UUID.randomUUID(), "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now());
+        var listing = listing(listingType.id(), published.id());
+        when(listingStatusRepository.findByCode("PUBLISHED")).thenReturn(Optional.of(published));
+        when(listingTypeRepository.findById(listingType.id())).thenReturn(Optional.of(listingType));
+        when(listingStatusRepository.findById(published.id())).thenReturn(Optional.of(published));
+        when(listingSearchRepository.search(any()))
+                .thenAnswer(invocation -> withConnection(new ListingSearchRepository.SearchResult(List.of(listing), 1L)));
+        when(featureService.getListingFeaturesByListingIds(anyCollection())).thenAnswer(invocation -> withConnection(Map.of()));
+        when(listingCounterService.totals(anyCollection())).thenAnswer(invocation -> withConnection(Map.of()));
+
+        var service = context.getBean(ListingSearchService.class);
+        var start = new CountDownLatch(1);
+        List<Future<ListingSearchService.SearchResult>> searches = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_SEARCHES; i++) {
+            searches.add(requests.submit(() -> {
+                start.await();
+                return service.search(anonymousQuery());
+            }));
+        }
+        start.countDown();
+
+        for (var search : searches) {
+            assertThat(search.get(10, TimeUnit.SECONDS).items()).hasSize(1);
+        }
+    }
+
+    /**
+     * Holds a pooled connection in its own read-only transaction for {@link #STAGE_DURATION}.
+     */
+    private <T> T withConnection(T value) {
+        var transactionTemplate = new TransactionTemplate(context.getBean(DataSourceTransactionManager.class));
+        transactionTemplate.setReadOnly(true);
+        var jdbcTemplate = context.getBean(JdbcTemplate.class);
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.queryForObject("SELECT 1", Integer.class);
+            LockSupport.parkNanos(STAGE_DURATION.toNanos());
+            return value;
+        });
+    }
+
+    private static ListingSearchService.SearchQuery anonymousQuery() {
+        return new ListingSearchService.SearchQuery(
+                null, null, null, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null,
+                0,      // page
+                20,     // size
+                null,   // sort
+                null,   // cursor
+                null,   // count
+                true    // enforcePublishedOnly
+        );
+    }
+
+    private static ListingCard listing(UUID listingTypeId, UUID statusId) {
+        var now = OffsetDateTime.now();
+        return new ListingCard(
+                UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), listingTypeId, statusId,
+                "Bilocale", "Centro storico", 180_000L, "EUR", BigDecimal.valueOf(60), 2, 1, "B",
+                0L, false, 0L, false, "Via Toledo 1", "Napoli", "80134",
+                40.85, 14.25, 0, null, now, now, now, null
+        );
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class PoolConfig {
+
+        @Bean(destroyMethod = "close")
+        HikariDataSource dataSource() {
+            var config = new HikariConfig();
+            config.setJdbcUrl("jdbc:h2:mem:search-connection-pool;DB_CLOSE_DELAY=-1");
+            config.setMaximumPoolSize(POOL_SIZE);
+            config.setConnectionTimeout(2_000);
+            return new HikariDataSource(config);
+        }
+
+        @Bean
+        DataSourceTransactionManager transactionManager(DataSource dataSource) {
+            return new DataSourceTransactionManager(dataSource);
+        }
+
+        @Bean
+        JdbcTemplate jdbcTemplate(DataSource dataSource) {
+            return new JdbcTemplate(dataSource);
+        }
+    }
+}
@@ -1,14 +1,14 @@
 package it.dieti.dietiestatesbackend.application.listing;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
 import it.dieti.dietiestatesbackend.application.feature.FeatureService;
-import it.dieti.dietiestatesbackend.application.media.listing.ListingMediaService;
-import it.dieti.dietiestatesbackend.application.media.listing.ListingMediaService.ListingPhotoView;
 import it.dieti.dietiestatesbackend.domain.feature.Feature;
 import it.dieti.dietiestatesbackend.domain.feature.FeatureRepository;
-import it.dieti.dietiestatesbackend.domain.listing.Listing;
 import it.dieti.dietiestatesbackend.domain.listing.ListingType;
 import it.dieti.dietiestatesbackend.domain.listing.ListingTypeRepository;
+import it.dieti.dietiestatesbackend.domain.listing.counter.ListingCounters;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
 import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository;
 import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatus;
 import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
@@ -25,6 +25,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -47,10 +48,19 @@ class ListingSearchServiceTest {
     private FeatureRepository featureRepository;
     @Mock
     private FeatureService featureService;
-    @Mock
-    private ListingMediaService listingMediaService;
     @org.mockito.Spy
     private CoordinatesValidator coordinatesValidator;
+    @org.mockito.Spy
+    private SearchPolygonParser polygonParser = new SearchPolygonParser(new ListingSearchProperties(), new ObjectMapper());
+    @org.mockito.Spy
+    private ListingSearchProperties properties = new ListingSearchProperties();
+    @Mock
+    private ListingSearchCache searchCache;
+    @org.mockito.Spy
+    private SearchEnrichmentExecutor enrichmentExecutor = new SearchEnrichmentExecutor(new ListingSearchProperties(), Runnable::run);
+
+    @Mock
+    private ListingCounterService listingCounterService;
 
     @InjectMocks
     private ListingSearchService service;
@@ -75,7 +85,7 @@ class ListingSearchServiceTest {
         when(featureRepository.findByCode("ELEVATOR")).thenReturn(Optional.of(feature));
 
         var now = OffsetDateTime.now();
-        var listing = new Listing(
+        var listing = new ListingCard(
                 listingId,
                 agencyId,
                 agentId,
@@ -89,7 +99,6 @@ class ListingSearchServiceTest {
                 4,
                 2,
                 "A2",
-                null,
                 0L,
                 false,
                 0L,
@@ -97,24 +106,26 @@ class ListingSearchServiceTest {
                 "Via Roma 10",
                 "Roma",
                 "00100",
-                GEOMETRY_FACTORY.createPoint(new Coordinate(12.5, 41.9)),
-                null,
-                null,
+                41.9,
+                12.5,
+                1,
+                "https://cdn/photo.jpg",
                 now,
                 now,
-                now
+                now,
+                null
         );
 
         var repositoryResult = new ListingSearchRepository.SearchResult(List.of(listing), 1L);
         when(listingSearchRepository.search(any())).thenReturn(repositoryResult);
         when(listingTypeRepository.findById(listingTypeId)).thenReturn(Optional.of(listingType));
         when(listingStatusRepository.findById(statusId)).thenReturn(Optional.of(publishedStatus));
-        when(featureService.getListingFeatures(listingId)).thenReturn(List.of(feature));
-        when(listingMediaService.getListingPhotos(listingId)).thenReturn(List.of(new ListingPhotoView(UUID.randomUUID(), "https://cdn/photo.jpg", 1)));
+        when(featureService.getListingFeaturesByListingIds(List.of(listingId))).thenReturn(Map.of(listingId, List.of(feature)));
 
         var query = new ListingSearchService.SearchQuery(
                 "SALE",            // type
                 "Roma",            // city
+                null,              // q
                 100_000,           // minPrice
                 300_000,           // maxPrice
                 3,                 // minRooms
@@ -128,6 +139,7 @@ class ListingSearchServiceTest {
                 41.9,              // latitude
                 12.5,              // longitude
                 1_000,             // radiusMeters
+                null,              // polygon
                 null,              // hasPhotos
                 null,              // furnished
                 null,              // petsAllowed
@@ -136,6 +148,8 @@ class ListingSearchServiceTest {
                 0,                 // page
                 10,                // size
                 "priceCents,asc",  // sort
+                null,              // cursor
+                null,              // count
                 true               // enforcePublishedOnly
         );
 
@@ -150,7 +164,8 @@ class ListingSearchServiceTest {
         assertThat(item.listingType()).isEqualTo(listingType);
         assertThat(item.listingStatus()).isEqualTo(publishedStatus);
         assertThat(item.features()).containsExactly(feature);
-        assertThat(item.photos()).hasSize(1);
+        assertThat(item.listing().photoCount()).isEqualTo(1);
+        assertThat(item.listing().coverPhotoUrl()).isEqualTo("https://cdn/photo.jpg");
 
         var filtersCaptor = ArgumentCaptor.forClass(ListingSearchRepository.SearchFilters.class);
         verify(listingSearchRepository).search(filtersCaptor.capture());
@@ -171,6 +186,7 @@ class ListingSearchServiceTest {
         var query = new ListingSearchService.SearchQuery(
                 null,   // type
                 null,   // city
+                null,   // q
                 null,   // minPrice
                 null,   // maxPrice
                 null,   // minRooms
@@ -184,6 +200,7 @@ class ListingSearchServiceTest {
                 null,   // latitude
                 null,   // longitude
                 null,   // radiusMeters
+                null,   // polygon
                 true,   // hasPhotos
                 null,   // furnished
                 null,   // petsAllowed
@@ -192,6 +209,8 @@ class ListingSearchServiceTest {
                 0,      // page
                 20,     // size
                 null,   // sort
+                null,   // cursor
+                null,   // count
                 false   // enforcePublishedOnly
         );
 
@@ -213,6 +232,7 @@ class ListingSearchServiceTest {
         var query = new ListingSearchService.SearchQuery(
                 null,       // type
                 null,       // city
+                null,       // q
                 null,       // minPrice
                 null,       // maxPrice
                 null,       // minRooms
@@ -226,6 +246,7 @@ class ListingSearchServiceTest {
                 null,       // latitude
                 null,       // longitude
                 null,       // radiusMeters
+                null,       // polygon
                 null,       // hasPhotos
                 null,       // furnished
                 null,       // petsAllowed
@@ -234,6 +255,8 @@ class ListingSearchServiceTest {
                 0,          // page
                 20,         // size
                 null,       // sort
+                null,       // cursor
+                null,       // count
                 false       // enforcePublishedOnly
         );
 
@@ -251,6 +274,7 @@ class ListingSearchServiceTest {
         var query = new ListingSearchService.SearchQuery(
                 null,   // type
                 null,   // city
+                null,   // q
                 null,   // minPrice
                 null,   // maxPrice
                 null,   // minRooms
@@ -264,6 +288,7 @@ class ListingSearchServiceTest {
                 null,   // latitude
                 null,   // longitude
                 null,   // radiusMeters
+                null,   // polygon
                 null,   // hasPhotos
                 null,   // furnished
                 null,   // petsAllowed
@@ -272,6 +297,8 @@ class ListingSearchServiceTest {
                 0,      // page
                 20,     // size
                 "invalid,asc",
+                null,
+                null,
                 false
         );
 
@@ -279,4 +306,483 @@ class ListingSearchServiceTest {
                 .isInstanceOf(BadRequestException.class)
                 .hasMessageContaining("Campo di ordinamento non supportato");
     }
+
+    @Test
+    void search_whenPageIsFull_returnsCursorThatResumesAfterLastRow() {
+        var listingTypeId = UUID.randomUUID();
+        var statusId = UUID.randomUUID();
+        var listing = sampleListing(UUID.randomUUID(), listingTypeId, statusId, 180_000L);
+
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(listing), 5L))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(), 5L));
+        when(listingTypeRepository.findById(listingTypeId)).thenReturn(Optional.of(new ListingType(listingTypeId, "SALE", "Vendita")));
+        when(listingStatusRepository.findById(statusId)).thenReturn(Optional.of(new ListingStatus(statusId, "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now())));
+
+        var first = service.search(pagedQuery("priceCents,desc", null));
+        assertThat(first.nextCursor()).isNotBlank();
+
+        var second = service.search(pagedQuery("priceCents,desc", first.nextCursor()));
+        assertThat(second.nextCursor()).isNull();
+
+        var filtersCaptor = ArgumentCaptor.forClass(ListingSearchRepository.SearchFilters.class);
+        verify(listingSearchRepository, org.mockito.Mockito.times(2)).search(filtersCaptor.capture());
+        assertThat(filtersCaptor.getAllValues().getFirst().after()).isNull();
+        var after = filtersCaptor.getAllValues().get(1).after();
+        assertThat(after.sortValue()).isEqualTo(180_000L);
+        assertThat(after.createdAt()).isEqualTo(listing.createdAt());
+        assertThat(after.id()).isEqualTo(listing.id());
+    }
+
+    @Test
+    void search_whenCursorDoesNotMatchSort_throwsBadRequest() {
+        var listingTypeId = UUID.randomUUID();
+        var statusId = UUID.randomUUID();
+        var listing = sampleListing(UUID.randomUUID(), listingTypeId, statusId, 90_000L);
+
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(listing), 3L));
+        when(listingTypeRepository.findById(listingTypeId)).thenReturn(Optional.of(new ListingType(listingTypeId, "RENT", "Affitto")));
+        when(listingStatusRepository.findById(statusId)).thenReturn(Optional.of(new ListingStatus(statusId, "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now())));
+
+        var cursor = service.search(pagedQuery("priceCents,asc", null)).nextCursor();
+
+        assertThatThrownBy(() -> service.search(pagedQuery("createdAt,desc", cursor)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("ordinamento");
+        assertThatThrownBy(() -> service.search(pagedQuery("priceCents,asc", "not-a-cursor")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("cursor");
+    }
+
+    @Test
+    void search_whenCountModeRequested_passesModeAndCapToRepository() {
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(), 1000L, ListingSearchRepository.TotalAccuracy.AT_LEAST));
+        properties.setCountCap(1000);
+
+        var result = service.search(countQuery("capped"));
+
+        assertThat(result.total()).isEqualTo(1000L);
+        assertThat(result.totalAccuracy()).isEqualTo(ListingSearchRepository.TotalAccuracy.AT_LEAST);
+        var filtersCaptor = ArgumentCaptor.forClass(ListingSearchRepository.SearchFilters.class);
+        verify(listingSearchRepository).search(filtersCaptor.capture());
+        assertThat(filtersCaptor.getValue().countMode()).isEqualTo(ListingSearchRepository.CountMode.CAPPED);
+        assertThat(filtersCaptor.getValue().countCap()).isEqualTo(1000);
+    }
+
+    @Test
+    void search_whenCountModeMissing_usesConfiguredDefault() {
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(), 0L, ListingSearchRepository.TotalAccuracy.UNKNOWN));
+        properties.setDefaultCountMode(ListingSearchRepository.CountMode.NONE);
+
+        service.search(countQuery(null));
+
+        var filtersCaptor = ArgumentCaptor.forClass(ListingSearchRepository.SearchFilters.class);
+        verify(listingSearchRepository).search(filtersCaptor.capture());
+        assertThat(filtersCaptor.getValue().countMode()).isEqualTo(ListingSearchRepository.CountMode.NONE);
+    }
+
+    @Test
+    void search_whenCountModeInvalid_throwsBadRequest() {
+        assertThatThrownBy(() -> service.search(countQuery("approx")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("conteggio");
+    }
+
+    @Test
+    void search_whenAnonymousPageIsCached_skipsRepository() {
+        var publishedStatus = new ListingStatus(UUID.randomUUID(), "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now());
+        var cachedPage = new ListingSearchService.SearchResult(List.of(), 0, 20, 0, ListingSearchRepository.TotalAccuracy.EXACT, null, null);
+        when(listingStatusRepository.findByCode("PUBLISHED")).thenReturn(Optional.of(publishedStatus));
+        when(searchCache.isEnabled()).thenReturn(true);
+        when(searchCache.get(any())).thenReturn(Optional.of(cachedPage));
+
+        var result = service.search(new ListingSearchService.SearchQuery(
+                null, null, null, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null,
+                0, 20, null, null, null,
+                true    // enforcePublishedOnly
+        ));
+
+        assertThat(result).isSameAs(cachedPage);
+        org.mockito.Mockito.verifyNoInteractions(listingSearchRepository);
+    }
+
+    @Test
+    void search_whenAnonymousPageIsCached_readsCountersAgain() {
+        var publishedStatus = new ListingStatus(UUID.randomUUID(), "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now());
+        var listing = sampleListing(UUID.randomUUID(), UUID.randomUUID(), publishedStatus.id(), 150_000L);
+        var cachedItem = new ListingSearchService.SearchItem(listing, null, publishedStatus, List.of(), new ListingCounters(1, 10));
+        var cachedPage = new ListingSearchService.SearchResult(List.of(cachedItem), 0, 20, 1,
+                ListingSearchRepository.TotalAccuracy.EXACT, null, "W/\"tag\"");
+        when(listingStatusRepository.findByCode("PUBLISHED")).thenReturn(Optional.of(publishedStatus));
+        when(searchCache.isEnabled()).thenReturn(true);
+        when(searchCache.get(any())).thenReturn(Optional.of(cachedPage));
+        when(listingCounterService.totals(List.of(listing.id()))).thenReturn(Map.of(listing.id(), new ListingCounters(7, 90)));
+
+        var result = service.search(anonymousQuery());
+
+        assertThat(result.items()).singleElement()
+                .extracting(ListingSearchService.SearchItem::counters)
+                .isEqualTo(new ListingCounters(7, 90));
+        assertThat(result.entityTag()).isEqualTo(cachedPage.entityTag());
+        org.mockito.Mockito.verifyNoInteractions(listingSearchRepository);
+    }
+
+    @Test
+    void search_whenAnonymousViewsSort_bypassesCache() {
+        var publishedStatus = new ListingStatus(UUID.randomUUID(), "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now());
+        when(listingStatusRepository.findByCode("PUBLISHED")).thenReturn(Optional.of(publishedStatus));
+        when(searchCache.isEnabled()).thenReturn(true);
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(), 0L));
+
+        service.search(new ListingSearchService.SearchQuery(
+                null, null, null, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null,
+                0, 20, "views", null, null,
+                true    // enforcePublishedOnly
+        ));
+
+        verify(searchCache, org.mockito.Mockito.never()).get(any());
+        verify(searchCache, org.mockito.Mockito.never()).put(any(), any(), org.mockito.ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    void search_whenAnonymous_tagsPageByIdsAndLastUpdate() {
+        var listingTypeId = UUID.randomUUID();
+        var publishedStatus = new ListingStatus(UUID.randomUUID(), "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now());
+        var listing = sampleListing(UUID.randomUUID(), listingTypeId, publishedStatus.id(), 150_000L);
+        var updated = withUpdatedAt(listing, listing.updatedAt().plusSeconds(1));
+        when(listingStatusRepository.findByCode("PUBLISHED")).thenReturn(Optional.of(publishedStatus));
+        when(listingTypeRepository.findById(listingTypeId)).thenReturn(Optional.of(new ListingType(listingTypeId, "SALE", "Vendita")));
+        when(listingStatusRepository.findById(publishedStatus.id())).thenReturn(Optional.of(publishedStatus));
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(listing), 1L))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(listing), 1L))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(updated), 1L))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(listing), 2L));
+
+        var first = service.search(anonymousQuery()).entityTag();
+
+        assertThat(first).startsWith("W/\"");
+        assertThat(service.search(anonymousQuery()).entityTag()).isEqualTo(first);
+        assertThat(service.search(anonymousQuery()).entityTag()).isNotEqualTo(first);
+        assertThat(service.search(anonymousQuery()).entityTag()).isNotEqualTo(first);
+    }
+
+    @Test
+    void search_resolvesReferenceDataInlineAndSubmitsOnlyDatabaseStages() {
+        var listingTypeId = UUID.randomUUID();
+        var publishedStatus = new ListingStatus(UUID.randomUUID(), "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now());
+        var listing = sampleListing(UUID.randomUUID(), listingTypeId, publishedStatus.id(), 150_000L);
+        when(listingStatusRepository.findByCode("PUBLISHED")).thenReturn(Optional.of(publishedStatus));
+        when(listingTypeRepository.findById(listingTypeId)).thenReturn(Optional.of(new ListingType(listingTypeId, "SALE", "Vendita")));
+        when(listingStatusRepository.findById(publishedStatus.id())).thenReturn(Optional.of(publishedStatus));
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(listing), 1L));
+
+        var result = service.search(anonymousQuery());
+
+        assertThat(result.items()).singleElement()
+                .extracting(item -> item.listingType().code(), item -> item.listingStatus().code())
+                .containsExactly("SALE", "PUBLISHED");
+        var stages = ArgumentCaptor.forClass(String.class);
+        verify(enrichmentExecutor, org.mockito.Mockito.times(2)).submit(stages.capture(), any());
+        assertThat(stages.getAllValues()).containsExactlyInAnyOrder("features", "counters");
+    }
+
+    @Test
+    void search_whenClientHoldsPageVersion_returnsNotModifiedBeforeEnrichment() {
+        var publishedStatus = new ListingStatus(UUID.randomUUID(), "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now());
+        var listing = sampleListing(UUID.randomUUID(), UUID.randomUUID(), publishedStatus.id(), 150_000L);
+        when(listingStatusRepository.findByCode("PUBLISHED")).thenReturn(Optional.of(publishedStatus));
+        when(searchCache.isEnabled()).thenReturn(true);
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(listing), 1L));
+
+        var outcome = service.search(anonymousQuery(), entityTag -> true);
+
+        assertThat(outcome.notModified()).isTrue();
+        assertThat(outcome.entityTag()).startsWith("W/\"");
+        assertThat(outcome.listingIds()).containsExactly(listing.id());
+        org.mockito.Mockito.verifyNoInteractions(featureService, listingCounterService);
+        verify(searchCache, org.mockito.Mockito.never()).put(any(), any(), org.mockito.ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    void search_whenClientHoldsCachedPageVersion_skipsCounters() {
+        var publishedStatus = new ListingStatus(UUID.randomUUID(), "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now());
+        var listing = sampleListing(UUID.randomUUID(), UUID.randomUUID(), publishedStatus.id(), 150_000L);
+        var cachedItem = new ListingSearchService.SearchItem(listing, null, publishedStatus, List.of(), new ListingCounters(1, 10));
+        var cachedPage = new ListingSearchService.SearchResult(List.of(cachedItem), 0, 20, 1,
+                ListingSearchRepository.TotalAccuracy.EXACT, null, "W/\"tag\"");
+        when(listingStatusRepository.findByCode("PUBLISHED")).thenReturn(Optional.of(publishedStatus));
+        when(searchCache.isEnabled()).thenReturn(true);
+        when(searchCache.get(any())).thenReturn(Optional.of(cachedPage));
+
+        var outcome = service.search(anonymousQuery(), "W/\"tag\""::equals);
+
+        assertThat(outcome.notModified()).isTrue();
+        assertThat(outcome.listingIds()).containsExactly(listing.id());
+        org.mockito.Mockito.verifyNoInteractions(listingSearchRepository, listingCounterService);
+    }
+
+    @Test
+    void search_whenAuthenticated_returnsNoEntityTag() {
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(), 0L));
+
+        assertThat(service.search(countQuery(null)).entityTag()).isNull();
+    }
+
+    @Test
+    void searchMap_derivesCellSizeFromZoomAndPassesDensityThreshold() {
+        properties.setMapDensityThreshold(150);
+        properties.setMapCellsPerTile(4);
+        var cluster = new ListingSearchRepository.MapCluster(40.85, 14.25, 420, 9_000_000L, 55_000_000L);
+        when(listingSearchRepository.searchMap(any(), any(), org.mockito.ArgumentMatchers.anyDouble(), org.mockito.ArgumentMatchers.anyInt()))
+                .thenReturn(new ListingSearchRepository.MapResult(true, 420, List.of(cluster), List.of()));
+
+        var result = service.searchMap(countQuery(null), new ListingSearchService.MapViewport(40.7, 14.1, 41.0, 14.4, 10));
+
+        assertThat(result.clustered()).isTrue();
+        assertThat(result.total()).isEqualTo(420);
+        assertThat(result.clusters()).containsExactly(cluster);
+        assertThat(result.listings()).isEmpty();
+        var boundsCaptor = ArgumentCaptor.forClass(ListingSearchRepository.BoundingBox.class);
+        var cellCaptor = ArgumentCaptor.forClass(Double.class);
+        verify(listingSearchRepository).searchMap(any(), boundsCaptor.capture(), cellCaptor.capture(), org.mockito.ArgumentMatchers.eq(150));
+        assertThat(boundsCaptor.getValue()).isEqualTo(new ListingSearchRepository.BoundingBox(40.7, 14.1, 41.0, 14.4));
+        assertThat(cellCaptor.getValue()).isEqualTo(360.0 / (1024 * 4));
+    }
+
+    @Test
+    void searchMap_whenViewportInverted_throwsBadRequest() {
+        var viewport = new ListingSearchService.MapViewport(41.0, 14.1, 40.7, 14.4, 10);
+
+        assertThatThrownBy(() -> service.searchMap(countQuery(null), viewport))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("maxLat");
+        org.mockito.Mockito.verifyNoInteractions(listingSearchRepository);
+    }
+
+    @Test
+    void searchMap_whenZoomOutOfRange_throwsBadRequest() {
+        var viewport = new ListingSearchService.MapViewport(40.7, 14.1, 41.0, 14.4, 23);
+
+        assertThatThrownBy(() -> service.searchMap(countQuery(null), viewport))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("zoom");
+    }
+
+    @Test
+    void facets_resolvesTypeAndFeatureIdsToCodes() {
+        var typeId = UUID.randomUUID();
+        var featureId = UUID.randomUUID();
+        properties.setFacetPriceBucketCents(10_000_000L);
+        var buckets = List.of(new ListingSearchRepository.PriceBucket(0, 10_000_000L, 3));
+        when(listingSearchRepository.facets(any(), org.mockito.ArgumentMatchers.eq(10_000_000L)))
+                .thenReturn(new ListingSearchRepository.FacetCounts(
+                        7,
+                        Map.of(typeId, 7L),
+                        Map.of("A4", 2L),
+                        Map.of("5+", 1L),
+                        Map.of(featureId, 4L),
+                        buckets
+                ));
+        when(listingTypeRepository.findById(typeId)).thenReturn(Optional.of(new ListingType(typeId, "RENT", "Affitto")));
+        when(featureRepository.findById(featureId)).thenReturn(Optional.of(new Feature(featureId, "DOORMAN", "Portineria")));
+
+        var result = service.facets(countQuery(null));
+
+        assertThat(result.total()).isEqualTo(7);
+        assertThat(result.listingTypes()).containsExactly(Map.entry("RENT", 7L));
+        assertThat(result.features()).containsExactly(Map.entry("DOORMAN", 4L));
+        assertThat(result.energyClasses()).containsExactly(Map.entry("A4", 2L));
+        assertThat(result.rooms()).containsExactly(Map.entry("5+", 1L));
+        assertThat(result.priceHistogram()).isEqualTo(buckets);
+    }
+
+    @Test
+    void search_whenKeywordsGiven_passesTrimmedTextQueryAndRelevanceSort() {
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(), 0L));
+
+        var result = service.search(textQuery("  vista mare ", "relevance", null));
+
+        var filtersCaptor = ArgumentCaptor.forClass(ListingSearchRepository.SearchFilters.class);
+        verify(listingSearchRepository).search(filtersCaptor.capture());
+        assertThat(filtersCaptor.getValue().textQuery()).isEqualTo("vista mare");
+        assertThat(filtersCaptor.getValue().sortColumn()).isEqualTo("relevance");
+        assertThat(filtersCaptor.getValue().sortAscending()).isFalse();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void search_whenRelevanceSortWithoutKeywords_throwsBadRequest() {
+        assertThatThrownBy(() -> service.search(textQuery(null, "relevance", null)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("'q'");
+    }
+
+    @Test
+    void search_whenRelevanceSortWithCursor_throwsBadRequest() {
+        assertThatThrownBy(() -> service.search(textQuery("terrazzo", "relevance,desc", "djF8")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("pertinenza");
+    }
+
+    @Test
+    void search_whenViewsSort_ordersByViewsDescendingWithoutCursor() {
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(), 0L));
+
+        var result = service.search(textQuery(null, "views", null));
+
+        var filtersCaptor = ArgumentCaptor.forClass(ListingSearchRepository.SearchFilters.class);
+        verify(listingSearchRepository).search(filtersCaptor.capture());
+        assertThat(filtersCaptor.getValue().sortColumn()).isEqualTo("views");
+        assertThat(filtersCaptor.getValue().sortAscending()).isFalse();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    void search_whenViewsSortWithCursor_throwsBadRequest() {
+        assertThatThrownBy(() -> service.search(textQuery(null, "views,desc", "djF8")))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("visualizzazioni");
+    }
+
+    @Test
+    void search_whenDistanceSort_ordersNearestFirstAndResumesAfterLastDistance() {
+        var listingTypeId = UUID.randomUUID();
+        var statusId = UUID.randomUUID();
+        var listing = withDistance(sampleListing(UUID.randomUUID(), listingTypeId, statusId, 120_000L), 1234.5678901);
+
+        when(listingSearchRepository.search(any()))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(listing), 5L))
+                .thenReturn(new ListingSearchRepository.SearchResult(List.of(), 5L));
+        when(listingTypeRepository.findById(listingTypeId)).thenReturn(Optional.of(new ListingType(listingTypeId, "SALE", "Vendita")));
+        when(listingStatusRepository.findById(statusId)).thenReturn(Optional.of(new ListingStatus(statusId, "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now())));
+
+        var first = service.search(radiusQuery("distance", null, 5_000));
+        assertThat(first.items().getFirst().listing().distanceMeters()).isEqualTo(1234.5678901);
+        service.search(radiusQuery("distance,asc", first.nextCursor(), 5_000));
+
+        var filtersCaptor = ArgumentCaptor.forClass(ListingSearchRepository.SearchFilters.class);
+        verify(listingSearchRepository, org.mockito.Mockito.times(2)).search(filtersCaptor.capture());
+        assertThat(filtersCaptor.getAllValues().getFirst().sortColumn()).isEqualTo("distance");
+        assertThat(filtersCaptor.getAllValues().getFirst().sortAscending()).isTrue();
+        var after = filtersCaptor.getAllValues().get(1).after();
+        assertThat(after.sortValue()).isEqualTo(1234.5678901);
+        assertThat(after.id()).isEqualTo(listing.id());
+    }
+
+    @Test
+    void search_whenDistanceSortWithoutRadius_throwsBadRequest() {
+        assertThatThrownBy(() -> service.search(pagedQuery("distance", null)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("radiusMeters");
+    }
+
+    @Test
+    void search_whenDistanceSortDescending_throwsBadRequest() {
+        assertThatThrownBy(() -> service.search(radiusQuery("distance,desc", null, 5_000)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("crescente");
+    }
+
+    private static ListingSearchService.SearchQuery textQuery(String q, String sort, String cursor) {
+        return new ListingSearchService.SearchQuery(
+                null, null, q, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null,
+                0,      // page
+                20,     // size
+                sort,   // sort
+                cursor, // cursor
+                null,   // count
+                false   // enforcePublishedOnly
+        );
+    }
+
+    private static ListingSearchService.SearchQuery anonymousQuery() {
+        return new ListingSearchService.SearchQuery(
+                null, null, null, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null,
+                0,      // page
+                20,     // size
+                null,   // sort
+                null,   // cursor
+                null,   // count
+                true    // enforcePublishedOnly
+        );
+    }
+
+    private static ListingSearchService.SearchQuery countQuery(String count) {
+        return new ListingSearchService.SearchQuery(
+                null, null, null, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null,
+                0,      // page
+                20,     // size
+                null,   // sort
+                null,   // cursor
+                count,  // count
+                false   // enforcePublishedOnly
+        );
+    }
+
+    private static ListingSearchService.SearchQuery radiusQuery(String sort, String cursor, int radiusMeters) {
+        return new ListingSearchService.SearchQuery(
+                null, null, null, null, null, null, null, null, null, null, null, null, null,
+                40.85, 14.25, radiusMeters, null, null, null, null, null, null,
+                0,      // page
+                1,      // size
+                sort,   // sort
+                cursor, // cursor
+                null,   // count
+                false   // enforcePublishedOnly
+        );
+    }
+
+    private static ListingSearchService.SearchQuery pagedQuery(String sort, String cursor) {
+        return new ListingSearchService.SearchQuery(
+                null, null, null, null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null, null,
+                0,      // page
+                1,      // size
+                sort,   // sort
+                cursor, // cursor
+                null,   // count
+                false   // enforcePublishedOnly
+        );
+    }
+
+    private static ListingCard sampleListing(UUID id, UUID listingTypeId, UUID statusId, long priceCents) {
+        var now = OffsetDateTime.now();
+        return new ListingCard(
+                id, UUID.randomUUID(), UUID.randomUUID(), listingTypeId, statusId,
+                "Bilocale", "Centro storico", priceCents, "EUR", BigDecimal.valueOf(60), 2, 1, "B",
+                0L, false, 0L, false, "Via Toledo 1", "Napoli", "80134",
+                40.85, 14.25, 0, null, now, now, now, null
+        );
+    }
+
+    private static ListingCard withDistance(ListingCard c, double distanceMeters) {
+        return new ListingCard(c.id(), c.agencyId(), c.ownerAgentId(), c.listingTypeId(), c.statusId(), c.title(),
+                c.descriptionExcerpt(), c.priceCents(), c.currency(), c.sizeSqm(), c.rooms(), c.floor(), c.energyClass(),
+                c.securityDepositCents(), c.furnished(), c.condoFeeCents(), c.petsAllowed(), c.addressLine(), c.city(),
+                c.postalCode(), c.latitude(), c.longitude(), c.photoCount(), c.coverPhotoUrl(), c.publishedAt(),
+                c.createdAt(), c.updatedAt(), distanceMeters);
+    }
+
+    private static ListingCard withUpdatedAt(ListingCard c, OffsetDateTime updatedAt) {
+        return new ListingCard(c.id(), c.agencyId(), c.ownerAgentId(), c.listingTypeId(), c.statusId(), c.title(),
+                c.descriptionExcerpt(), c.priceCents(), c.currency(), c.sizeSqm(), c.rooms(), c.floor(), c.energyClass(),
+                c.securityDepositCents(), c.furnished(), c.condoFeeCents(), c.petsAllowed(), c.addressLine(), c.city(),
+                c.postalCode(), c.latitude(), c.longitude(), c.photoCount(), c.coverPhotoUrl(), c.publishedAt(),
+                c.createdAt(), updatedAt, c.distanceMeters());
+    }
 }
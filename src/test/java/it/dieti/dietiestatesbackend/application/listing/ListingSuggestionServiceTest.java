@@ -0,0 +1,118 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.domain.listing.Listing;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingLocationRepository;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingLocationRepository.LocationCount;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatus;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ListingSuggestionServiceTest {
+
+    private static final UUID PUBLISHED_ID = UUID.randomUUID();
+    private static final UUID DRAFT_ID = UUID.randomUUID();
+
+    @Mock
+    private ListingLocationRepository listingLocationRepository;
+    @Mock
+    private ListingStatusRepository listingStatusRepository;
+
+    private ListingSuggestionService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new ListingSuggestionService(listingLocationRepository, listingStatusRepository, new ListingSuggestionProperties());
+        when(listingStatusRepository.findByCode("PUBLISHED"))
+                .thenReturn(Optional.of(new ListingStatus(PUBLISHED_ID, "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now())));
+        when(listingLocationRepository.countCitiesByStatus(PUBLISHED_ID)).thenReturn(List.of(
+                new LocationCount("MILANO", "Milano", 3),
+                new LocationCount("MILAZZO", "Milazzo", 7),
+                new LocationCount("NAPOLI", "Napoli", 5),
+                new LocationCount("ROMA", "Roma", 9)));
+        when(listingLocationRepository.countPostalCodesByStatus(PUBLISHED_ID)).thenReturn(List.of(
+                new LocationCount("80121", "80121", 2),
+                new LocationCount("80122", "80122", 4)));
+        service.refresh();
+    }
+
+    @Test
+    void suggest_returnsPrefixMatchesOrderedByCount() {
+        var result = service.suggest(" mil", 10);
+
+        assertThat(result.cities()).extracting(ListingSuggestionService.Suggestion::value)
+                .containsExactly("MILAZZO", "MILANO");
+        assertThat(result.postalCodes()).isEmpty();
+    }
+
+    @Test
+    void suggest_appliesLimitPerCategory() {
+        var result = service.suggest("8012", 1);
+
+        assertThat(result.cities()).isEmpty();
+        assertThat(result.postalCodes()).containsExactly(new ListingSuggestionService.Suggestion("80122", "80122", 4));
+    }
+
+    @Test
+    void onListingChanged_tracksPublishAndUnpublish() {
+        var draft = listing("Torino", "10121", DRAFT_ID);
+        var published = withStatus(draft, PUBLISHED_ID);
+
+        service.onListingChanged(ListingChangedEvent.listing(draft, published));
+        assertThat(service.suggest("tor", 10).cities())
+                .containsExactly(new ListingSuggestionService.Suggestion("TORINO", "Torino", 1));
+        assertThat(service.suggest("101", 10).postalCodes()).hasSize(1);
+
+        service.onListingChanged(ListingChangedEvent.listing(published, withStatus(published, DRAFT_ID)));
+        assertThat(service.suggest("tor", 10).cities()).isEmpty();
+        assertThat(service.suggest("101", 10).postalCodes()).isEmpty();
+    }
+
+    @Test
+    void onListingChanged_movesCountWhenPublishedListingChangesCity() {
+        var inNaples = listing("Napoli", null, PUBLISHED_ID);
+        var inRome = new Listing(inNaples.id(), null, null, null, PUBLISHED_ID, "t", "d", 100, "EUR",
+                BigDecimal.TEN, 2, 1, "A", null, 0, false, 0, false, "via", "Roma", null, null,
+                null, null, OffsetDateTime.now(), OffsetDateTime.now(), OffsetDateTime.now());
+
+        service.onListingChanged(ListingChangedEvent.listing(inNaples, inRome));
+
+        assertThat(service.suggest("napoli", 10).cities()).extracting(ListingSuggestionService.Suggestion::count).containsExactly(4L);
+        assertThat(service.suggest("roma", 10).cities()).extracting(ListingSuggestionService.Suggestion::count).containsExactly(10L);
+    }
+
+    @Test
+    void suggest_rejectsBlankPrefixAndOutOfRangeLimit() {
+        assertThatThrownBy(() -> service.suggest("  ", 5)).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> service.suggest("ro", 21)).isInstanceOf(BadRequestException.class);
+    }
+
+    private static Listing listing(String city, String postalCode, UUID statusId) {
+        var now = OffsetDateTime.now();
+        return new Listing(UUID.randomUUID(), null, null, null, statusId, "t", "d", 100, "EUR",
+                BigDecimal.TEN, 2, 1, "A", null, 0, false, 0, false, "via", city, postalCode, null,
+                null, null, null, now, now);
+    }
+
+    private static Listing withStatus(Listing l, UUID statusId) {
+        return new Listing(l.id(), l.agencyId(), l.ownerAgentId(), l.listingTypeId(), statusId, l.title(), l.description(),
+                l.priceCents(), l.currency(), l.sizeSqm(), l.rooms(), l.floor(), l.energyClass(), l.contractDescription(),
+                l.securityDepositCents(), l.furnished(), l.condoFeeCents(), l.petsAllowed(), l.addressLine(), l.city(),
+                l.postalCode(), l.geo(), l.pendingDeleteUntil(), l.deletedAt(), l.publishedAt(), l.createdAt(), l.updatedAt());
+    }
+}
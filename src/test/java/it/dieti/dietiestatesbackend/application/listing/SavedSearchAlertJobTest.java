@@ -0,0 +1,166 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.notification.EmailQueueService;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.CountMode;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchFilters;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearch;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearchRepository;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearchRepository.AlertRun;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatus;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
+import it.dieti.dietiestatesbackend.domain.user.User;
+import it.dieti.dietiestatesbackend.domain.user.UserRepository;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.PublishedListingReader;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.PublishedListingReader.IndexedListing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SavedSearchAlertJobTest {
+
+    private static final UUID PUBLISHED_ID = UUID.randomUUID();
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 3, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+    private static final OffsetDateTime LAST_RUN = NOW.minusMinutes(16);
+    private static final OffsetDateTime UNTIL = NOW.minusMinutes(1);
+
+    @Mock
+    private SavedSearchRepository savedSearchRepository;
+    @Mock
+    private PublishedListingReader publishedListingReader;
+    @Mock
+    private ListingStatusRepository listingStatusRepository;
+    @Mock
+    private UserRepository userRepository;
+    @Mock
+    private EmailQueueService emailQueueService;
+
+    private SavedSearchAlertJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new SavedSearchAlertJob(savedSearchRepository, publishedListingReader, listingStatusRepository,
+                userRepository, emailQueueService, new SavedSearchProperties());
+    }
+
+    @Test
+    void runAt_enqueuesOneDigestPerUserAndRecordsTheWindow() {
+        var alice = UUID.randomUUID();
+        var bob = UUID.randomUUID();
+        var napoli = search(alice, "Napoli", null);
+        var anywhere = search(alice, null, null);
+        var roma = search(bob, "Roma", null);
+        var listing = card("Napoli");
+        givenLastRun(LAST_RUN);
+        givenSavedSearches(napoli, anywhere, roma);
+        givenPublished(listing);
+        when(userRepository.findById(alice)).thenReturn(Optional.of(user(alice, "alice@example.com")));
+
+        job.runAt(NOW);
+
+        var body = ArgumentCaptor.forClass(String.class);
+        verify(emailQueueService).enqueue(eq("alice@example.com"), anyString(), body.capture());
+        assertThat(body.getValue()).contains(napoli.name(), anywhere.name(), listing.id().toString());
+        verify(userRepository, never()).findById(bob);
+        verify(savedSearchRepository).insertAlertRun(new AlertRun(LAST_RUN, UNTIL, 1, 1, NOW));
+    }
+
+    @Test
+    void runAt_confirmsKeywordQueriesInSql() {
+        var user = UUID.randomUUID();
+        var withKeyword = search(user, null, "terrazzo");
+        var matched = card("Napoli");
+        var unmatched = card("Napoli");
+        givenLastRun(LAST_RUN);
+        givenSavedSearches(withKeyword);
+        givenPublished(matched, unmatched);
+        when(publishedListingReader.matchingText(Set.of(matched.id(), unmatched.id()), "terrazzo"))
+                .thenReturn(Set.of(matched.id()));
+        when(userRepository.findById(user)).thenReturn(Optional.of(user(user, "user@example.com")));
+
+        job.runAt(NOW);
+
+        var body = ArgumentCaptor.forClass(String.class);
+        verify(emailQueueService).enqueue(eq("user@example.com"), anyString(), body.capture());
+        assertThat(body.getValue()).contains(matched.id().toString()).doesNotContain(unmatched.id().toString());
+    }
+
+    @Test
+    void runAt_firstRunOnlyRecordsTheWatermark() {
+        when(savedSearchRepository.findLastAlertRunUntil()).thenReturn(Optional.empty());
+
+        job.runAt(NOW);
+
+        verifyNoInteractions(publishedListingReader, emailQueueService);
+        verify(savedSearchRepository).insertAlertRun(new AlertRun(UNTIL, UNTIL, 0, 0, NOW));
+    }
+
+    private void givenLastRun(OffsetDateTime until) {
+        when(savedSearchRepository.findLastAlertRunUntil()).thenReturn(Optional.of(until));
+        when(listingStatusRepository.findByCode("PUBLISHED"))
+                .thenReturn(Optional.of(new ListingStatus(PUBLISHED_ID, "PUBLISHED", "Pubblicato", 1, NOW)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenSavedSearches(SavedSearch... searches) {
+        doAnswer(invocation -> {
+            var consumer = (Consumer<SavedSearch>) invocation.getArgument(0);
+            List.of(searches).forEach(consumer);
+            return null;
+        }).when(savedSearchRepository).forEach(any());
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenPublished(ListingCard... listings) {
+        doAnswer(invocation -> {
+            var consumer = (Consumer<IndexedListing>) invocation.getArgument(3);
+            for (var listing : listings) {
+                consumer.accept(new IndexedListing(listing, List.of()));
+            }
+            return null;
+        }).when(publishedListingReader).forEachPublishedBetween(eq(PUBLISHED_ID), eq(LAST_RUN), eq(UNTIL), any());
+    }
+
+    private static SavedSearch search(UUID userId, String city, String textQuery) {
+        var filters = new SearchFilters(
+                null, PUBLISHED_ID, city != null ? city.toUpperCase() : null, textQuery, null, null, null, null, null, null,
+                List.of(), List.of(), List.of(), null, null, null, null, null, null,
+                null, null, null, "published_at", false, 0, 20, null, CountMode.NONE, 0
+        );
+        var name = "Ricerca " + UUID.randomUUID();
+        return new SavedSearch(UUID.randomUUID(), userId, name, filters, NOW, NOW);
+    }
+
+    private static ListingCard card(String city) {
+        return new ListingCard(UUID.randomUUID(), null, null, UUID.randomUUID(), PUBLISHED_ID, "Trilocale", "d",
+                25_000_000, "EUR", BigDecimal.valueOf(80), 3, 1, "A", 0, false, 0, false, "via", city, "80100",
+                40.85, 14.27, 1, null, NOW.minusMinutes(5), NOW.minusMinutes(5), NOW.minusMinutes(5), null);
+    }
+
+    private static User user(UUID id, String email) {
+        return new User(id, "Utente", email, false, UUID.randomUUID(), null, null, NOW, NOW, null);
+    }
+}
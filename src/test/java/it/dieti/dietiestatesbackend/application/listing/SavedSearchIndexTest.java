@@ -0,0 +1,123 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.BoundingBox;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.CountMode;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchFilters;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchPolygon;
+import it.dieti.dietiestatesbackend.domain.listing.search.SavedSearch;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SavedSearchIndexTest {
+
+    private static final UUID SALE = UUID.randomUUID();
+    private static final UUID RENT = UUID.randomUUID();
+    private static final UUID GARDEN = UUID.randomUUID();
+    private static final long BAND = 5_000_000;
+
+    private final SavedSearchIndex index = new SavedSearchIndex(BAND, 4);
+
+    @Test
+    void matching_findsSearchesInSpecificAndWildcardBuckets() {
+        var napoliSale = add(filters().city("NAPOLI").type(SALE).price(10_000_000, 20_000_000));
+        var anyCity = add(filters().type(SALE).price(null, 20_000_000));
+        var wideRange = add(filters().city("NAPOLI").price(0, 100_000_000));
+        var anything = add(filters());
+        add(filters().city("ROMA"));
+        add(filters().type(RENT));
+        add(filters().city("NAPOLI").price(30_000_000, 40_000_000));
+
+        var result = index.matching(card("Napoli", SALE, 15_000_000), List.of());
+
+        assertThat(result).containsExactlyInAnyOrder(napoliSale, anyCity, wideRange, anything);
+        assertThat(index.size()).isEqualTo(7);
+    }
+
+    @Test
+    void matching_appliesAttributeFilters() {
+        var withGarden = add(filters().features(GARDEN).energyClasses("A", "B").minRooms(3));
+        add(filters().features(GARDEN).energyClasses("C"));
+        add(filters().minRooms(4));
+
+        assertThat(index.matching(card("Napoli", SALE, 15_000_000), List.of(GARDEN))).containsExactly(withGarden);
+        assertThat(index.matching(card("Napoli", SALE, 15_000_000), List.of())).isEmpty();
+    }
+
+    @Test
+    void matching_checksRadiusAndPolygon() {
+        var nearby = add(filters().within(40.85, 14.27, 1_000));
+        add(filters().within(41.90, 12.49, 5_000));
+        var drawn = add(filters().polygon("POLYGON ((14.2 40.8, 14.3 40.8, 14.3 40.9, 14.2 40.9, 14.2 40.8))"));
+        add(filters().polygon("POLYGON ((12.4 41.8, 12.6 41.8, 12.6 42.0, 12.4 42.0, 12.4 41.8))"));
+
+        var result = index.matching(card("Napoli", SALE, 15_000_000), List.of());
+
+        assertThat(result).containsExactlyInAnyOrder(nearby, drawn);
+    }
+
+    private SavedSearch add(Spec spec) {
+        var search = new SavedSearch(UUID.randomUUID(), UUID.randomUUID(), "s", spec.build(), OffsetDateTime.now(), OffsetDateTime.now());
+        index.add(search);
+        return search;
+    }
+
+    private static ListingCard card(String city, UUID typeId, long priceCents) {
+        var now = OffsetDateTime.now();
+        return new ListingCard(UUID.randomUUID(), null, null, typeId, null, "t", "d", priceCents, "EUR",
+                BigDecimal.valueOf(80), 3, 1, "a", 0, false, 0, false, "via", city, "80100",
+                40.852, 14.268, 1, null, now, now, now, null);
+    }
+
+    private static Spec filters() {
+        return new Spec();
+    }
+
+    private static final class Spec {
+        private UUID listingTypeId;
+        private String city;
+        private Integer minPrice;
+        private Integer maxPrice;
+        private Integer minRooms;
+        private List<String> energyClasses;
+        private List<UUID> featureIds;
+        private Double latitude;
+        private Double longitude;
+        private Integer radius;
+        private SearchPolygon polygon;
+
+        Spec type(UUID value) { this.listingTypeId = value; return this; }
+        Spec city(String value) { this.city = value; return this; }
+        Spec minRooms(int value) { this.minRooms = value; return this; }
+        Spec energyClasses(String... values) { this.energyClasses = List.of(values); return this; }
+        Spec features(UUID... values) { this.featureIds = List.of(values); return this; }
+        Spec polygon(String wkt) { this.polygon = new SearchPolygon(wkt, new BoundingBox(-90, -180, 90, 180)); return this; }
+
+        Spec price(Integer min, Integer max) {
+            this.minPrice = min;
+            this.maxPrice = max;
+            return this;
+        }
+
+        Spec within(double lat, double lng, int meters) {
+            this.latitude = lat;
+            this.longitude = lng;
+            this.radius = meters;
+            return this;
+        }
+
+        SearchFilters build() {
+            return new SearchFilters(
+                    listingTypeId, null, city, null, minPrice, maxPrice, minRooms, null, null, null,
+                    energyClasses, null, featureIds, latitude, longitude, radius, polygon, null, null,
+                    null, null, null, "published_at", false, 0, 20, null, CountMode.NONE, 0
+            );
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.dieti.dietiestatesbackend.application.exception.InternalServerErrorException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchEnrichmentExecutorTest {
+
+    private final ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+
+    @AfterEach
+    void tearDown() {
+        virtualThreads.close();
+    }
+
+    @Test
+    void submit_runsStagesConcurrentlyAndRecordsTheirLatency() {
+        var registry = new SimpleMeterRegistry();
+        var executor = executor(4);
+        executor.bindTo(registry);
+        var bothStarted = new CountDownLatch(2);
+
+        var first = executor.submit("first", () -> awaitPeer(bothStarted));
+        var second = executor.submit("second", () -> awaitPeer(bothStarted));
+
+        assertThat(executor.join(first)).isTrue();
+        assertThat(executor.join(second)).isTrue();
+        assertThat(registry.get("listing_search.enrichment").tag("stage", "first").timer().count()).isEqualTo(1);
+        assertThat(registry.get("listing_search.enrichment").tag("stage", "second").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void submit_runsOnCallerWhenBudgetIsExhausted() {
+        var executor = executor(0);
+        var caller = Thread.currentThread();
+
+        var stage = executor.submit("inline", Thread::currentThread);
+
+        assertThat(stage).isDone();
+        assertThat(executor.join(stage)).isSameAs(caller);
+    }
+
+    @Test
+    void join_rethrowsStageFailure() {
+        var executor = executor(1);
+        var failure = new InternalServerErrorException("boom");
+
+        var stage = executor.submit("failing", () -> {
+            throw failure;
+        });
+
+        assertThatThrownBy(() -> executor.join(stage)).isSameAs(failure);
+    }
+
+    @Test
+    void joinAll_whenOneStageFails_interruptsTheOthers() throws InterruptedException {
+        var executor = executor(2);
+        var interrupted = new CountDownLatch(1);
+        var failure = new InternalServerErrorException("boom");
+
+        var blocked = executor.submit("blocked", () -> blockUntilInterrupted(interrupted));
+        var failing = executor.submit("failing", () -> {
+            throw failure;
+        });
+
+        assertThatThrownBy(() -> executor.joinAll(List.of(blocked, failing))).isSameAs(failure);
+        assertThat(blocked).isCancelled();
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void joinAll_whenPageTimesOut_interruptsEveryStage() throws InterruptedException {
+        var executor = executor(2, Duration.ofMillis(100));
+        var interrupted = new CountDownLatch(2);
+
+        var first = executor.submit("first", () -> blockUntilInterrupted(interrupted));
+        var second = executor.submit("second", () -> blockUntilInterrupted(interrupted));
+
+        assertThatThrownBy(() -> executor.joinAll(List.of(first, second)))
+                .isInstanceOf(InternalServerErrorException.class);
+        assertThat(first).isCancelled();
+        assertThat(second).isCancelled();
+        assertThat(interrupted.await(2, TimeUnit.SECONDS)).isTrue();
+    }
+
+    private SearchEnrichmentExecutor executor(int maxConcurrency) {
+        return executor(maxConcurrency, new ListingSearchProperties().getEnrichmentTimeout());
+    }
+
+    private SearchEnrichmentExecutor executor(int maxConcurrency, Duration timeout) {
+        var properties = new ListingSearchProperties();
+        properties.setEnrichmentMaxConcurrency(maxConcurrency);
+        properties.setEnrichmentTimeout(timeout);
+        return new SearchEnrichmentExecutor(properties, virtualThreads);
+    }
+
+    /**
+     * Blocks like a stage waiting on the database and counts down once it is interrupted.
+     */
+    private static boolean blockUntilInterrupted(CountDownLatch interrupted) {
+        try {
+            new CountDownLatch(1).await(10, TimeUnit.SECONDS);
+            return false;
+        } catch (InterruptedException ex) {
+            interrupted.countDown();
+            return false;
+        }
+    }
+
+    /**
+     * Completes only if the other stage is running at the same time.
+     */
+    private static boolean awaitPeer(CountDownLatch bothStarted) {
+        bothStarted.countDown();
+        try {
+            return bothStarted.await(2, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+import org.locationtech.jts.geom.Polygon;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+import java.util.Locale;
+import java.util.StringJoiner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class SearchPolygonParserTest {
+
+    private final SearchPolygonParser parser = new SearchPolygonParser(new ListingSearchProperties(), new ObjectMapper());
+
+    @Test
+    void parse_whenBlank_returnsNull() {
+        assertThat(parser.parse(null)).isNull();
+        assertThat(parser.parse("  ")).isNull();
+    }
+
+    @Test
+    void parse_closesOpenRingAndReturnsEnvelope() throws ParseException {
+        var polygon = parser.parse("{\"type\":\"Polygon\",\"coordinates\":[[[14.2,40.8],[14.3,40.8],[14.3,40.9]]]}");
+
+        var geometry = (Polygon) new WKTReader().read(polygon.wkt());
+        assertThat(geometry.getExteriorRing().isClosed()).isTrue();
+        assertThat(geometry.getNumPoints()).isEqualTo(4);
+        assertThat(polygon.envelope().minLatitude()).isEqualTo(40.8);
+        assertThat(polygon.envelope().minLongitude()).isEqualTo(14.2);
+        assertThat(polygon.envelope().maxLatitude()).isEqualTo(40.9);
+        assertThat(polygon.envelope().maxLongitude()).isEqualTo(14.3);
+    }
+
+    @Test
+    void parse_simplifiesDenseRingsToTheVertexBudget() throws ParseException {
+        var polygon = parser.parse(circle(14.25, 40.85, 0.05, 1500));
+
+        var geometry = (Polygon) new WKTReader().read(polygon.wkt());
+        assertThat(geometry.getNumPoints() - 1).isLessThanOrEqualTo(100).isGreaterThanOrEqualTo(3);
+        assertThat(geometry.isValid()).isTrue();
+        assertThat(polygon.envelope().maxLatitude()).isCloseTo(40.90, within(0.001));
+    }
+
+    @Test
+    void parse_rejectsInvalidInput() {
+        assertThatThrownBy(() -> parser.parse("{not json"))
+                .isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> parser.parse("{\"type\":\"Point\",\"coordinates\":[14.2,40.8]}"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("Polygon");
+        assertThatThrownBy(() -> parser.parse("{\"type\":\"Polygon\",\"coordinates\":[[[0,0],[1,1],[1,0],[0,1],[0,0]]]}"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("intersecarsi");
+        assertThatThrownBy(() -> parser.parse("{\"type\":\"Polygon\",\"coordinates\":[[[14.2,95],[14.3,40.8],[14.3,40.9]]]}"))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("-90");
+        assertThatThrownBy(() -> parser.parse(circle(14.25, 40.85, 0.05, 2500)))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("2000");
+    }
+
+    private static String circle(double lng, double lat, double radius, int vertices) {
+        var positions = new StringJoiner(",");
+        for (int i = 0; i < vertices; i++) {
+            double angle = 2 * Math.PI * i / vertices;
+            positions.add(String.format(Locale.ROOT, "[%.6f,%.6f]", lng + radius * Math.cos(angle), lat + radius * Math.sin(angle)));
+        }
+        return "{\"type\":\"Polygon\",\"coordinates\":[[" + positions + "]]}";
+    }
+}
@@ -0,0 +1,111 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class SimilarListingIndexTest {
+
+    private static final UUID SALE = UUID.randomUUID();
+    private static final UUID RENT = UUID.randomUUID();
+    private static final OffsetDateTime NOW = OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+    private static final SimilarListingIndex.Scales SCALES = new SimilarListingIndex.Scales(2.0, 0.25, 0.25, 1.0);
+
+    @Test
+    void nearest_followsHaversineOrdering() {
+        var random = new Random(42);
+        var cards = new ArrayList<ListingCard>();
+        for (int i = 0; i < 2000; i++) {
+            cards.add(card(UUID.randomUUID(), SALE, 38.0 + random.nextDouble() * 8, 8.0 + random.nextDouble() * 10,
+                    200_000_00L, 80, 3));
+        }
+        var index = new SimilarListingIndex(SCALES, 64);
+        index.addAll(cards);
+
+        for (int q = 0; q < 50; q++) {
+            var target = cards.get(random.nextInt(cards.size()));
+            var expected = cards.stream()
+                    .filter(card -> !card.id().equals(target.id()))
+                    .mapToDouble(card -> haversineKm(target, card))
+                    .sorted()
+                    .limit(10)
+                    .toArray();
+
+            var nearest = index.nearest(target, 10);
+
+            assertThat(nearest).hasSize(10);
+            for (int i = 0; i < expected.length; i++) {
+                assertThat(haversineKm(target, nearest.get(i))).isCloseTo(expected[i], withinPercentage(1));
+            }
+        }
+    }
+
+    @Test
+    void nearest_projectsEveryCandidateAroundTheTargetLatitude() {
+        var target = card(UUID.randomUUID(), SALE, 45.0, 18.0, 200_000_00L, 80, 3);
+        var east = card(UUID.randomUUID(), SALE, 45.0, 18.1423, 200_000_00L, 80, 3);
+        var northNorthEast = card(UUID.randomUUID(), SALE, 45.1, 18.033, 200_000_00L, 80, 3);
+        var index = new SimilarListingIndex(SCALES, 64);
+        index.addAll(List.of(target, east, northNorthEast));
+
+        assertThat(haversineKm(target, east)).isLessThan(haversineKm(target, northNorthEast));
+        assertThat(index.nearest(target, 2)).extracting(ListingCard::id).containsExactly(east.id(), northNorthEast.id());
+    }
+
+    @Test
+    void nearest_onlyReturnsListingsOfTheSameType() {
+        var target = card(UUID.randomUUID(), SALE, 40.85, 14.25, 200_000_00L, 80, 3);
+        var rentTwin = card(UUID.randomUUID(), RENT, 40.85, 14.25, 200_000_00L, 80, 3);
+        var saleFar = card(UUID.randomUUID(), SALE, 45.46, 9.19, 900_000_00L, 200, 6);
+        var index = new SimilarListingIndex(SCALES, 64);
+        index.addAll(List.of(target, rentTwin, saleFar));
+
+        assertThat(index.nearest(target, 5)).extracting(ListingCard::id).containsExactly(saleFar.id());
+    }
+
+    @Test
+    void upsertAndRemove_areVisibleBeforeAndAfterRebuild() {
+        var target = card(UUID.randomUUID(), SALE, 40.85, 14.25, 200_000_00L, 80, 3);
+        var near = card(UUID.randomUUID(), SALE, 40.851, 14.251, 205_000_00L, 82, 3);
+        var far = card(UUID.randomUUID(), SALE, 41.9, 12.5, 600_000_00L, 150, 5);
+        var index = new SimilarListingIndex(SCALES, 2);
+        index.addAll(List.of(target, far));
+
+        index.upsert(near);
+        assertThat(index.nearest(target, 1)).extracting(ListingCard::id).containsExactly(near.id());
+
+        var moved = card(near.id(), SALE, 45.46, 9.19, 900_000_00L, 300, 8);
+        index.upsert(moved);
+        assertThat(index.nearest(target, 2)).extracting(ListingCard::id).containsExactly(far.id(), near.id());
+
+        index.remove(far.id());
+        assertThat(index.nearest(target, 2)).extracting(ListingCard::id).containsExactly(near.id());
+        assertThat(index.get(far.id())).isNull();
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    private static double haversineKm(ListingCard a, ListingCard b) {
+        double lat1 = Math.toRadians(a.latitude());
+        double lat2 = Math.toRadians(b.latitude());
+        double dLat = lat2 - lat1;
+        double dLng = Math.toRadians(b.longitude() - a.longitude());
+        double h = Math.pow(Math.sin(dLat / 2), 2) + Math.cos(lat1) * Math.cos(lat2) * Math.pow(Math.sin(dLng / 2), 2);
+        return 2 * 6371.0 * Math.asin(Math.sqrt(h));
+    }
+
+    private static ListingCard card(UUID id, UUID typeId, double lat, double lng, long price, int sqm, int rooms) {
+        return new ListingCard(id, null, null, typeId, null, "t", "d", price, "EUR",
+                BigDecimal.valueOf(sqm), rooms, 1, "A", 0, false, 0, false, "via", "Napoli", "80100",
+                lat, lng, 0, null, NOW, NOW, NOW, null);
+    }
+}
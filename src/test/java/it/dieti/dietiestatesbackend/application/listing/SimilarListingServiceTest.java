@@ -0,0 +1,178 @@
+package it.dieti.dietiestatesbackend.application.listing;
+
+import it.dieti.dietiestatesbackend.application.exception.BadRequestException;
+import it.dieti.dietiestatesbackend.application.exception.NotFoundException;
+import it.dieti.dietiestatesbackend.domain.listing.Listing;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatus;
+import it.dieti.dietiestatesbackend.domain.listing.status.ListingStatusRepository;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.PublishedListingReader;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.PublishedListingReader.IndexedListing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SimilarListingServiceTest {
+
+    private static final UUID SALE = UUID.randomUUID();
+    private static final UUID PUBLISHED = UUID.randomUUID();
+    private static final UUID DRAFT = UUID.randomUUID();
+
+    @Mock
+    private PublishedListingReader publishedListingReader;
+    @Mock
+    private ListingStatusRepository listingStatusRepository;
+    @Mock
+    private ListingSearchService listingSearchService;
+
+    private SimilarListingService service;
+    private ListingCard target;
+    private ListingCard neighbour;
+
+    @BeforeEach
+    void setUp() {
+        service = new SimilarListingService(publishedListingReader, listingStatusRepository, listingSearchService,
+                new SimilarListingProperties());
+        target = card(UUID.randomUUID(), 40.85, 14.25, 200_000_00L);
+        neighbour = card(UUID.randomUUID(), 40.86, 14.26, 210_000_00L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void findSimilar_buildsIndexOnFirstAccessAndEnrichesNeighbours() {
+        givenPublished(target, neighbour);
+        when(listingSearchService.enrich(any())).thenReturn(List.of());
+
+        service.findSimilar(target.id(), 3);
+
+        ArgumentCaptor<List<ListingCard>> captor = ArgumentCaptor.forClass(List.class);
+        verify(listingSearchService).enrich(captor.capture());
+        assertThat(captor.getValue()).extracting(ListingCard::id).containsExactly(neighbour.id());
+    }
+
+    @Test
+    void findSimilar_concurrentFirstAccesses_buildIndexOnce() throws Exception {
+        when(listingStatusRepository.findByCode("PUBLISHED"))
+                .thenReturn(Optional.of(new ListingStatus(PUBLISHED, "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now())));
+        doAnswer(invocation -> {
+            Thread.sleep(50);
+            Consumer<IndexedListing> consumer = invocation.getArgument(1);
+            consumer.accept(new IndexedListing(target, List.of()));
+            consumer.accept(new IndexedListing(neighbour, List.of()));
+            return null;
+        }).when(publishedListingReader).forEach(eq(PUBLISHED), any());
+        when(listingSearchService.enrich(any())).thenReturn(List.of());
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var calls = new ArrayList<Future<?>>();
+            for (int i = 0; i < 4; i++) {
+                calls.add(executor.submit(() -> {
+                    start.await();
+                    return service.findSimilar(target.id(), 3);
+                }));
+            }
+            start.countDown();
+            for (Future<?> call : calls) {
+                call.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(publishedListingReader, times(1)).forEach(eq(PUBLISHED), any());
+    }
+
+    @Test
+    void findSimilar_whenListingNotPublished_throwsNotFound() {
+        givenPublished(neighbour);
+
+        assertThatThrownBy(() -> service.findSimilar(target.id(), null))
+                .isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void findSimilar_whenLimitOutOfRange_throwsBadRequest() {
+        assertThatThrownBy(() -> service.findSimilar(target.id(), 21))
+                .isInstanceOf(BadRequestException.class)
+                .hasMessageContaining("limit");
+    }
+
+    @Test
+    void onListingChanged_reindexesListingsEnteringOrLeavingThePublishedState() {
+        givenPublished(target);
+        service.refresh();
+
+        when(publishedListingReader.find(neighbour.id(), PUBLISHED))
+                .thenReturn(Optional.of(new IndexedListing(neighbour, List.of())));
+        service.onListingChanged(ListingChangedEvent.listing(listing(neighbour.id(), DRAFT), listing(neighbour.id(), PUBLISHED)));
+        assertThat(service.findSimilar(neighbour.id(), 1)).isNotNull();
+
+        when(publishedListingReader.find(neighbour.id(), PUBLISHED)).thenReturn(Optional.empty());
+        service.onListingChanged(ListingChangedEvent.listing(listing(neighbour.id(), PUBLISHED), listing(neighbour.id(), DRAFT)));
+        assertThatThrownBy(() -> service.findSimilar(neighbour.id(), 1)).isInstanceOf(NotFoundException.class);
+    }
+
+    @Test
+    void onListingChanged_ignoresDraftEditsAndFeatureChanges() {
+        givenPublished(target);
+        service.refresh();
+
+        service.onListingChanged(ListingChangedEvent.listing(listing(neighbour.id(), DRAFT), listing(neighbour.id(), DRAFT)));
+        service.onListingChanged(ListingChangedEvent.features(target.id()));
+
+        verify(publishedListingReader, never()).find(any(), eq(PUBLISHED));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void givenPublished(ListingCard... cards) {
+        when(listingStatusRepository.findByCode("PUBLISHED"))
+                .thenReturn(Optional.of(new ListingStatus(PUBLISHED, "PUBLISHED", "Pubblicato", 1, OffsetDateTime.now())));
+        doAnswer(invocation -> {
+            Consumer<IndexedListing> consumer = invocation.getArgument(1);
+            for (ListingCard card : cards) {
+                consumer.accept(new IndexedListing(card, List.of()));
+            }
+            return null;
+        }).when(publishedListingReader).forEach(eq(PUBLISHED), any());
+    }
+
+    private static ListingCard card(UUID id, double lat, double lng, long price) {
+        var now = OffsetDateTime.now();
+        return new ListingCard(id, null, null, SALE, PUBLISHED, "t", "d", price, "EUR",
+                BigDecimal.valueOf(80), 3, 1, "A", 0, false, 0, false, "via", "Napoli", "80100",
+                lat, lng, 0, null, now, now, now, null);
+    }
+
+    private static Listing listing(UUID id, UUID statusId) {
+        var now = OffsetDateTime.now();
+        return new Listing(id, null, null, SALE, statusId, "t", "d", 100_000_00L, "EUR", BigDecimal.valueOf(80), 3, 1,
+                "A", null, 0, false, 0, false, "via", "Napoli", "80100", null, null, null, null, now, now);
+    }
+}
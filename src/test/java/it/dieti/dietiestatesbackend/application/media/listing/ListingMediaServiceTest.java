@@ -17,6 +17,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
@@ -47,6 +48,9 @@ class ListingMediaServiceTest {
     @Mock
     private AgentRepository agentRepository;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ListingMediaService service;
 
@@ -101,6 +105,7 @@ class ListingMediaServiceTest {
         verify(mediaAssetService, times(1)).getListingPhoto(photoAssetId1);
         verify(mediaAssetService, times(1)).getListingPhoto(photoAssetId2);
         verify(listingMediaRepository, times(2)).save(any(ListingMedia.class));
+        verify(listingMediaRepository).refreshListingPhotoSummary(listingId);
     }
 
     @Test
@@ -39,6 +39,7 @@ class RemoveListingPhotoWhiteBoxTests {
     @Mock UserRepository userRepository;
     @Mock RoleRepository roleRepository;
     @Mock it.dieti.dietiestatesbackend.application.media.MediaAssetService mediaAssetService;
+    @Mock org.springframework.context.ApplicationEventPublisher eventPublisher;
 
     private ListingMediaService service;
 
@@ -51,7 +52,8 @@ class RemoveListingPhotoWhiteBoxTests {
                 mediaAssetRepository,
                 agentRepository,
                 userRepository,
-                roleRepository
+                roleRepository,
+                eventPublisher
         );
     }
 
@@ -104,6 +106,7 @@ class RemoveListingPhotoWhiteBoxTests {
         // Verify collaborations (white-box)
         verify(agentRepository, never()).findByUserId(any()); // privileged path bypasses agent
         verify(listingMediaRepository).delete(listingPhotoId);
+        verify(listingMediaRepository).refreshListingPhotoSummary(listingId);
         verify(mediaAssetService).deleteAsset(mediaId);
     }
 
@@ -129,6 +132,7 @@ class RemoveListingPhotoWhiteBoxTests {
         //        -> E12 (photo esiste) -> E13 (match) -> delete
         assertDoesNotThrow(() -> service.removeListingPhoto(userId, listingId, listingPhotoId));
         verify(listingMediaRepository).delete(listingPhotoId);
+        verify(listingMediaRepository).refreshListingPhotoSummary(listingId);
         verify(mediaAssetService).deleteAsset(mediaId);
     }
 
@@ -38,6 +38,7 @@ class ReorderListingPhotosBlackBoxTests {
     @Mock UserRepository userRepository;
     @Mock RoleRepository roleRepository;
     @Mock it.dieti.dietiestatesbackend.application.media.MediaAssetService mediaAssetService;
+    @Mock org.springframework.context.ApplicationEventPublisher eventPublisher;
 
     private ListingMediaService service;
 
@@ -50,7 +51,8 @@ class ReorderListingPhotosBlackBoxTests {
                 mediaAssetRepository,
                 agentRepository,
                 userRepository,
-                roleRepository
+                roleRepository,
+                eventPublisher
         );
     }
 
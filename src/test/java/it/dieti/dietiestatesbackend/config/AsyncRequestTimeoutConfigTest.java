@@ -0,0 +1,55 @@
+package it.dieti.dietiestatesbackend.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockAsyncContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AsyncRequestTimeoutConfigTest {
+
+    private MockHttpServletRequest request;
+    private StandardServletAsyncWebRequest asyncRequest;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        request.setAsyncSupported(true);
+        var response = new MockHttpServletResponse();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request, response));
+        asyncRequest = new StandardServletAsyncWebRequest(request, response);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    void beforeConcurrentHandling_appliesTimeoutSetByHandler() {
+        AsyncRequestTimeoutConfig.setForCurrentRequest(Duration.ofMinutes(30));
+
+        new AsyncRequestTimeoutConfig.TimeoutInterceptor().beforeConcurrentHandling(asyncRequest, () -> null);
+        asyncRequest.startAsync();
+
+        assertThat(((MockAsyncContext) request.getAsyncContext()).getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+    }
+
+    @Test
+    void beforeConcurrentHandling_withoutTimeout_keepsDefault() {
+        long defaultTimeout = new MockAsyncContext(request, null).getTimeout();
+
+        new AsyncRequestTimeoutConfig.TimeoutInterceptor().beforeConcurrentHandling(asyncRequest, () -> null);
+        asyncRequest.startAsync();
+
+        assertThat(((MockAsyncContext) request.getAsyncContext()).getTimeout()).isEqualTo(defaultTimeout);
+    }
+}
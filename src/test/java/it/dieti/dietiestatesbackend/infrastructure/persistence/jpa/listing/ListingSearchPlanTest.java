@@ -0,0 +1,359 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.BoundingBox;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.CountMode;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.Keyset;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchFilters;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchPolygon;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.ListingSearchRepositoryJpaAdapter.SearchStatements;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Plan regression suite for the listing search: every filter shape produced by
+ * {@link ListingSearchRepositoryJpaAdapter} is run through {@code EXPLAIN} on a seeded listings
+ * table and must not fall back to a sequential scan. The map viewport condition is also checked
+ * for its planar semantics on a wide viewport.
+ * <p>
+ * Needs a local PostGIS (e.g. the {@code db} service of docker-compose) and only runs when
+ * {@code SEARCH_PLAN_DB_URL} is set; {@code SEARCH_PLAN_DB_USER} and {@code SEARCH_PLAN_DB_PASSWORD}
+ * default to {@code app}. Migrations are applied, while seed data and statistics live in a
+ * transaction that is rolled back at the end.
+ */
+@EnabledIfEnvironmentVariable(named = "SEARCH_PLAN_DB_URL", matches = ".+")
+class ListingSearchPlanTest {
+
+    private static final int SEEDED_LISTINGS = 200_000;
+    private static final int SEEDED_AGENCIES = 200;
+    private static final Pattern NAMED_PARAMETER = Pattern.compile("(?<!:):([a-zA-Z]\\w*)");
+
+    private static Connection connection;
+    private static UUID publishedStatusId;
+    private static UUID saleTypeId;
+    private static UUID elevatorFeatureId;
+    private static UUID agencyId;
+    private static UUID ownerAgentId;
+
+    @BeforeAll
+    static void seed() throws SQLException {
+        String url = System.getenv("SEARCH_PLAN_DB_URL");
+        String user = Objects.requireNonNullElse(System.getenv("SEARCH_PLAN_DB_USER"), "app");
+        String password = Objects.requireNonNullElse(System.getenv("SEARCH_PLAN_DB_PASSWORD"), "app");
+
+        Flyway.configure()
+                .dataSource(url, user, password)
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+
+        connection = DriverManager.getConnection(url, user, password);
+        connection.setAutoCommit(false);
+        try (var statement = connection.createStatement()) {
+            statement.execute("""
+                    CREATE TEMP TABLE plan_agencies ON COMMIT DROP AS
+                    SELECT gen_random_uuid() AS agency_user_id, gen_random_uuid() AS agent_user_id,
+                           gen_random_uuid() AS agency_id, gen_random_uuid() AS agent_id, n
+                    FROM generate_series(1, %d) AS n
+                    """.formatted(SEEDED_AGENCIES));
+            statement.execute("""
+                    INSERT INTO users (id, display_name, email, role_id)
+                    SELECT u.id, 'Piano ' || u.id, u.id || '@plan.test', (SELECT id FROM roles ORDER BY code LIMIT 1)
+                    FROM (SELECT agency_user_id AS id FROM plan_agencies
+                          UNION ALL SELECT agent_user_id FROM plan_agencies) u
+                    """);
+            statement.execute("""
+                    INSERT INTO agencies (id, name, description, user_id)
+                    SELECT agency_id, 'Agenzia ' || n, 'Agenzia di prova', agency_user_id FROM plan_agencies
+                    """);
+            statement.execute("""
+                    INSERT INTO agents (id, user_id, agency_id, rea_number)
+                    SELECT agent_id, agent_user_id, agency_id, 'REA' || n FROM plan_agencies
+                    """);
+        }
+        try (var insert = connection.prepareStatement("""
+                    INSERT INTO listings (agency_id, owner_agent_id, listing_type_id, status_id, title, description,
+                                          price_cents, size_sqm, rooms, floor, energy_class, address_line, city,
+                                          postal_code, geo, deleted_at, published_at, created_at, furnished,
+                                          pets_allowed, feature_ids, photo_count)
+                    SELECT a.agency_id, a.agent_id,
+                           CASE WHEN i % 2 = 0 THEN (SELECT id FROM listing_types WHERE code = 'SALE')
+                                ELSE (SELECT id FROM listing_types WHERE code = 'RENT') END,
+                           CASE WHEN i % 10 = 0 THEN (SELECT id FROM listing_statuses WHERE code = 'DRAFT')
+                                ELSE (SELECT id FROM listing_statuses WHERE code = 'PUBLISHED') END,
+                           'Annuncio ' || i,
+                           'Descrizione ' || i || CASE WHEN i % 100 = 0 THEN ' con terrazzo e vista mare' ELSE '' END,
+                           5000000 + (i * 7919) % 100000000, 30 + i % 200, 1 + i % 6, i % 10,
+                           (ARRAY['A4','A3','A2','A1','B','C','D','E','F','G'])[1 + i % 10],
+                           'Via Prova ' || i, 'Citta ' || (i % 500), lpad((i % 5000)::text, 5, '0'),
+                           ST_SetSRID(ST_MakePoint(7 + (i % 1000) * 0.01, 37 + (i / 1000 % 100) * 0.08), 4326)::geography,
+                           CASE WHEN i % 50 = 0 THEN now() ELSE NULL END,
+                           CASE WHEN i % 10 = 0 THEN NULL ELSE now() - i * interval '1 minute' END,
+                           now() - i * interval '1 minute',
+                           i % 2 = 0, i % 3 = 0,
+                           CASE WHEN i % 20 = 0 THEN (SELECT array_agg(id ORDER BY id) FROM features)
+                                ELSE '{}'::uuid[] END,
+                           i % 4
+                    FROM generate_series(1, ?) AS i
+                    JOIN plan_agencies a ON a.n = 1 + i % ?
+                    """)) {
+            insert.setInt(1, SEEDED_LISTINGS);
+            insert.setInt(2, SEEDED_AGENCIES);
+            insert.executeUpdate();
+        }
+        try (var statement = connection.createStatement()) {
+            statement.execute("ANALYZE listings");
+        }
+
+        publishedStatusId = queryUuid("SELECT id FROM listing_statuses WHERE code = 'PUBLISHED'");
+        saleTypeId = queryUuid("SELECT id FROM listing_types WHERE code = 'SALE'");
+        elevatorFeatureId = queryUuid("SELECT id FROM features WHERE code = 'ELEVATOR'");
+        agencyId = queryUuid("SELECT agency_id FROM plan_agencies WHERE n = 1");
+        ownerAgentId = queryUuid("SELECT agent_id FROM plan_agencies WHERE n = 1");
+    }
+
+    @AfterAll
+    static void rollback() throws SQLException {
+        if (connection != null) {
+            connection.rollback();
+            connection.close();
+        }
+    }
+
+    static Stream<Arguments> filterShapes() {
+        var now = OffsetDateTime.now();
+        return Stream.of(
+                Arguments.of("default order", filters()),
+                Arguments.of("listing type", filters().listingTypeId(saleTypeId)),
+                Arguments.of("city", filters().city("CITTA 42")),
+                Arguments.of("price range", filters().minPrice(10_000_000).maxPrice(10_500_000)),
+                Arguments.of("rooms range", filters().minRooms(2).maxRooms(3)),
+                Arguments.of("size range", filters().minSqm(BigDecimal.valueOf(80)).maxSqm(90)),
+                Arguments.of("energy classes", filters().energyClasses("A4", "A3")),
+                Arguments.of("postal codes", filters().postalCodes("00042", "00043")),
+                Arguments.of("features", filters().featureIds(elevatorFeatureId)),
+                Arguments.of("radius", filters().radius(41.0, 12.0, 2_000)),
+                Arguments.of("radius by distance", filters().radius(41.0, 12.0, 2_000).sort("distance", true)),
+                Arguments.of("keyset after distance", filters().radius(41.0, 12.0, 2_000).sort("distance", true)
+                        .after(new Keyset(850.25, now, UUID.randomUUID()))),
+                Arguments.of("polygon", filters().polygon(new SearchPolygon(
+                        "POLYGON ((12 41, 12.05 41, 12.05 41.04, 12.02 41.06, 12 41))",
+                        new BoundingBox(41, 12, 41.06, 12.05)))),
+                Arguments.of("with photos", filters().hasPhotos(true)),
+                Arguments.of("without photos", filters().hasPhotos(false)),
+                Arguments.of("furnished", filters().furnished(true)),
+                Arguments.of("pets allowed", filters().petsAllowed(true)),
+                Arguments.of("agency", filters().agencyId(agencyId)),
+                Arguments.of("owner agent", filters().ownerAgentId(ownerAgentId)),
+                Arguments.of("keywords", filters().textQuery("terrazzo vista mare")),
+                Arguments.of("keywords by relevance", filters().textQuery("terrazzo").sort("relevance", false)),
+                Arguments.of("city and price", filters().city("CITTA 42").minPrice(10_000_000).maxPrice(60_000_000)),
+                Arguments.of("price ascending", filters().sort("price_cents", true)),
+                Arguments.of("price descending", filters().sort("price_cents", false)),
+                Arguments.of("created descending", filters().sort("created_at", false)),
+                Arguments.of("keyset after published", filters().after(new Keyset(now.minusDays(3), now.minusDays(3), UUID.randomUUID()))),
+                Arguments.of("keyset after null published", filters().after(new Keyset(null, now.minusDays(3), UUID.randomUUID()))),
+                Arguments.of("keyset after price", filters().sort("price_cents", true).after(new Keyset(20_000_000L, now, UUID.randomUUID()))),
+                Arguments.of("deep offset page", filters().page(50))
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("filterShapes")
+    void searchStatement_doesNotScanListingsSequentially(String name, FilterSpec spec) throws SQLException {
+        var prepared = ListingSearchRepositoryJpaAdapter.prepare(spec.toFilters());
+        var sql = SearchStatements.compile(prepared.shape()).searchSql();
+
+        var plan = explain(sql, prepared.params(), prepared.pageParams());
+
+        assertThat(plan)
+                .as("plan for %s:%n%s", name, String.join(System.lineSeparator(), plan))
+                .noneMatch(line -> line.contains("Seq Scan on listings"));
+    }
+
+    @Test
+    void viewportStatement_doesNotScanListingsSequentially() throws SQLException {
+        var prepared = ListingSearchRepositoryJpaAdapter.prepare(filters().toFilters());
+        var predicates = new ArrayList<>(prepared.shape().predicates());
+        predicates.add(ListingSearchRepositoryJpaAdapter.VIEWPORT_CONDITION);
+        var sql = "SELECT l.id FROM listings l WHERE " + String.join(" AND ", predicates);
+
+        var plan = explain(sql, viewport(prepared.params(), 41.0, 12.0, 41.1, 12.1), Map.of());
+
+        assertThat(plan)
+                .as("plan for viewport:%n%s", String.join(System.lineSeparator(), plan))
+                .noneMatch(line -> line.contains("Seq Scan on listings"));
+    }
+
+    @Test
+    void viewportCondition_keepsPointJustInsideSouthernEdgeOfWideViewport() throws SQLException {
+        var sql = "SELECT COUNT(*) FROM (SELECT ST_SetSRID(ST_MakePoint(10, 30.01), 4326)::geography AS geo) l WHERE "
+                + ListingSearchRepositoryJpaAdapter.VIEWPORT_CONDITION;
+
+        try (var statement = bind(sql, viewport(Map.of(), 30.0, -20.0, 60.0, 40.0), Map.of());
+             var rs = statement.executeQuery()) {
+            rs.next();
+            assertThat(rs.getLong(1)).isEqualTo(1);
+        }
+    }
+
+    private static Map<String, Object> viewport(Map<String, Object> params, double minLat, double minLng,
+                                                double maxLat, double maxLng) {
+        var values = new HashMap<>(params);
+        values.put("minLat", minLat);
+        values.put("minLng", minLng);
+        values.put("maxLat", maxLat);
+        values.put("maxLng", maxLng);
+        return values;
+    }
+
+    private static List<String> explain(String sql, Map<String, Object> params, Map<String, Object> pageParams) throws SQLException {
+        try (var statement = bind("EXPLAIN " + sql, params, pageParams)) {
+            var lines = new ArrayList<String>();
+            try (var rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    lines.add(rs.getString(1));
+                }
+            }
+            return lines;
+        }
+    }
+
+    private static PreparedStatement bind(String sql, Map<String, Object> params, Map<String, Object> pageParams) throws SQLException {
+        var values = new ArrayList<Object>();
+        Matcher matcher = NAMED_PARAMETER.matcher(sql);
+        var jdbcSql = new StringBuilder();
+        while (matcher.find()) {
+            String name = matcher.group(1);
+            Object value = params.containsKey(name) ? params.get(name) : pageParams.get(name);
+            values.add(value);
+            matcher.appendReplacement(jdbcSql, "?");
+        }
+        matcher.appendTail(jdbcSql);
+
+        var statement = connection.prepareStatement(jdbcSql.toString());
+        for (int i = 0; i < values.size(); i++) {
+            Object value = values.get(i);
+            if (value instanceof UUID[] uuids) {
+                statement.setArray(i + 1, connection.createArrayOf("uuid", uuids));
+            } else if (value instanceof String[] strings) {
+                statement.setArray(i + 1, connection.createArrayOf("text", strings));
+            } else {
+                statement.setObject(i + 1, value);
+            }
+        }
+        return statement;
+    }
+
+    private static UUID queryUuid(String sql) throws SQLException {
+        try (var statement = connection.createStatement(); var rs = statement.executeQuery(sql)) {
+            rs.next();
+            return rs.getObject(1, UUID.class);
+        }
+    }
+
+    private static FilterSpec filters() {
+        return new FilterSpec();
+    }
+
+    /**
+     * Public searches always restrict to published listings, so every shape starts from that.
+     */
+    static final class FilterSpec {
+        private UUID listingTypeId;
+        private String city;
+        private String textQuery;
+        private Integer minPrice;
+        private Integer maxPrice;
+        private Integer minRooms;
+        private Integer maxRooms;
+        private BigDecimal minSqm;
+        private BigDecimal maxSqm;
+        private List<String> energyClasses;
+        private List<String> postalCodes;
+        private List<UUID> featureIds;
+        private Double latitude;
+        private Double longitude;
+        private Integer radiusMeters;
+        private SearchPolygon polygon;
+        private Boolean hasPhotos;
+        private Boolean furnished;
+        private Boolean petsAllowed;
+        private UUID agencyId;
+        private UUID ownerAgentId;
+        private String sortColumn = "published_at";
+        private boolean ascending;
+        private int page;
+        private Keyset after;
+
+        FilterSpec listingTypeId(UUID value) { this.listingTypeId = value; return this; }
+        FilterSpec city(String value) { this.city = value; return this; }
+        FilterSpec textQuery(String value) { this.textQuery = value; return this; }
+        FilterSpec minPrice(int value) { this.minPrice = value; return this; }
+        FilterSpec maxPrice(int value) { this.maxPrice = value; return this; }
+        FilterSpec minRooms(int value) { this.minRooms = value; return this; }
+        FilterSpec maxRooms(int value) { this.maxRooms = value; return this; }
+        FilterSpec minSqm(BigDecimal value) { this.minSqm = value; return this; }
+        FilterSpec maxSqm(int value) { this.maxSqm = BigDecimal.valueOf(value); return this; }
+        FilterSpec energyClasses(String... values) { this.energyClasses = List.of(values); return this; }
+        FilterSpec postalCodes(String... values) { this.postalCodes = List.of(values); return this; }
+        FilterSpec featureIds(UUID... values) { this.featureIds = List.of(values); return this; }
+        FilterSpec hasPhotos(boolean value) { this.hasPhotos = value; return this; }
+        FilterSpec furnished(boolean value) { this.furnished = value; return this; }
+        FilterSpec petsAllowed(boolean value) { this.petsAllowed = value; return this; }
+        FilterSpec agencyId(UUID value) { this.agencyId = value; return this; }
+        FilterSpec ownerAgentId(UUID value) { this.ownerAgentId = value; return this; }
+        FilterSpec polygon(SearchPolygon value) { this.polygon = value; return this; }
+        FilterSpec page(int value) { this.page = value; return this; }
+        FilterSpec after(Keyset value) { this.after = value; return this; }
+
+        FilterSpec radius(double lat, double lng, int meters) {
+            this.latitude = lat;
+            this.longitude = lng;
+            this.radiusMeters = meters;
+            return this;
+        }
+
+        FilterSpec sort(String column, boolean ascending) {
+            this.sortColumn = column;
+            this.ascending = ascending;
+            return this;
+        }
+
+        SearchFilters toFilters() {
+            return new SearchFilters(
+                    listingTypeId, publishedStatusId, city, textQuery, minPrice, maxPrice, minRooms, maxRooms, minSqm, maxSqm,
+                    energyClasses, postalCodes, featureIds, latitude, longitude, radiusMeters, polygon, hasPhotos, furnished,
+                    petsAllowed, agencyId, ownerAgentId, sortColumn, ascending, page, 20, after, CountMode.EXACT, 0
+            );
+        }
+
+        @Override
+        public String toString() {
+            return "FilterSpec[sort=" + sortColumn + (ascending ? " asc" : " desc") + "]";
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TtlQueryCacheTest {
+
+    private static final String SQL = "SELECT COUNT(*) FROM listings WHERE city = :city";
+
+    @Test
+    void getOrLoad_reusesValueForSameStatementAndParametersInAnyOrder() {
+        var cache = new TtlQueryCache<Long>(Duration.ofMinutes(1), 10);
+        var loads = new AtomicInteger();
+        var first = new LinkedHashMap<String, Object>();
+        first.put("city", "Napoli");
+        first.put("types", new Object[]{"SALE", "RENT"});
+        var second = new LinkedHashMap<String, Object>();
+        second.put("types", new Object[]{"SALE", "RENT"});
+        second.put("city", "Napoli");
+
+        assertThat(cache.getOrLoad(SQL, first, () -> (long) loads.incrementAndGet())).isEqualTo(1L);
+        assertThat(cache.getOrLoad(SQL, second, () -> (long) loads.incrementAndGet())).isEqualTo(1L);
+        assertThat(cache.getOrLoad(SQL, Map.of("city", "Roma"), () -> (long) loads.incrementAndGet())).isEqualTo(2L);
+    }
+
+    @Test
+    void getOrLoad_whenTtlIsZero_alwaysLoads() {
+        var cache = new TtlQueryCache<Long>(Duration.ZERO, 10);
+        var loads = new AtomicInteger();
+
+        cache.getOrLoad(SQL, Map.of("city", "Napoli"), () -> (long) loads.incrementAndGet());
+        cache.getOrLoad(SQL, Map.of("city", "Napoli"), () -> (long) loads.incrementAndGet());
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void getOrLoad_whenFullOfLiveEntries_startsOver() {
+        var cache = new TtlQueryCache<Long>(Duration.ofMinutes(1), 2);
+        var loads = new AtomicInteger();
+        cache.getOrLoad(SQL, Map.of("city", "Napoli"), () -> (long) loads.incrementAndGet());
+        cache.getOrLoad(SQL, Map.of("city", "Roma"), () -> (long) loads.incrementAndGet());
+
+        cache.getOrLoad(SQL, Map.of("city", "Milano"), () -> (long) loads.incrementAndGet());
+        cache.getOrLoad(SQL, Map.of("city", "Milano"), () -> (long) loads.incrementAndGet());
+        cache.getOrLoad(SQL, Map.of("city", "Napoli"), () -> (long) loads.incrementAndGet());
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    void clear_dropsEveryEntry() {
+        var cache = new TtlQueryCache<Long>(Duration.ofMinutes(1), 10);
+        var loads = new AtomicInteger();
+        cache.getOrLoad(SQL, Map.of("city", "Napoli"), () -> (long) loads.incrementAndGet());
+
+        cache.clear();
+
+        assertThat(cache.getOrLoad(SQL, Map.of("city", "Napoli"), () -> (long) loads.incrementAndGet())).isEqualTo(2L);
+    }
+}
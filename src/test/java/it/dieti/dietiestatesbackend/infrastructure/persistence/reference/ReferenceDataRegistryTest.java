@@ -0,0 +1,109 @@
+package it.dieti.dietiestatesbackend.infrastructure.persistence.reference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.DefaultApplicationArguments;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReferenceDataRegistryTest {
+
+    private static final Row SALE = new Row(UUID.randomUUID(), "SALE");
+    private static final Row RENT = new Row(UUID.randomUUID(), "RENT");
+
+    private ReferenceDataProperties properties;
+    private ReferenceDataRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new ReferenceDataProperties();
+        registry = new ReferenceDataRegistry(properties);
+    }
+
+    @Test
+    void run_preloadsEveryRegisteredTable() {
+        var loads = new AtomicInteger();
+        var table = register(() -> {
+            loads.incrementAndGet();
+            return List.of(SALE, RENT);
+        });
+
+        registry.run(new DefaultApplicationArguments());
+
+        assertThat(table.isLoaded()).isTrue();
+        assertThat(table.size()).isEqualTo(2);
+        assertThat(table.findAll()).containsExactly(SALE, RENT);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void findByCodeAndById_areServedFromMemory() {
+        var loads = new AtomicInteger();
+        var table = register(() -> {
+            loads.incrementAndGet();
+            return List.of(SALE, RENT);
+        });
+        registry.refresh();
+
+        assertThat(table.findByCode("RENT")).contains(RENT);
+        assertThat(table.findById(SALE.id())).contains(SALE);
+        assertThat(table.hits()).isEqualTo(2);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void findByCode_whenCodeUnknown_returnsEmptyAndCountsMiss() {
+        var table = register(() -> List.of(SALE));
+
+        assertThat(table.findByCode("AUCTION")).isEmpty();
+        assertThat(table.findByCode(null)).isEmpty();
+        assertThat(table.findById(UUID.randomUUID())).isEmpty();
+        assertThat(table.misses()).isEqualTo(2);
+    }
+
+    @Test
+    void run_whenPreloadDisabled_loadsTableOnFirstLookup() {
+        properties.setPreload(false);
+        var table = register(() -> List.of(SALE));
+
+        registry.run(new DefaultApplicationArguments());
+        assertThat(table.isLoaded()).isFalse();
+
+        assertThat(table.findByCode("SALE")).contains(SALE);
+        assertThat(table.isLoaded()).isTrue();
+    }
+
+    @Test
+    void refresh_whenLoaderFails_keepsPreviousContent() {
+        var rows = new ArrayList<>(List.of(SALE));
+        var failing = new AtomicInteger();
+        var table = register(() -> {
+            if (failing.get() > 0) {
+                throw new IllegalStateException("database unavailable");
+            }
+            return List.copyOf(rows);
+        });
+        registry.refresh();
+
+        failing.set(1);
+        registry.refresh();
+        assertThat(table.findByCode("SALE")).contains(SALE);
+
+        failing.set(0);
+        rows.add(RENT);
+        registry.refresh();
+        assertThat(table.findByCode("RENT")).contains(RENT);
+    }
+
+    private ReferenceTable<Row> register(Supplier<List<Row>> loader) {
+        return registry.register("listing_types", loader, Row::id, Row::code);
+    }
+
+    private record Row(UUID id, String code) {}
+}
@@ -0,0 +1,29 @@
+package it.dieti.dietiestatesbackend.infrastructure.search;
+
+import it.dieti.dietiestatesbackend.application.listing.ListingChangedEvent;
+import it.dieti.dietiestatesbackend.application.listing.ListingSearchCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.event.TransactionalApplicationListenerMethodAdapter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnarListingSearchRepositoryTest {
+
+    /**
+     * Spring orders after-commit synchronizations and direct listener calls by the listener
+     * order: the store must be updated before the cache bumps its generation, otherwise a page
+     * read from the stale store could be cached under the new generation.
+     */
+    @Test
+    void onListingChanged_runsBeforeSearchCacheInvalidation() throws NoSuchMethodException {
+        var store = listener(ColumnarListingSearchRepository.class);
+        var cache = listener(ListingSearchCache.class);
+
+        assertThat(store.getOrder()).isLessThan(cache.getOrder());
+    }
+
+    private static TransactionalApplicationListenerMethodAdapter listener(Class<?> type) throws NoSuchMethodException {
+        var method = type.getMethod("onListingChanged", ListingChangedEvent.class);
+        return new TransactionalApplicationListenerMethodAdapter(type.getSimpleName(), type, method);
+    }
+}
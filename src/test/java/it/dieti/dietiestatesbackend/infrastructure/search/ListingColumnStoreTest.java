@@ -0,0 +1,210 @@
+package it.dieti.dietiestatesbackend.infrastructure.search;
+
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingCard;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.CountMode;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.Keyset;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.SearchFilters;
+import it.dieti.dietiestatesbackend.domain.listing.search.ListingSearchRepository.TotalAccuracy;
+import it.dieti.dietiestatesbackend.infrastructure.persistence.jpa.listing.PublishedListingReader.IndexedListing;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ListingColumnStoreTest {
+
+    private static final UUID APARTMENT = UUID.randomUUID();
+    private static final UUID VILLA = UUID.randomUUID();
+    private static final UUID GARDEN = UUID.randomUUID();
+    private static final UUID GARAGE = UUID.randomUUID();
+    private static final OffsetDateTime BASE = OffsetDateTime.of(2025, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    private static int sequence;
+
+    private ListingColumnStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = new ListingColumnStore();
+    }
+
+    @Test
+    void search_intersectsCategoricalFiltersAndChecksRanges() {
+        var match = add(card(APARTMENT, "Napoli", "A", 200_000, 3, true, 1), GARDEN, GARAGE);
+        add(card(APARTMENT, "Napoli", "A", 200_000, 3, true, 1), GARDEN);
+        add(card(APARTMENT, "Napoli", "G", 200_000, 3, true, 1), GARDEN, GARAGE);
+        add(card(VILLA, "Napoli", "A", 200_000, 3, true, 1), GARDEN, GARAGE);
+        add(card(APARTMENT, "Roma", "A", 200_000, 3, true, 1), GARDEN, GARAGE);
+        add(card(APARTMENT, "Napoli", "A", 90_000, 3, true, 1), GARDEN, GARAGE);
+        add(card(APARTMENT, "Napoli", "A", 200_000, null, true, 1), GARDEN, GARAGE);
+        add(card(APARTMENT, "Napoli", "A", 200_000, 3, false, 1), GARDEN, GARAGE);
+        add(card(APARTMENT, "Napoli", "A", 200_000, 3, true, 0), GARDEN, GARAGE);
+
+        var result = store.search(filters()
+                .type(APARTMENT).city("NAPOLI").energyClasses("A", "B").features(GARDEN, GARAGE)
+                .minPrice(100_000).minRooms(2).furnished(true).hasPhotos(true)
+                .build());
+
+        assertThat(result.listings()).extracting(ListingCard::id).containsExactly(match.id());
+        assertThat(result.total()).isEqualTo(1);
+        assertThat(result.totalAccuracy()).isEqualTo(TotalAccuracy.EXACT);
+    }
+
+    @Test
+    void search_pagesByOffsetAndKeysetInTheSameOrder() {
+        var all = new ArrayList<ListingCard>();
+        for (int i = 0; i < 25; i++) {
+            all.add(add(card(APARTMENT, "Napoli", "A", 100_000 + (i % 5) * 1000, 2, false, 0)));
+        }
+        var expected = all.stream()
+                .sorted(java.util.Comparator.comparingLong(ListingCard::priceCents)
+                        .thenComparing(ListingCard::createdAt)
+                        .thenComparing(card -> card.id().toString()))
+                .map(ListingCard::id)
+                .toList();
+
+        var byOffset = new ArrayList<UUID>();
+        for (int page = 0; page < 3; page++) {
+            store.search(filters().sort("price_cents", true).page(page).size(10).build())
+                    .listings().forEach(card -> byOffset.add(card.id()));
+        }
+        var byKeyset = new ArrayList<UUID>();
+        Keyset after = null;
+        for (int page = 0; page < 3; page++) {
+            var listings = store.search(filters().sort("price_cents", true).size(10).after(after).build()).listings();
+            listings.forEach(card -> byKeyset.add(card.id()));
+            if (!listings.isEmpty()) {
+                var last = listings.getLast();
+                after = new Keyset(last.priceCents(), last.createdAt(), last.id());
+            }
+        }
+
+        assertThat(byOffset).containsExactlyElementsOf(expected);
+        assertThat(byKeyset).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void search_breaksTiesOnIdAsUnsignedBytesLikePostgres() {
+        var low = add(card(UUID.fromString("7fffffff-0000-0000-0000-000000000000"), BASE));
+        var high = add(card(UUID.fromString("80000000-0000-0000-0000-000000000000"), BASE));
+
+        var result = store.search(filters().sort("created_at", true).build());
+
+        assertThat(result.listings()).extracting(ListingCard::id).containsExactly(low.id(), high.id());
+    }
+
+    @Test
+    void upsertAndRemove_keepBitsetsInSync() {
+        var listing = add(card(APARTMENT, "Napoli", "A", 100_000, 2, false, 0));
+        store.upsert(new IndexedListing(withCity(listing, "Roma"), List.of()));
+
+        assertThat(store.search(filters().city("NAPOLI").build()).total()).isZero();
+        assertThat(store.search(filters().city("ROMA").build()).total()).isEqualTo(1);
+
+        store.remove(listing.id());
+        assertThat(store.search(filters().build()).total()).isZero();
+        assertThat(store.size()).isZero();
+    }
+
+    @Test
+    void search_reportsCappedTotals() {
+        for (int i = 0; i < 5; i++) {
+            add(card(APARTMENT, "Napoli", "A", 100_000, 2, false, 0));
+        }
+
+        var result = store.search(filters().size(2).count(CountMode.CAPPED, 3).build());
+
+        assertThat(result.listings()).hasSize(2);
+        assertThat(result.total()).isEqualTo(3);
+        assertThat(result.totalAccuracy()).isEqualTo(TotalAccuracy.AT_LEAST);
+        assertThat(store.estimatedBytes()).isPositive();
+    }
+
+    private ListingCard add(ListingCard card, UUID... features) {
+        store.upsert(new IndexedListing(card, List.of(features)));
+        return card;
+    }
+
+    private static ListingCard card(UUID typeId, String city, String energyClass, long price, Integer rooms,
+                                    boolean furnished, int photos) {
+        var createdAt = BASE.plusMinutes(sequence++);
+        return new ListingCard(UUID.randomUUID(), null, null, typeId, null, "t", "d", price, "EUR",
+                BigDecimal.valueOf(80), rooms, 1, energyClass, 0, furnished, 0, false, "via", city, "80100",
+                40.85, 14.27, photos, null, createdAt, createdAt, createdAt, null);
+    }
+
+    private static ListingCard card(UUID id, OffsetDateTime createdAt) {
+        return new ListingCard(id, null, null, APARTMENT, null, "t", "d", 100_000, "EUR",
+                BigDecimal.valueOf(80), 2, 1, "A", 0, false, 0, false, "via", "Napoli", "80100",
+                40.85, 14.27, 0, null, createdAt, createdAt, createdAt, null);
+    }
+
+    private static ListingCard withCity(ListingCard c, String city) {
+        return new ListingCard(c.id(), c.agencyId(), c.ownerAgentId(), c.listingTypeId(), c.statusId(), c.title(),
+                c.descriptionExcerpt(), c.priceCents(), c.currency(), c.sizeSqm(), c.rooms(), c.floor(), c.energyClass(),
+                c.securityDepositCents(), c.furnished(), c.condoFeeCents(), c.petsAllowed(), c.addressLine(), city,
+                c.postalCode(), c.latitude(), c.longitude(), c.photoCount(), c.coverPhotoUrl(), c.publishedAt(),
+                c.createdAt(), c.updatedAt(), c.distanceMeters());
+    }
+
+    private static FilterSpec filters() {
+        return new FilterSpec();
+    }
+
+    private static final class FilterSpec {
+        private UUID listingTypeId;
+        private String city;
+        private Integer minPrice;
+        private Integer minRooms;
+        private List<String> energyClasses;
+        private List<UUID> featureIds;
+        private Boolean hasPhotos;
+        private Boolean furnished;
+        private String sortColumn = "published_at";
+        private boolean ascending;
+        private int page;
+        private int size = 20;
+        private Keyset after;
+        private CountMode countMode = CountMode.EXACT;
+        private int countCap;
+
+        FilterSpec type(UUID value) { this.listingTypeId = value; return this; }
+        FilterSpec city(String value) { this.city = value; return this; }
+        FilterSpec minPrice(int value) { this.minPrice = value; return this; }
+        FilterSpec minRooms(int value) { this.minRooms = value; return this; }
+        FilterSpec energyClasses(String... values) { this.energyClasses = List.of(values); return this; }
+        FilterSpec features(UUID... values) { this.featureIds = List.of(values); return this; }
+        FilterSpec hasPhotos(boolean value) { this.hasPhotos = value; return this; }
+        FilterSpec furnished(boolean value) { this.furnished = value; return this; }
+        FilterSpec page(int value) { this.page = value; return this; }
+        FilterSpec size(int value) { this.size = value; return this; }
+        FilterSpec after(Keyset value) { this.after = value; return this; }
+
+        FilterSpec sort(String column, boolean asc) {
+            this.sortColumn = column;
+            this.ascending = asc;
+            return this;
+        }
+
+        FilterSpec count(CountMode mode, int cap) {
+            this.countMode = mode;
+            this.countCap = cap;
+            return this;
+        }
+
+        SearchFilters build() {
+            return new SearchFilters(
+                    listingTypeId, null, city, null, minPrice, null, minRooms, null, null, null,
+                    energyClasses, null, featureIds, null, null, null, null, hasPhotos, furnished,
+                    null, null, null, sortColumn, ascending, page, size, after, countMode, countCap
+            );
+        }
+    }
+}